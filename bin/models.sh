@@ -3,6 +3,4 @@
 cd ..
 
 # create models
-java -jar target/twig-parent-0.0.4-SNAPSHOT.jar MessageCounterHandler --out=sample/analysis --in=sample/data
-java -jar target/twig-parent-0.0.4-SNAPSHOT.jar TimeCounterHandler --out=sample/analysis --in=sample/data
-java -jar target/twig-parent-0.0.4-SNAPSHOT.jar WordMatrixHandler --out=sample/analysis --in=sample/data
+java -jar target/twig-parent-0.0.4-SNAPSHOT.jar AnalysisHandler --out=sample/analysis --in=sample/data
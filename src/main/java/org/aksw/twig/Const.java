@@ -6,6 +6,7 @@ import java.nio.file.Paths;
 import java.util.List;
 
 import org.aksw.twig.automaton.data.WordMatrix;
+import org.aksw.twig.model.RDFOutputFormat;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONObject;
@@ -22,18 +23,97 @@ public class Const {
   // how many twitter blocks we use at the same time
   public static int N_THREADS_TWITTER7PARSER;
 
+  // whether all Twitter7Parser and Twitter7Pipeline instances parse blocks in one process-wide pool
+  public static boolean TWITTER7_SHARED_POOL;
+
+  // how many threads the process-wide pool has, defaults to the number of cores
+  public static int N_THREADS_TWITTER7PARSER_SHARED;
+
   // How many Twitter7Parser threads we use, each Twitter7Parser has one file
   public static int N_THREADS_TWITTER7PARSER_MAIN;
 
+  // how many twitter blocks are handed to one parsing task, 1 parses every block on its own
+  public static int TWITTER7_BATCH_SIZE;
+
+  // whether twitter blocks are parsed by the allocation-light fast path parser
+  public static boolean TWITTER7_FAST_PARSER;
+
+  // whether parsed tweets are streamed into the output instead of being collected in a model
+  public static boolean TWITTER7_STREAMING;
+
+  // whether files are parsed by the staged Twitter7Pipeline instead of Twitter7Parser
+  public static boolean TWITTER7_PIPELINE;
+
+  // minimum number of lines the pipeline read stage hands to the assembly stage at once
+  public static int PIPELINE_CHUNK_LINES;
+
+  // capacity of each queue between two pipeline stages
+  public static int PIPELINE_QUEUE_DEPTH;
+
+  // number of threads per pipeline stage, the parse stage uses the process-wide pool if enabled
+  public static int PIPELINE_READ_THREADS;
+  public static int PIPELINE_ASSEMBLY_THREADS;
+  public static int PIPELINE_PARSE_THREADS;
+  public static int PIPELINE_COLLECT_THREADS;
+
+  // whether streamed tweets are written as RDF in RDF_OUTPUT_FORMAT
+  public static boolean TWITTER7_TURTLE_OUTPUT;
+
+  // format of written RDF files: "ttl" (turtle), "nt" (N-Triples) or "rt" (RDF Thrift)
+  public static RDFOutputFormat RDF_OUTPUT_FORMAT;
+
+  // whether streamed tweets are written in the binary tweet format for analysis
+  public static boolean TWITTER7_BINARY_OUTPUT;
+
+  // In how many segments a file is split to be read in parallel, 1 disables it
+  public static int N_RANGES_TWITTER7PARSER;
+
   //
   public static int N_THREADS_SELFSUSPENDINGEXECUTOR;
 
   // seed for random generator
   public static long seed;
 
+  // how many anonymized twitter account names are cached
+  public static long ANONYMIZATION_CACHE_SIZE;
+
   // number of statements in model
   public static int MODEL_MAX_SIZE;
 
+  // directory of a TDB dataset that parsing and simulation results are stored in, "" disables it
+  public static String TDB_DIRECTORY;
+
+  // number of statements that are committed into the TDB dataset at once
+  public static long TDB_BATCH_SIZE;
+
+  // number of triples after which parsing output rolls over to a new file, 0 disables it
+  public static long OUTPUT_MAX_TRIPLES;
+
+  // how many threads compress gzip output, 1 compresses on the writing thread
+  public static int N_THREADS_GZIP;
+
+  // number of uncompressed bytes per gzip member written by ParallelGZIPOutputStream
+  public static int GZIP_BLOCK_SIZE;
+
+  // whether gzip files are indexed at their members so that they can be read in parallel
+  public static boolean GZIP_INDEX;
+
+  // number of written bytes after which parsing output rolls over to a new file, 0 disables it
+  public static long OUTPUT_MAX_BYTES;
+
+  // directory that analysis results of single files are cached in, "" disables it
+  public static String ANALYSIS_CACHE_DIRECTORY;
+
+  // number of bytes above which analysis handlers split input files into segments, 0 disables it;
+  // gzip files are split only once a member index exists, see GZIP_INDEX
+  public static long ANALYSIS_SPLIT_SIZE;
+
+  // fraction of the maximum heap that analysis tasks may use at once, 0 disables admission control
+  public static double ADMISSION_HEAP_FRACTION;
+
+  // initial estimate of heap bytes an analysis task uses per byte of input
+  public static double ADMISSION_EXPANSION_RATIO;
+
   // WordSampler
   public static double DISTRIBUTION_CHANCE_DELTA;
   // WordSampler
@@ -53,9 +133,38 @@ public class Const {
 
       N_THREADS_TWITTER7PARSER = o.getInt("twitterBlockThreads");
       N_THREADS_TWITTER7PARSER_MAIN = o.getInt("twitter7ParserThreads");
+      TWITTER7_SHARED_POOL = o.optBoolean("twitter7SharedPool", false);
+      N_THREADS_TWITTER7PARSER_SHARED =
+          o.optInt("twitter7SharedPoolThreads", Runtime.getRuntime().availableProcessors());
+      TWITTER7_BATCH_SIZE = o.optInt("twitterBlockBatchSize", 1);
+      TWITTER7_FAST_PARSER = o.optBoolean("twitter7FastParser", false);
+      TWITTER7_STREAMING = o.optBoolean("twitter7Streaming", false);
+      TWITTER7_TURTLE_OUTPUT = o.optBoolean("twitter7TurtleOutput", true);
+      RDF_OUTPUT_FORMAT = RDFOutputFormat.fromName(o.optString("rdfOutputFormat", "ttl"));
+      TWITTER7_BINARY_OUTPUT = o.optBoolean("twitter7BinaryOutput", false);
+      TWITTER7_PIPELINE = o.optBoolean("twitter7Pipeline", false);
+      PIPELINE_CHUNK_LINES = o.optInt("pipelineChunkLines", 4096);
+      PIPELINE_QUEUE_DEPTH = o.optInt("pipelineQueueDepth", 16);
+      PIPELINE_READ_THREADS = o.optInt("pipelineReadThreads", 1);
+      PIPELINE_ASSEMBLY_THREADS = o.optInt("pipelineAssemblyThreads", 1);
+      PIPELINE_PARSE_THREADS = o.optInt("pipelineParseThreads", N_THREADS_TWITTER7PARSER);
+      PIPELINE_COLLECT_THREADS = o.optInt("pipelineCollectThreads", 1);
+      N_RANGES_TWITTER7PARSER = o.optInt("twitter7ParserRanges", 1);
       N_THREADS_SELFSUSPENDINGEXECUTOR = o.getInt("selfsuspendingexecutor");
       seed = o.getInt("seed");
       MODEL_MAX_SIZE = o.getInt("modelSize");
+      ANONYMIZATION_CACHE_SIZE = o.optLong("anonymizationCacheSize", 1000000);
+      TDB_DIRECTORY = o.optString("tdbDirectory", "");
+      TDB_BATCH_SIZE = o.optLong("tdbBatchSize", 1000000);
+      OUTPUT_MAX_TRIPLES = o.optLong("outputMaxTriples", 0);
+      OUTPUT_MAX_BYTES = o.optLong("outputMaxBytes", 0);
+      N_THREADS_GZIP = o.optInt("gzipThreads", Runtime.getRuntime().availableProcessors());
+      GZIP_BLOCK_SIZE = o.optInt("gzipBlockSize", 1 << 20);
+      GZIP_INDEX = o.optBoolean("gzipIndex", false);
+      ANALYSIS_CACHE_DIRECTORY = o.optString("analysisCacheDirectory", "");
+      ANALYSIS_SPLIT_SIZE = o.optLong("analysisSplitSize", 0);
+      ADMISSION_HEAP_FRACTION = o.optDouble("admissionHeapFraction", 0);
+      ADMISSION_EXPANSION_RATIO = o.optDouble("admissionExpansionRatio", 10);
       DISTRIBUTION_CHANCE_DELTA = o.getDouble("DISTRIBUTION_CHANCE_DELTA");
       TRUNCATE_CHANCE = o.getDouble("TRUNCATE_CHANCE");
 
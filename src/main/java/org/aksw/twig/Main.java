@@ -3,6 +3,7 @@ package org.aksw.twig;
 import java.util.Arrays;
 
 import org.aksw.twig.automaton.Automaton;
+import org.aksw.twig.automaton.data.AnalysisHandler;
 import org.aksw.twig.automaton.data.MessageCounterHandler;
 import org.aksw.twig.automaton.data.TimeCounterHandler;
 import org.aksw.twig.automaton.data.WordMatrixHandler;
@@ -60,6 +61,9 @@ public class Main {
       case "TimeCounterHandler":
         TimeCounterHandler.main(Arrays.copyOfRange(args, 1, args.length));
         break;
+      case "AnalysisHandler":
+        AnalysisHandler.main(Arrays.copyOfRange(args, 1, args.length));
+        break;
 
       default:
         LOGGER.info("No argument recognized. To get an overview please use the argument --help.");
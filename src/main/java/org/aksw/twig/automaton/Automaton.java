@@ -1,11 +1,13 @@
 package org.aksw.twig.automaton;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -17,20 +19,22 @@ import java.util.Random;
 import java.util.Set;
 
 import org.aksw.twig.Const;
+import org.aksw.twig.automaton.data.FrozenWordMatrix;
 import org.aksw.twig.automaton.data.MessageCounter;
 import org.aksw.twig.automaton.data.SamplingWordPredecessorSuccessorDistribution;
 import org.aksw.twig.automaton.data.TimeCounter;
-import org.aksw.twig.automaton.data.WordMatrix;
 import org.aksw.twig.automaton.data.WordSampler;
 import org.aksw.twig.files.FileHandler;
 import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.TWIGStreamWriter;
 import org.aksw.twig.statistics.SamplingDiscreteDistribution;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
- * Generates a a TWIG model in a {@link TWIGModelWrapper} by using data analysis results from other
- * TWIG models. The generated TWIG model will include random users and tweets.
+ * Generates a a TWIG model by using data analysis results from other TWIG models and streams it
+ * into files by a {@link TWIGStreamWriter}. The generated TWIG model will include random users and
+ * tweets.
  */
 public class Automaton {
 
@@ -42,8 +46,6 @@ public class Automaton {
 
   private static final String FILE_NAME = "generated_twig_model";
 
-  private static final String FILE_ENDING = ".ttl";
-
   private final FileHandler resultStoreFileHandler;
 
   private final SamplingWordPredecessorSuccessorDistribution samplingWordPredecessorSuccessorDistribution;
@@ -71,7 +73,8 @@ public class Automaton {
       throw new IllegalArgumentException("resultStoreLocation is no directory");
     }
 
-    resultStoreFileHandler = new FileHandler(resultStoreLocation, FILE_NAME, FILE_ENDING);
+    resultStoreFileHandler = new FileHandler(resultStoreLocation, FILE_NAME,
+        Const.RDF_OUTPUT_FORMAT.getFileEnding() + ".gz");
     this.samplingWordPredecessorSuccessorDistribution =
         samplingWordPredecessorSuccessorDistribution;
     this.tweetNumberDistribution = tweetNumberDistribution;
@@ -81,15 +84,18 @@ public class Automaton {
   /**
    * Generates a TWIG model by using distributions specified in constructor
    * {@link #Automaton(SamplingWordPredecessorSuccessorDistribution, SamplingDiscreteDistribution, SamplingDiscreteDistribution, File)}
-   * )}.
+   * )}. Generated tweets will be streamed into gzip compressed files in
+   * {@link Const#RDF_OUTPUT_FORMAT} by a {@link TWIGStreamWriter}. Once a file holds more than
+   * {@link Const#MODEL_MAX_SIZE} triples subsequent users will be written into a new file. If
+   * {@link Const#TDB_DIRECTORY} is set tweets will be stored in that TDB dataset instead.
    *
    * @param userCount Users to simulate.
    * @param simulationTime Period of time to simulate. Duration will be converted to days.
    * @param startDate Starting date of the simulation period.
    * @param seed Seed for the random number generator.
-   * @return TWIG model containing users and tweets.
+   * @return Number of written triples or number of triples in the TDB dataset.
    */
-  public TWIGModelWrapper simulate(final int userCount, final Duration simulationTime,
+  public long simulate(final int userCount, final Duration simulationTime,
       final LocalDate startDate, final long seed) {
 
     LOGGER.info("Starting simulation with {} users over {} days.", userCount,
@@ -102,10 +108,25 @@ public class Automaton {
     tweetTimeDistribution.reseedRandomGenerator(seed);
     final int simulationDays = (int) simulationTime.toDays();
 
-    final TWIGModelWrapper resultModel = new TWIGModelWrapper();
+    long tripleCount = 0;
+    OutputStream outputStream = null;
+    TWIGStreamWriter writer = null;
+    final TWIGModelWrapper tdbModel = Const.TDB_DIRECTORY.isEmpty() ? null
+        : new TWIGModelWrapper(new File(Const.TDB_DIRECTORY));
 
     // for each user
     for (int i = 0; i < userCount; i++) {
+      if ((tdbModel == null) && (writer == null)) {
+        try {
+          outputStream = FileHandler.getCompressionStream(
+              new BufferedOutputStream(new FileOutputStream(resultStoreFileHandler.nextFile())));
+        } catch (final IOException e) {
+          LOGGER.error(e.getMessage(), e);
+          return tripleCount;
+        }
+        writer = new TWIGStreamWriter(outputStream, Const.RDF_OUTPUT_FORMAT);
+      }
+
       final User user = new User();
       final Set<LocalDateTime> timeStamps = new HashSet<>();
 
@@ -127,24 +148,41 @@ public class Automaton {
         // create tweet content
         final String tweetContent = samplingWordPredecessorSuccessorDistribution.sample();
 
-        // add all to the model
-        resultModel.addTweetNoAnonymization(user.getNameAsHexString(), tweetContent, tweetTime,
-            Collections.emptyList(), seed);
+        // add all to the output
+        if (tdbModel != null) {
+          tdbModel.addTweetNoAnonymization(user.getNameAsHexString(), tweetContent, tweetTime,
+              Collections.emptyList(), seed);
+        } else {
+          writer.addTweetNoAnonymization(user.getNameAsHexString(), tweetContent, tweetTime,
+              Collections.emptyList(), seed);
+        }
       }
 
-      // store created data
-      if (resultModel.getModel().size() > Const.MODEL_MAX_SIZE) {
-        LOGGER.info("Printing result model");
-        write(resultModel);
+      // complete the current file
+      if ((writer != null) && (writer.getTripleCount() > Const.MODEL_MAX_SIZE)) {
+        LOGGER.info("Completing result file");
+        tripleCount += writer.getTripleCount();
+        finish(writer, outputStream);
+        writer = null;
       }
     }
-    write(resultModel);
-    return resultModel;
+
+    if (writer != null) {
+      tripleCount += writer.getTripleCount();
+      finish(writer, outputStream);
+    }
+    if (tdbModel != null) {
+      tdbModel.commit();
+      tripleCount = tdbModel.size();
+      tdbModel.close();
+    }
+    return tripleCount;
   }
 
-  private void write(final TWIGModelWrapper resultModel) {
-    try (FileWriter writer = new FileWriter(resultStoreFileHandler.nextFile())) {
-      resultModel.write(writer);
+  private void finish(final TWIGStreamWriter writer, final OutputStream outputStream) {
+    writer.finish();
+    try {
+      outputStream.close();
     } catch (final IOException e) {
       LOGGER.error(e.getMessage(), e);
     }
@@ -154,7 +192,8 @@ public class Automaton {
    * Executes {@link #simulate(int, Duration, LocalDate, long)} with following arguments:
    * <li>
    * <ul>
-   * {@code arg[0]} must state a path to a serialized {@link WordMatrix}
+   * {@code arg[0]} must state a path to a word matrix file as loaded by
+   * {@link FrozenWordMatrix#load(File)}
    * </ul>
    * <ul>
    * {@code arg[1]} must state a path to a serialized {@link MessageCounter}
@@ -177,7 +216,8 @@ public class Automaton {
    * </ul>
    * <ul>
    * {@code arg[7]} must state a directory in which the resulting file
-   * {@code generated_twig_model_XXX.ttl} will be created with {@code _XXX} being a generic suffix
+   * {@code generated_twig_model_XXX.ttl.gz} will be created with {@code _XXX} being a generic
+   * suffix and the file ending depending on {@link Const#RDF_OUTPUT_FORMAT}
    * </ul>
    * </li>
    *
@@ -206,10 +246,8 @@ public class Automaton {
     // load models
     LOGGER.info("loads WordMatrix");
     WordSampler wordSampler;
-    try (ObjectInputStream stream =
-        new ObjectInputStream(new BufferedInputStream(new FileInputStream(wordmatrixFile)))) {
-      final WordMatrix wordMatrix = (WordMatrix) stream.readObject();
-      wordSampler = new WordSampler(wordMatrix);
+    try {
+      wordSampler = new WordSampler(FrozenWordMatrix.load(new File(wordmatrixFile)));
     } catch (IOException | ClassNotFoundException e) {
       LOGGER.error(e.getMessage(), e);
       return;
@@ -0,0 +1,142 @@
+package org.aksw.twig.automaton.data;
+
+import org.aksw.twig.Const;
+import org.aksw.twig.executors.FileReadingSuspendSupplier;
+import org.aksw.twig.executors.TreeReducer;
+import org.aksw.twig.files.FileHandler;
+import org.aksw.twig.model.RDFOutputFormat;
+import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.TweetBinaryReader;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes {@link PrimitiveWordMatrix}, {@link MessageCounter} and {@link TimeCounter} in a single
+ * pass over all files. Every file is read once and fed into an {@link AnalysisResult}, which
+ * replaces running {@link WordMatrixHandler}, {@link MessageCounterHandler} and
+ * {@link TimeCounterHandler} one after another.
+ */
+public class AnalysisHandler extends FileReadingSuspendSupplier<AnalysisResult> {
+
+  private static final Logger LOGGER = LogManager.getLogger(AnalysisHandler.class);
+
+  /** Dictionary of all results of a run, so results are merged by word ids. */
+  private final WordDictionary dictionary = new WordDictionary();
+
+  private final TreeReducer<AnalysisResult> reducer =
+      new TreeReducer<>(() -> new AnalysisResult(dictionary), (result, other) -> {
+        result.merge(other);
+        return result;
+      });
+
+  /**
+   * Creates a new instance setting class variables.
+   *
+   * @param filesToParse Set of files to parse.
+   */
+  public AnalysisHandler(Set<File> filesToParse) {
+    super(filesToParse);
+  }
+
+  @Override
+  public Callable<AnalysisResult> getFileProcessor(File file) {
+    return () -> {
+      LOGGER.info("Parsing file {}", file.getName());
+      AnalysisResult result = new AnalysisResult(dictionary);
+      if (TweetBinaryReader.isBinaryFile(file)) {
+        try (TweetBinaryReader reader = TweetBinaryReader.open(file)) {
+          result.addTweets(reader.tweets());
+        }
+      } else {
+        TWIGModelWrapper.parse(file, result.asStreamRDF());
+      }
+      return result;
+    };
+  }
+
+  /**
+   * Splits N-Triples files into line-aligned segments as stated by
+   * {@link TWIGModelWrapper#getSegmentStreamOpeners(File, int)}. Gzip compressed files are split
+   * at their members once they have been indexed, see {@link Const#GZIP_INDEX}. Other files are
+   * not split. As segments may cut a tweet's triples apart, the messages of all segments are
+   * counted together and added to the result of the segment finishing last.
+   *
+   * @param file File to parse.
+   * @param segments Number of segments to split the file into.
+   * @return Parsing callables or {@code null} if the file can't be split.
+   * @throws IOException Thrown if the file can't be split.
+   */
+  @Override
+  protected List<Callable<AnalysisResult>> getSegmentProcessors(File file, int segments)
+      throws IOException {
+    if (TweetBinaryReader.isBinaryFile(file) || !RDFOutputFormat.fromFile(file).isLineBased()) {
+      return null;
+    }
+
+    // A single segment of a gzip file without index builds the index while being read
+    List<FileHandler.StreamOpener> openers =
+        TWIGModelWrapper.getSegmentStreamOpeners(file, segments);
+    // Triples of a tweet may be cut into different segments, so messages are counted per file
+    MessageCounter fileCounter = new MessageCounter();
+    StreamRDF messageStream = fileCounter.asSegmentStreamRDF(openers.size());
+    AtomicInteger unfinishedSegments = new AtomicInteger(openers.size());
+    List<Callable<AnalysisResult>> processors = new ArrayList<>(openers.size());
+    for (int i = 0; i < openers.size(); i++) {
+      FileHandler.StreamOpener opener = openers.get(i);
+      int segment = i;
+      processors.add(() -> {
+        LOGGER.info("Parsing segment {} of file {}", segment, file.getName());
+        AnalysisResult result = new AnalysisResult(dictionary);
+        TWIGModelWrapper.parse(file, opener, result.asStreamRDF(messageStream));
+        if (unfinishedSegments.decrementAndGet() == 0) {
+          result.getMessageCounter().merge(fileCounter);
+        }
+        return result;
+      });
+    }
+    return processors;
+  }
+
+  @Override
+  public void addResult(AnalysisResult result) {
+    LOGGER.info("Merging result");
+    reducer.add(result);
+  }
+
+  @Override
+  public AnalysisResult getMergedResult() {
+    return reducer.reduce();
+  }
+
+  /**
+   * Runs a {@link org.aksw.twig.executors.SelfSuspendingExecutor} with an {@link AnalysisHandler}
+   * as {@link org.aksw.twig.executors.SuspendSupplier}. The merged results will be written into
+   * the same files as by the single handlers. Arguments must list files to parse and must be
+   * formatted as stated in {@link FileHandler#readArgs(String[])}.
+   *
+   * @param args Arguments.
+   */
+  public static void main(String[] args) {
+    Pair<File, Set<File>> fileArgs = FileHandler.readArgs(args);
+    AnalysisHandler handler = new AnalysisHandler(fileArgs.getRight());
+
+    Map<String, ResultWriter<AnalysisResult>> outputs = new LinkedHashMap<>();
+    outputs.put("message_count.obj", serializing(AnalysisResult::getMessageCounter));
+    outputs.put("time_count.obj", serializing(AnalysisResult::getTimeCounter));
+    outputs.put("word_matrix" + FrozenWordMatrixFormat.FILE_ENDING,
+        (result, file) -> result.getWordMatrix().freeze().write(file));
+    FileReadingSuspendSupplier.start(outputs, fileArgs.getLeft(), handler);
+  }
+}
@@ -0,0 +1,152 @@
+package org.aksw.twig.automaton.data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.aksw.twig.model.Tweet;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Holds a {@link PrimitiveWordMatrix}, a {@link MessageCounter} and a {@link TimeCounter} that are
+ * filled together, so every input file needs to be read only once to compute all three analysis
+ * results.
+ */
+public class AnalysisResult implements Serializable {
+
+  private static final long serialVersionUID = 5187324469015386712L;
+
+  private final PrimitiveWordMatrix wordMatrix;
+
+  private final MessageCounter messageCounter = new MessageCounter();
+
+  private final TimeCounter timeCounter = new TimeCounter();
+
+  /**
+   * Creates an empty result whose word matrix uses the
+   * {@link WordDictionary#getGlobal() global} dictionary.
+   */
+  public AnalysisResult() {
+    this(WordDictionary.getGlobal());
+  }
+
+  /**
+   * Creates an empty result. Results sharing a dictionary are merged by word ids.
+   *
+   * @param dictionary Dictionary of the word matrix.
+   */
+  public AnalysisResult(final WordDictionary dictionary) {
+    wordMatrix = new PrimitiveWordMatrix(dictionary);
+  }
+
+  public PrimitiveWordMatrix getWordMatrix() {
+    return wordMatrix;
+  }
+
+  public MessageCounter getMessageCounter() {
+    return messageCounter;
+  }
+
+  public TimeCounter getTimeCounter() {
+    return timeCounter;
+  }
+
+  /**
+   * Returns a stream that passes every triple to the streams of all three results. See
+   * {@link PrimitiveWordMatrix#asStreamRDF()}, {@link MessageCounter#asStreamRDF()} and
+   * {@link TimeCounter#asStreamRDF()}. The stream must be used for a single file.
+   *
+   * @return Stream to pass triples to.
+   */
+  public StreamRDF asStreamRDF() {
+    return asStreamRDF(messageCounter.asStreamRDF());
+  }
+
+  /**
+   * Same as {@link #asStreamRDF()} but passes triples to given stream instead of the stream of
+   * the message counter. Used to count the messages of all segments of a file together, see
+   * {@link MessageCounter#asSegmentStreamRDF(int)}.
+   *
+   * @param messageStream Stream counting messages.
+   * @return Stream to pass triples to.
+   */
+  StreamRDF asStreamRDF(final StreamRDF messageStream) {
+    final StreamRDF[] streams = {wordMatrix.asStreamRDF(), messageStream,
+        timeCounter.asStreamRDF()};
+
+    return new StreamRDF() {
+      @Override
+      public void start() {
+        for (final StreamRDF stream : streams) {
+          stream.start();
+        }
+      }
+
+      @Override
+      public void triple(final Triple triple) {
+        for (final StreamRDF stream : streams) {
+          stream.triple(triple);
+        }
+      }
+
+      @Override
+      public void quad(final Quad quad) {
+        for (final StreamRDF stream : streams) {
+          stream.quad(quad);
+        }
+      }
+
+      @Override
+      public void base(final String base) {
+        for (final StreamRDF stream : streams) {
+          stream.base(base);
+        }
+      }
+
+      @Override
+      public void prefix(final String prefix, final String iri) {
+        for (final StreamRDF stream : streams) {
+          stream.prefix(prefix, iri);
+        }
+      }
+
+      @Override
+      public void finish() {
+        for (final StreamRDF stream : streams) {
+          stream.finish();
+        }
+      }
+    };
+  }
+
+  /**
+   * Adds all tweets to all three results while consuming the stream once.
+   *
+   * @param tweets Tweets to add.
+   */
+  public void addTweets(final Stream<Tweet> tweets) {
+    final Map<String, Set<LocalDateTime>> userToTimesMapping = new HashMap<>();
+    tweets.forEach(tweet -> {
+      wordMatrix.addTweet(tweet);
+      timeCounter.addTweet(tweet);
+      MessageCounter.collectTweet(userToTimesMapping, tweet);
+    });
+    messageCounter.addUserTimes(userToTimesMapping);
+  }
+
+  /**
+   * Merges all three results of given {@link AnalysisResult} into this.
+   *
+   * @param result Result to merge.
+   */
+  public void merge(final AnalysisResult result) {
+    wordMatrix.merge(result.wordMatrix);
+    messageCounter.merge(result.messageCounter);
+    timeCounter.merge(result.timeCounter);
+  }
+}
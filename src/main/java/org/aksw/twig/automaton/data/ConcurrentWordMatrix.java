@@ -0,0 +1,309 @@
+package org.aksw.twig.automaton.data;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.twig.Const;
+
+/**
+ * Thread safe {@link WordTransitionMatrix} that many threads can fill at once, so results of
+ * single files don't need to be built separately and merged. Rows are distributed over stripes by
+ * the id of their predecessor and every stripe is a {@link PrimitiveWordMatrix} guarded by its own
+ * lock. All stripes share the dictionary of the matrix, so every word is stored once and known
+ * words are looked up without locking.<br>
+ * A serialized matrix contains a dictionary of its own words only, see {@link SerializedForm}. A
+ * matrix must not be serialized while it is altered.
+ */
+public class ConcurrentWordMatrix implements WordTransitionMatrix {
+
+  private static final long serialVersionUID = -3790452368176036482L;
+
+  private final WordDictionary dictionary;
+
+  private final PrimitiveWordMatrix[] stripes;
+
+  /**
+   * Creates a new instance with a dictionary of its own and 16 stripes per thread of
+   * {@link Const#N_THREADS_SELFSUSPENDINGEXECUTOR}.
+   */
+  public ConcurrentWordMatrix() {
+    this(Const.N_THREADS_SELFSUSPENDINGEXECUTOR * 16);
+  }
+
+  /**
+   * Creates a new instance with a dictionary of its own.
+   *
+   * @param stripes Minimum number of stripes. Will be rounded up to a power of two.
+   */
+  public ConcurrentWordMatrix(final int stripes) {
+    this(new WordDictionary(), stripes);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param dictionary Dictionary to store words in.
+   * @param stripes Minimum number of stripes. Will be rounded up to a power of two.
+   * @throws NullPointerException Thrown if {@code dictionary} is {@code null}.
+   */
+  public ConcurrentWordMatrix(final WordDictionary dictionary, final int stripes)
+      throws NullPointerException {
+    if (dictionary == null) {
+      throw new NullPointerException("Parameter is Null!");
+    }
+    this.dictionary = dictionary;
+    this.stripes =
+        new PrimitiveWordMatrix[stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1];
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] = new PrimitiveWordMatrix(dictionary);
+    }
+  }
+
+  public WordDictionary getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Returns the stripe that holds the row of a predecessor.
+   *
+   * @param predecessor Id of the predecessor.
+   * @return Stripe.
+   */
+  private PrimitiveWordMatrix getStripe(final int predecessor) {
+    // Ids are ascending, so consecutive words are spread over all stripes
+    return stripes[predecessor & (stripes.length - 1)];
+  }
+
+  /**
+   * Returns the stripe that holds the row of a predecessor.
+   *
+   * @param predecessor Predecessor.
+   * @return Stripe.
+   * @throws IllegalArgumentException Thrown if the {@code predecessor} is unknown.
+   */
+  private PrimitiveWordMatrix getStripe(final String predecessor)
+      throws IllegalArgumentException {
+    final int id = dictionary.getId(predecessor);
+    if (id == -1) {
+      throw new IllegalArgumentException("No mapping found.");
+    }
+    return getStripe(id);
+  }
+
+  @Override
+  public void alterFrequency(final String predecessor, final String successor, final long count) {
+    final int predecessorId = dictionary.addAndGet(predecessor);
+    final int successorId = dictionary.addAndGet(successor);
+    final PrimitiveWordMatrix stripe = getStripe(predecessorId);
+    synchronized (stripe) {
+      stripe.alterFrequency(predecessorId, successorId, count);
+    }
+  }
+
+  /**
+   * Adds all frequencies of given matrix to this. If both matrices share a dictionary counts will
+   * be added by id. Every transition locks its stripe on its own, so other threads can alter the
+   * matrix while merging.
+   *
+   * @param wordMatrix Matrix to merge.
+   */
+  public void merge(final PrimitiveWordMatrix wordMatrix) {
+    final WordDictionary otherDictionary = wordMatrix.getDictionary();
+    if (otherDictionary == dictionary) {
+      wordMatrix.forEachTransition((predecessor, successor, count) -> {
+        final PrimitiveWordMatrix stripe = getStripe(predecessor);
+        synchronized (stripe) {
+          stripe.alterFrequency(predecessor, successor, count);
+        }
+      });
+      return;
+    }
+
+    wordMatrix.forEachTransition((predecessor, successor, count) -> alterFrequency(
+        otherDictionary.getWord(predecessor), otherDictionary.getWord(successor), count));
+  }
+
+  @Override
+  public double getChance(final String predecessor, final String successor)
+      throws IllegalArgumentException {
+    final PrimitiveWordMatrix stripe = getStripe(predecessor);
+    synchronized (stripe) {
+      return stripe.getChance(predecessor, successor);
+    }
+  }
+
+  @Override
+  public Set<String> getPredecessors() {
+    final Set<String> predecessors = new HashSet<>();
+    for (final PrimitiveWordMatrix stripe : stripes) {
+      synchronized (stripe) {
+        predecessors.addAll(stripe.getPredecessors());
+      }
+    }
+    return predecessors;
+  }
+
+  @Override
+  public Map<Integer, Double> getMappings(final String predecessor)
+      throws IllegalArgumentException {
+    final PrimitiveWordMatrix stripe = getStripe(predecessor);
+    synchronized (stripe) {
+      return stripe.getMappings(predecessor);
+    }
+  }
+
+  @Override
+  public String getWord(final int id) {
+    return dictionary.getWord(id);
+  }
+
+  @Override
+  public double getMeanChance() {
+    final double[] sums = getChanceSums();
+    return sums[0] / sums[2];
+  }
+
+  @Override
+  public double getChanceStdDeviation() {
+    final double[] sums = getChanceSums();
+    final double mean = sums[0] / sums[2];
+    return Math.sqrt((sums[1] / sums[2]) - (mean * mean));
+  }
+
+  /**
+   * Sums up {@link PrimitiveWordMatrix#getChanceSums()} of all stripes.
+   *
+   * @return Sum of chances, sum of squared chances and number of transitions.
+   */
+  private double[] getChanceSums() {
+    final double[] sums = new double[3];
+    for (final PrimitiveWordMatrix stripe : stripes) {
+      final double[] stripeSums;
+      synchronized (stripe) {
+        stripeSums = stripe.getChanceSums();
+      }
+      for (int i = 0; i < sums.length; i++) {
+        sums[i] += stripeSums[i];
+      }
+    }
+    return sums;
+  }
+
+  @Override
+  public void truncateTo(final double lowerBoundChance) {
+    for (final PrimitiveWordMatrix stripe : stripes) {
+      synchronized (stripe) {
+        stripe.truncateTo(lowerBoundChance);
+      }
+    }
+  }
+
+  /**
+   * Returns an immutable copy of this matrix. Must not be called while the matrix is altered.
+   *
+   * @return Frozen matrix.
+   */
+  @Override
+  public FrozenWordMatrix freeze() {
+    return FrozenWordMatrix.of(dictionary.size(), dictionary::getWord, consumer -> {
+      for (final PrimitiveWordMatrix stripe : stripes) {
+        synchronized (stripe) {
+          stripe.forEachTransition(consumer);
+        }
+      }
+    });
+  }
+
+  private Object writeReplace() {
+    return new SerializedForm(this);
+  }
+
+  private void readObject(final ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialized form required.");
+  }
+
+  /**
+   * Serialized form of a {@link ConcurrentWordMatrix}. Stripes share the dictionary of the matrix,
+   * which may be shared with other matrices as well. Hence all transitions are stored with ids of a
+   * dictionary that contains the words of the matrix only.
+   */
+  private static class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 4718025637395168219L;
+
+    private final int stripes;
+
+    private String[] words = new String[16];
+
+    private int[] predecessors = new int[16];
+
+    private int[] successors = new int[16];
+
+    private long[] counts = new long[16];
+
+    private transient int wordCount = 0;
+
+    private transient int transitionCount = 0;
+
+    SerializedForm(final ConcurrentWordMatrix matrix) {
+      stripes = matrix.stripes.length;
+
+      // Maps ids of the matrix dictionary to ids of the serialized words
+      final int[] ids = new int[matrix.dictionary.size()];
+      Arrays.fill(ids, -1);
+      for (final PrimitiveWordMatrix stripe : matrix.stripes) {
+        synchronized (stripe) {
+          stripe.forEachTransition((predecessor, successor, count) -> addTransition(
+              getId(ids, matrix.dictionary, predecessor), getId(ids, matrix.dictionary, successor),
+              count));
+        }
+      }
+
+      words = Arrays.copyOf(words, wordCount);
+      predecessors = Arrays.copyOf(predecessors, transitionCount);
+      successors = Arrays.copyOf(successors, transitionCount);
+      counts = Arrays.copyOf(counts, transitionCount);
+    }
+
+    private int getId(final int[] ids, final WordDictionary dictionary, final int id) {
+      if (ids[id] == -1) {
+        if (wordCount == words.length) {
+          words = Arrays.copyOf(words, wordCount << 1);
+        }
+        words[wordCount] = dictionary.getWord(id);
+        ids[id] = wordCount++;
+      }
+      return ids[id];
+    }
+
+    private void addTransition(final int predecessor, final int successor, final long count) {
+      if (transitionCount == counts.length) {
+        predecessors = Arrays.copyOf(predecessors, transitionCount << 1);
+        successors = Arrays.copyOf(successors, transitionCount << 1);
+        counts = Arrays.copyOf(counts, transitionCount << 1);
+      }
+      predecessors[transitionCount] = predecessor;
+      successors[transitionCount] = successor;
+      counts[transitionCount++] = count;
+    }
+
+    private Object readResolve() {
+      final WordDictionary dictionary = new WordDictionary();
+      for (final String word : words) {
+        dictionary.addAndGet(word);
+      }
+
+      final ConcurrentWordMatrix matrix = new ConcurrentWordMatrix(dictionary, stripes);
+      for (int i = 0; i < counts.length; i++) {
+        matrix.getStripe(predecessors[i]).alterFrequency(predecessors[i], successors[i],
+            counts[i]);
+      }
+      return matrix;
+    }
+  }
+}
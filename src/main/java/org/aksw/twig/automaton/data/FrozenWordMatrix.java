@@ -0,0 +1,567 @@
+package org.aksw.twig.automaton.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import org.aksw.twig.structs.IntArray;
+import org.aksw.twig.structs.LongArray;
+
+/**
+ * Immutable {@link WordTransitionMatrix} in compressed sparse row layout for read-mostly use, as
+ * created by {@link WordTransitionMatrix#freeze()}. Words are sorted, so a word's id is its index
+ * in the sorted vocabulary and ids can be looked up by binary search. The successors of the
+ * predecessor with id {@code i} are stored at the indices {@code rowOffsets[i]} (inclusive) to
+ * {@code rowOffsets[i + 1]} (exclusive) of {@code successorIds} and {@code counts}, sorted by id
+ * and therefore alphabetically. A transition costs 12 bytes.<br>
+ * The frequency distribution can't be altered except by {@link #truncateTo(double)}.<br>
+ * <br>
+ *
+ * Matrices can be written to files by {@link #write(File)} in the format described by
+ * {@link FrozenWordMatrixFormat}. Such files are loaded by {@link #map(File)} which maps the
+ * arrays into memory instead of reading them, so loading takes about as long as decoding the
+ * vocabulary and processes on the same host share the arrays in the page cache. Truncating a
+ * mapped matrix copies the remaining transitions to the heap.
+ */
+public class FrozenWordMatrix implements WordTransitionMatrix {
+
+  private static final long serialVersionUID = -4419630583530913227L;
+
+  private final String[] words;
+
+  private IntArray rowOffsets;
+
+  private IntArray successorIds;
+
+  private LongArray counts;
+
+  private LongArray rowTotals;
+
+  private FrozenWordMatrix(final String[] words, final IntArray rowOffsets,
+      final IntArray successorIds, final LongArray counts, final LongArray rowTotals) {
+    this.words = words;
+    this.rowOffsets = rowOffsets;
+    this.successorIds = successorIds;
+    this.counts = counts;
+    this.rowTotals = rowTotals;
+  }
+
+  private FrozenWordMatrix(final String[] words, final int[] rowOffsets,
+      final int[] successorIds, final long[] counts) {
+    this.words = words;
+    setRows(rowOffsets, successorIds, counts);
+  }
+
+  private void setRows(final int[] rowOffsets, final int[] successorIds, final long[] counts) {
+    final long[] rowTotals = new long[words.length];
+    for (int i = 0; i < words.length; i++) {
+      for (int k = rowOffsets[i]; k < rowOffsets[i + 1]; k++) {
+        rowTotals[i] += counts[k];
+      }
+    }
+
+    this.rowOffsets = IntArray.of(rowOffsets);
+    this.successorIds = IntArray.of(successorIds);
+    this.counts = LongArray.of(counts);
+    this.rowTotals = LongArray.of(rowTotals);
+  }
+
+  /**
+   * Source of the transitions of a matrix to freeze.
+   */
+  @FunctionalInterface
+  interface TransitionSource {
+
+    /**
+     * Hands every transition with a count to given consumer. Every pair of predecessor and
+     * successor must be handed at most once.
+     *
+     * @param consumer Consumer of transitions.
+     */
+    void forEach(TransitionConsumer consumer);
+  }
+
+  /**
+   * Consumer of transitions by word ids.
+   */
+  @FunctionalInterface
+  interface TransitionConsumer {
+
+    void accept(int predecessor, int successor, long count);
+  }
+
+  /**
+   * Creates a frozen matrix of the transitions of another matrix. Only words that take part in a
+   * transition will be part of the vocabulary.
+   *
+   * @param vocabularySize Number of word ids of the source.
+   * @param words Maps word ids of the source to words.
+   * @param source Transitions of the source.
+   * @return Frozen matrix.
+   */
+  static FrozenWordMatrix of(final int vocabularySize, final IntFunction<String> words,
+      final TransitionSource source) {
+    final boolean[] used = new boolean[vocabularySize];
+    final int[] rowSizes = new int[vocabularySize];
+    source.forEach((predecessor, successor, count) -> {
+      used[predecessor] = true;
+      used[successor] = true;
+      rowSizes[predecessor]++;
+    });
+
+    int usedWords = 0;
+    for (final boolean isUsed : used) {
+      usedWords += isUsed ? 1 : 0;
+    }
+    final String[] sortedWords = new String[usedWords];
+    for (int id = 0, i = 0; id < vocabularySize; id++) {
+      if (used[id]) {
+        sortedWords[i++] = words.apply(id);
+      }
+    }
+    Arrays.sort(sortedWords);
+
+    final int[] translation = new int[vocabularySize];
+    for (int id = 0; id < vocabularySize; id++) {
+      translation[id] = used[id] ? Arrays.binarySearch(sortedWords, words.apply(id)) : -1;
+    }
+
+    final int[] rowOffsets = new int[usedWords + 1];
+    for (int id = 0; id < vocabularySize; id++) {
+      if (used[id]) {
+        rowOffsets[translation[id] + 1] = rowSizes[id];
+      }
+    }
+    for (int i = 0; i < usedWords; i++) {
+      rowOffsets[i + 1] += rowOffsets[i];
+    }
+
+    final int[] successorIds = new int[rowOffsets[usedWords]];
+    final long[] counts = new long[successorIds.length];
+    final int[] cursors = Arrays.copyOf(rowOffsets, usedWords);
+    source.forEach((predecessor, successor, count) -> {
+      final int k = cursors[translation[predecessor]]++;
+      successorIds[k] = translation[successor];
+      counts[k] = count;
+    });
+
+    for (int i = 0; i < usedWords; i++) {
+      sortRow(successorIds, counts, rowOffsets[i], rowOffsets[i + 1]);
+    }
+    return new FrozenWordMatrix(sortedWords, rowOffsets, successorIds, counts);
+  }
+
+  /**
+   * Sorts a row by successor ids.
+   *
+   * @param successorIds Successor ids.
+   * @param counts Counts in the order of the successor ids.
+   * @param from Index of the first transition of the row.
+   * @param to Index after the last transition of the row.
+   */
+  private static void sortRow(final int[] successorIds, final long[] counts, final int from,
+      final int to) {
+    final long[] order = new long[to - from];
+    for (int k = from; k < to; k++) {
+      order[k - from] = ((long) successorIds[k] << 32) | (k - from);
+    }
+    Arrays.sort(order);
+
+    final long[] rowCounts = Arrays.copyOfRange(counts, from, to);
+    for (int k = from; k < to; k++) {
+      successorIds[k] = (int) (order[k - from] >>> 32);
+      counts[k] = rowCounts[(int) order[k - from]];
+    }
+  }
+
+  /**
+   * Writes the matrix to a file in the format described by {@link FrozenWordMatrixFormat}.
+   *
+   * @param file File to write.
+   * @throws IOException Thrown if the file could not be written.
+   */
+  public void write(final File file) throws IOException {
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(FrozenWordMatrixFormat.MAGIC);
+      out.writeInt(FrozenWordMatrixFormat.VERSION);
+      out.writeInt(words.length);
+      out.writeInt(successorIds.length());
+      for (int i = 0; i < words.length; i++) {
+        out.writeLong(rowTotals.get(i));
+      }
+      for (int k = 0; k < counts.length(); k++) {
+        out.writeLong(counts.get(k));
+      }
+      for (int i = 0; i <= words.length; i++) {
+        out.writeInt(rowOffsets.get(i));
+      }
+      for (int k = 0; k < successorIds.length(); k++) {
+        out.writeInt(successorIds.get(k));
+      }
+      for (final String word : words) {
+        final byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+  }
+
+  /**
+   * Maps a file written by {@link #write(File)} into memory. Only the vocabulary will be read to
+   * the heap.
+   *
+   * @param file File to map.
+   * @return Matrix backed by the file.
+   * @throws IOException Thrown if the file could not be read or has no valid header.
+   */
+  public static FrozenWordMatrix map(final File file) throws IOException {
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        FileChannel channel = randomAccessFile.getChannel()) {
+      if (randomAccessFile.readInt() != FrozenWordMatrixFormat.MAGIC) {
+        throw new IOException("Not a binary word matrix file.");
+      }
+      final int version = randomAccessFile.readInt();
+      if (version != FrozenWordMatrixFormat.VERSION) {
+        throw new IOException("Unsupported binary word matrix file version " + version);
+      }
+      final int vocabularySize = randomAccessFile.readInt();
+      final int transitions = randomAccessFile.readInt();
+      if ((vocabularySize < 0) || (transitions < 0)) {
+        throw new IOException("Malformed binary word matrix file.");
+      }
+
+      final long countsPosition =
+          FrozenWordMatrixFormat.HEADER_SIZE + ((long) vocabularySize * Long.BYTES);
+      final long rowOffsetsPosition = countsPosition + ((long) transitions * Long.BYTES);
+      final long successorIdsPosition =
+          rowOffsetsPosition + ((long) (vocabularySize + 1) * Integer.BYTES);
+      final long vocabularyPosition =
+          successorIdsPosition + ((long) transitions * Integer.BYTES);
+      if (vocabularyPosition > channel.size()) {
+        throw new IOException("Truncated binary word matrix file.");
+      }
+
+      final LongArray rowTotals =
+          LongArray.map(channel, FrozenWordMatrixFormat.HEADER_SIZE, vocabularySize);
+      final LongArray counts = LongArray.map(channel, countsPosition, transitions);
+      final IntArray rowOffsets = IntArray.map(channel, rowOffsetsPosition, vocabularySize + 1);
+      final IntArray successorIds = IntArray.map(channel, successorIdsPosition, transitions);
+
+      channel.position(vocabularyPosition);
+      final DataInputStream in =
+          new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+      final String[] words = new String[vocabularySize];
+      for (int i = 0; i < vocabularySize; i++) {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        words[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      return new FrozenWordMatrix(words, rowOffsets, successorIds, counts, rowTotals);
+    }
+  }
+
+  /**
+   * Loads a matrix from a file. Files in the format described by {@link FrozenWordMatrixFormat}
+   * will be mapped by {@link #map(File)}, other files must contain a serialized
+   * {@link WordTransitionMatrix} that will be frozen.
+   *
+   * @param file File to load.
+   * @return Frozen matrix.
+   * @throws IOException Thrown if the file could not be read.
+   * @throws ClassNotFoundException Thrown if the class of a serialized matrix is unknown.
+   */
+  public static FrozenWordMatrix load(final File file) throws IOException, ClassNotFoundException {
+    if (FrozenWordMatrixFormat.isBinaryFile(file)) {
+      return map(file);
+    }
+
+    try (ObjectInputStream stream =
+        new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      return ((WordTransitionMatrix) stream.readObject()).freeze();
+    }
+  }
+
+  /**
+   * Returns the id of a word.
+   *
+   * @param word Word to look up.
+   * @return Id of the word or {@code -1} if it is unknown.
+   */
+  public int getId(final String word) {
+    final int id = Arrays.binarySearch(words, word);
+    return id < 0 ? -1 : id;
+  }
+
+  @Override
+  public String getWord(final int id) {
+    return (id >= 0) && (id < words.length) ? words[id] : null;
+  }
+
+  public int getVocabularySize() {
+    return words.length;
+  }
+
+  /**
+   * Returns the index of the first transition of a predecessor, see {@link #getSuccessorId(int)}
+   * and {@link #getCount(int)}.
+   *
+   * @param predecessor Id of the predecessor.
+   * @return Index of the first transition.
+   */
+  public int getRowStart(final int predecessor) {
+    return rowOffsets.get(predecessor);
+  }
+
+  /**
+   * Returns the index after the last transition of a predecessor.
+   *
+   * @param predecessor Id of the predecessor.
+   * @return Index after the last transition.
+   */
+  public int getRowEnd(final int predecessor) {
+    return rowOffsets.get(predecessor + 1);
+  }
+
+  public int getSuccessorId(final int transition) {
+    return successorIds.get(transition);
+  }
+
+  public long getCount(final int transition) {
+    return counts.get(transition);
+  }
+
+  public long getRowTotal(final int predecessor) {
+    return rowTotals.get(predecessor);
+  }
+
+  /**
+   * Returns the index of the transition from a predecessor to a successor.
+   *
+   * @param predecessor Id of the predecessor.
+   * @param successor Id of the successor.
+   * @return Index of the transition or a negative value if there is none.
+   */
+  private int findTransition(final int predecessor, final int successor) {
+    return successorIds.binarySearch(rowOffsets.get(predecessor), rowOffsets.get(predecessor + 1),
+        successor);
+  }
+
+  /**
+   * Returns the row of a predecessor.
+   *
+   * @param predecessor Predecessor.
+   * @return Id of the predecessor.
+   * @throws IllegalArgumentException Thrown if there is no mapping for the {@code predecessor}.
+   */
+  private int getRow(final String predecessor) throws IllegalArgumentException {
+    final int i = getId(predecessor);
+    if ((i == -1) || (rowOffsets.get(i) == rowOffsets.get(i + 1))) {
+      throw new IllegalArgumentException("No mapping found.");
+    }
+    return i;
+  }
+
+  @Override
+  public double getChance(final String predecessor, final String successor)
+      throws IllegalArgumentException {
+    final int i = getRow(predecessor);
+    final int ii = getId(successor);
+    final int k = ii == -1 ? -1 : findTransition(i, ii);
+    return k < 0 ? 0 : (double) counts.get(k) / (double) rowTotals.get(i);
+  }
+
+  @Override
+  public Set<String> getPredecessors() {
+    final Set<String> predecessors = new HashSet<>();
+    for (int i = 0; i < words.length; i++) {
+      if (rowOffsets.get(i) < rowOffsets.get(i + 1)) {
+        predecessors.add(words[i]);
+      }
+    }
+    return predecessors;
+  }
+
+  /**
+   * Returns an unmodifiable view of the successors of a predecessor mapped to their chances. The
+   * view does not copy the row and iterates it in the order of successor ids.
+   *
+   * @param predecessor Predecessor.
+   * @return Map of successor ids to succeeding chance.
+   * @throws IllegalArgumentException Thrown if there is no mapping for the {@code predecessor}.
+   */
+  @Override
+  public Map<Integer, Double> getMappings(final String predecessor)
+      throws IllegalArgumentException {
+    return new RowView(getRow(predecessor));
+  }
+
+  @Override
+  public double getMeanChance() {
+    return getChanceMoments()[0];
+  }
+
+  @Override
+  public double getChanceStdDeviation() {
+    final double[] moments = getChanceMoments();
+    return Math.sqrt(moments[1] - (moments[0] * moments[0]));
+  }
+
+  /**
+   * Calculates the mean chance and the mean squared chance of all transitions.
+   *
+   * @return Mean chance and mean squared chance.
+   */
+  private double[] getChanceMoments() {
+    double sum = 0;
+    double squaredSum = 0;
+    for (int i = 0; i < words.length; i++) {
+      final double total = rowTotals.get(i);
+      for (int k = rowOffsets.get(i); k < rowOffsets.get(i + 1); k++) {
+        final double chance = counts.get(k) / total;
+        sum += chance;
+        squaredSum += chance * chance;
+      }
+    }
+
+    final int transitions = rowOffsets.get(words.length);
+    return new double[] {sum / transitions, squaredSum / transitions};
+  }
+
+  /**
+   * Removes all successors from the matrix whose chance of succeeding is lower than given value.
+   * The rows will be rebuilt, the vocabulary will be kept.
+   *
+   * @param lowerBoundChance Lower bound for transition chances.
+   */
+  @Override
+  public void truncateTo(final double lowerBoundChance) {
+    final int[] newRowOffsets = new int[words.length + 1];
+    final int[] newSuccessorIds = new int[successorIds.length()];
+    final long[] newCounts = new long[counts.length()];
+    int size = 0;
+    for (int i = 0; i < words.length; i++) {
+      final long lowerBound = Math.round((double) rowTotals.get(i) * lowerBoundChance);
+      final int rowStart = size;
+      long newSum = 0;
+      for (int k = rowOffsets.get(i); k < rowOffsets.get(i + 1); k++) {
+        final long count = counts.get(k);
+        if (count >= lowerBound) {
+          newSuccessorIds[size] = successorIds.get(k);
+          newCounts[size++] = count;
+          newSum += count;
+        }
+      }
+
+      if (newSum == 0) {
+        size = rowStart;
+      }
+      newRowOffsets[i + 1] = size;
+    }
+
+    setRows(newRowOffsets, Arrays.copyOf(newSuccessorIds, size), Arrays.copyOf(newCounts, size));
+  }
+
+  /**
+   * Not supported, frozen matrices can't be altered.
+   *
+   * @throws UnsupportedOperationException Always.
+   */
+  @Override
+  public void alterFrequency(final String predecessor, final String successor, final long count)
+      throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Frozen word matrices can't be altered");
+  }
+
+  @Override
+  public FrozenWordMatrix freeze() {
+    return this;
+  }
+
+  /**
+   * Map view of a row of successor ids to chances.
+   */
+  private final class RowView extends AbstractMap<Integer, Double> {
+
+    private final int predecessor;
+
+    private RowView(final int predecessor) {
+      this.predecessor = predecessor;
+    }
+
+    @Override
+    public int size() {
+      return rowOffsets.get(predecessor + 1) - rowOffsets.get(predecessor);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+      return (key instanceof Integer) && (findTransition(predecessor, (Integer) key) >= 0);
+    }
+
+    @Override
+    public Double get(final Object key) {
+      if (!(key instanceof Integer)) {
+        return null;
+      }
+
+      final int k = findTransition(predecessor, (Integer) key);
+      return k < 0 ? null : (double) counts.get(k) / (double) rowTotals.get(predecessor);
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, Double>> entrySet() {
+      return new AbstractSet<Map.Entry<Integer, Double>>() {
+        @Override
+        public int size() {
+          return RowView.this.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<Integer, Double>> iterator() {
+          return new Iterator<Map.Entry<Integer, Double>>() {
+            private int k = rowOffsets.get(predecessor);
+
+            @Override
+            public boolean hasNext() {
+              return k < rowOffsets.get(predecessor + 1);
+            }
+
+            @Override
+            public Map.Entry<Integer, Double> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+
+              final Map.Entry<Integer, Double> entry =
+                  new SimpleImmutableEntry<>(successorIds.get(k),
+                      (double) counts.get(k) / (double) rowTotals.get(predecessor));
+              k++;
+              return entry;
+            }
+          };
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package org.aksw.twig.automaton.data;
+
+import java.io.File;
+
+/**
+ * Constants of the binary word matrix format written by {@link FrozenWordMatrix#write(File)} and
+ * mapped by {@link FrozenWordMatrix#map(File)}. A file consists of sections of big-endian values:
+ * <ul>
+ * <li>header: magic number, version, vocabulary size {@code n} and number of transitions
+ * {@code m} as four ints</li>
+ * <li>row totals: {@code n} longs</li>
+ * <li>counts: {@code m} longs</li>
+ * <li>row offsets: {@code n + 1} ints</li>
+ * <li>successor ids: {@code m} ints</li>
+ * <li>vocabulary: {@code n} words in ascending order, each as int length and UTF-8 bytes</li>
+ * </ul>
+ * Array sections are stored as described by {@link FrozenWordMatrix} and start at offsets that
+ * are multiples of their element size, so they can be mapped as they are.
+ */
+final class FrozenWordMatrixFormat {
+
+  static final int MAGIC = 0x5457574D; // TWWM
+
+  static final int VERSION = 1;
+
+  /** Number of bytes of the header. */
+  static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+  /** File ending of binary word matrix files. */
+  static final String FILE_ENDING = ".twm";
+
+  private FrozenWordMatrixFormat() {}
+
+  /**
+   * Returns whether the file is a binary word matrix file by its name.
+   *
+   * @param file File to check.
+   * @return {@code true} if the file is a binary word matrix file.
+   */
+  static boolean isBinaryFile(final File file) {
+    return file.getName().endsWith(FILE_ENDING);
+  }
+}
@@ -3,19 +3,27 @@ package org.aksw.twig.automaton.data;
 import java.io.Serializable;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.Tweet;
 import org.aksw.twig.statistics.ExponentialLikeDistribution;
 import org.aksw.twig.statistics.SamplingDiscreteDistribution;
 import org.aksw.twig.statistics.SimpleExponentialRegression;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -83,6 +91,99 @@ public class MessageCounter implements Serializable {
       }
     });
 
+    addUserMessages(userToMessagesMapping, messageToDateMapping);
+  }
+
+  /**
+   * Returns a stream that adds all messages of the triples passed to it to the counter like
+   * {@link #addModel(Model)} but without building a graph. Counts will be added once
+   * {@link StreamRDF#finish()} gets called, so the stream must be used for a single file. Until
+   * then the stream holds the IRI and date of every message of the file, i. e. its memory grows
+   * with the number of tweets per file.
+   *
+   * @return Stream to pass triples to.
+   */
+  public StreamRDF asStreamRDF() {
+    final Map<String, Set<String>> userToMessagesMapping = new HashMap<>();
+    final Map<String, LocalDate> messageToDateMapping = new HashMap<>();
+
+    return new StreamRDFBase() {
+      @Override
+      public void triple(final Triple triple) {
+        collectTriple(userToMessagesMapping, messageToDateMapping, triple);
+      }
+
+      @Override
+      public void finish() {
+        addUserMessages(userToMessagesMapping, messageToDateMapping);
+        userToMessagesMapping.clear();
+        messageToDateMapping.clear();
+      }
+    };
+  }
+
+  /**
+   * Same as {@link #asStreamRDF()} but the stream may be shared by threads parsing segments of a
+   * single file concurrently. Triples of a tweet may therefore be passed by different segments.
+   * Counts will be added once {@link StreamRDF#finish()} has been called {@code segments} times,
+   * i. e. once every segment has been parsed.
+   *
+   * @param segments Number of segments the file is parsed in.
+   * @return Stream to pass triples to.
+   */
+  public StreamRDF asSegmentStreamRDF(final int segments) {
+    final Map<String, Set<String>> userToMessagesMapping = new ConcurrentHashMap<>();
+    final Map<String, LocalDate> messageToDateMapping = new ConcurrentHashMap<>();
+    final AtomicInteger unfinishedSegments = new AtomicInteger(segments);
+
+    return new StreamRDFBase() {
+      @Override
+      public void triple(final Triple triple) {
+        collectTriple(userToMessagesMapping, messageToDateMapping, triple);
+      }
+
+      @Override
+      public void finish() {
+        if (unfinishedSegments.decrementAndGet() == 0) {
+          addUserMessages(userToMessagesMapping, messageToDateMapping);
+          userToMessagesMapping.clear();
+          messageToDateMapping.clear();
+        }
+      }
+    };
+  }
+
+  /**
+   * Collects the message of a {@code sends} triple or the date of a {@code tweetTime} triple.
+   * Other triples will be ignored.
+   *
+   * @param userToMessagesMapping Maps users to their messages.
+   * @param messageToDateMapping Maps messages to their date.
+   * @param triple Triple to collect.
+   */
+  private static void collectTriple(final Map<String, Set<String>> userToMessagesMapping,
+      final Map<String, LocalDate> messageToDateMapping, final Triple triple) {
+    final String predicate = triple.getPredicate().getLocalName();
+    if (predicate.equals(TWIGModelWrapper.SENDS_PROPERTY_NAME)) {
+      userToMessagesMapping
+          .computeIfAbsent(triple.getSubject().getLocalName(), x -> ConcurrentHashMap.newKeySet())
+          .add(triple.getObject().getLocalName());
+
+    } else if (predicate.equals(TWIGModelWrapper.TWEET_TIME_PROPERTY_NAME)) {
+      messageToDateMapping.put(triple.getSubject().getLocalName(),
+          LocalDate.from(TWIGModelWrapper.DATE_TIME_FORMATTER
+              .parse(triple.getObject().getLiteralLexicalForm())));
+    }
+  }
+
+  /**
+   * Sets message count and day interval of every user.
+   *
+   * @param userToMessagesMapping Maps users to their messages.
+   * @param messageToDateMapping Maps messages to their date.
+   */
+  private void addUserMessages(final Map<String, Set<String>> userToMessagesMapping,
+      final Map<String, LocalDate> messageToDateMapping) {
     final Set<Map.Entry<String, Set<String>>> entrySet = userToMessagesMapping.entrySet();
     for (final Map.Entry<String, Set<String>> entry : entrySet) {
       final String userName = entry.getKey();
@@ -100,6 +201,48 @@ public class MessageCounter implements Serializable {
     }
   }
 
+  /**
+   * Adds all tweets to the counter like {@link #addModel(Model)}. Tweets of the same user at the
+   * same time count as one message as they share their IRI in a model.
+   *
+   * @param tweets Tweets to add.
+   */
+  public void addTweets(final Stream<Tweet> tweets) {
+    final Map<String, Set<LocalDateTime>> userToTimesMapping = new HashMap<>();
+    tweets.forEach(tweet -> collectTweet(userToTimesMapping, tweet));
+    addUserTimes(userToTimesMapping);
+  }
+
+  /**
+   * Collects the time of a tweet by its user, so tweets can be counted by
+   * {@link #addUserTimes(Map)} once all of them have been collected.
+   *
+   * @param userToTimesMapping Maps users to the times of their tweets.
+   * @param tweet Tweet to collect.
+   */
+  static void collectTweet(final Map<String, Set<LocalDateTime>> userToTimesMapping,
+      final Tweet tweet) {
+    userToTimesMapping.computeIfAbsent(tweet.getAccountName(), x -> new HashSet<>())
+        .add(tweet.getTime());
+  }
+
+  /**
+   * Sets message count and day interval of every user by the times of their tweets.
+   *
+   * @param userToTimesMapping Maps users to the times of their tweets.
+   */
+  void addUserTimes(final Map<String, Set<LocalDateTime>> userToTimesMapping) {
+    for (final Map.Entry<String, Set<LocalDateTime>> entry : userToTimesMapping.entrySet()) {
+      final String userName = entry.getKey();
+      final Set<LocalDateTime> times = entry.getValue();
+      setUserMessages(userName, times.size());
+
+      final LocalDate lowest = times.stream().min(LocalDateTime::compareTo).get().toLocalDate();
+      final LocalDate highest = times.stream().max(LocalDateTime::compareTo).get().toLocalDate();
+      setUserDayInterval(userName, (int) ChronoUnit.DAYS.between(lowest, highest) + 1);
+    }
+  }
+
   /**
    * Adds given number of messages to the user.
    * 
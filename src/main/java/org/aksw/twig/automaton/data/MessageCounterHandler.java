@@ -1,9 +1,12 @@
 package org.aksw.twig.automaton.data;
 
 import org.aksw.twig.executors.FileReadingSuspendSupplier;
+import org.aksw.twig.executors.TreeReducer;
 import org.aksw.twig.files.FileHandler;
 import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.TweetBinaryReader;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.jena.riot.system.StreamRDF;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -12,14 +15,20 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 
 /**
- * Creates multiple {@link MessageCounter} objects by parsing files as {@link TWIGModelWrapper} and
- * adding them to a {@link MessageCounter}. Parsed objects will then be merged into a result.
+ * Creates multiple {@link MessageCounter} objects by streaming files through {@link
+ * TWIGModelWrapper#parse(File, StreamRDF)} and adding them to a {@link MessageCounter}. Parsed
+ * objects will then be merged into a result. Binary tweet files will be read by a {@link
+ * TweetBinaryReader} instead.
  */
 public class MessageCounterHandler extends FileReadingSuspendSupplier<MessageCounter> {
 
   private static final Logger LOGGER = LogManager.getLogger(MessageCounterHandler.class);
 
-  private final MessageCounter mergedResult = new MessageCounter();
+  private final TreeReducer<MessageCounter> reducer =
+      new TreeReducer<>(MessageCounter::new, (counter, other) -> {
+        counter.merge(other);
+        return counter;
+      });
 
   /**
    * Creates a new instance setting class variables.
@@ -35,22 +44,26 @@ public class MessageCounterHandler extends FileReadingSuspendSupplier<MessageCou
     return () -> {
       LOGGER.info("Parsing file {}", file.getName());
       MessageCounter counter = new MessageCounter();
-      counter.addModel(TWIGModelWrapper.read(file).getModel());
+      if (TweetBinaryReader.isBinaryFile(file)) {
+        try (TweetBinaryReader reader = TweetBinaryReader.open(file)) {
+          counter.addTweets(reader.tweets());
+        }
+      } else {
+        TWIGModelWrapper.parse(file, counter.asStreamRDF());
+      }
       return counter;
     };
   }
 
   @Override
   public void addResult(MessageCounter result) {
-    synchronized (mergedResult) {
-      LOGGER.info("Merging result");
-      mergedResult.merge(result);
-    }
+    LOGGER.info("Merging result");
+    reducer.add(result);
   }
 
   @Override
   public MessageCounter getMergedResult() {
-    return mergedResult;
+    return reducer.reduce();
   }
 
   /**
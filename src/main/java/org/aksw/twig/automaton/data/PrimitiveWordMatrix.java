@@ -0,0 +1,343 @@
+package org.aksw.twig.automaton.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.twig.structs.LongLongHashMap;
+
+/**
+ * {@link WordTransitionMatrix} with the same behavior as {@link WordMatrix} that stores the
+ * frequency distribution in primitive arrays instead of boxed hash maps. Counts are stored in a
+ * {@link LongLongHashMap} keyed by the ids of predecessor and successor packed into one
+ * {@code long}. Every predecessor has a row holding the sum of its counts and the ids of its
+ * successors, and rows are found by a {@link LongLongHashMap} of predecessor ids. Including free
+ * slots a transition therefore costs about 40 bytes instead of well over 100 bytes of entries and
+ * boxes in a {@link WordMatrix}.<br>
+ * Words are stored in a {@link WordDictionary} that is shared by all matrices of a process unless
+ * stated otherwise, see {@link #PrimitiveWordMatrix(WordDictionary)}. A serialized matrix contains
+ * only its own words. This class is not thread safe, but matrices sharing a dictionary can be
+ * altered concurrently.
+ */
+public class PrimitiveWordMatrix implements WordTransitionMatrix {
+
+  private static final long serialVersionUID = 2876245186337416734L;
+
+  private final WordDictionary dictionary;
+
+  /** Maps predecessor ids to rows. */
+  private LongLongHashMap rowIndex = new LongLongHashMap();
+
+  /** Maps packed predecessor and successor ids to counts. */
+  private LongLongHashMap counts = new LongLongHashMap();
+
+  private int rows = 0;
+
+  private int[] rowPredecessors = new int[16];
+
+  private long[] rowTotals = new long[16];
+
+  private int[][] rowSuccessors = new int[16][];
+
+  private int[] rowSizes = new int[16];
+
+  /**
+   * Creates an empty matrix that stores words in the {@link WordDictionary#getGlobal() global}
+   * dictionary.
+   */
+  public PrimitiveWordMatrix() {
+    this(WordDictionary.getGlobal());
+  }
+
+  /**
+   * Creates an empty matrix that stores words in given dictionary.
+   *
+   * @param dictionary Dictionary of words.
+   */
+  public PrimitiveWordMatrix(final WordDictionary dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  public WordDictionary getDictionary() {
+    return dictionary;
+  }
+
+  private int getId(final String word) {
+    return dictionary.getId(word);
+  }
+
+  @Override
+  public String getWord(final int id) {
+    return dictionary.getWord(id);
+  }
+
+  @Override
+  public void alterFrequency(final String predecessor, final String successor, final long count) {
+    alterFrequency(dictionary.addAndGet(predecessor), dictionary.addAndGet(successor), count);
+  }
+
+  /**
+   * Alters the frequency distribution like {@link #alterFrequency(String, String, long)} by word
+   * ids.
+   *
+   * @param predecessor Id of the predecessor.
+   * @param successor Id of the successor.
+   * @param count Count to alter the frequency distribution by.
+   */
+  void alterFrequency(final int predecessor, final int successor, final long count) {
+    int row = (int) rowIndex.get(predecessor, -1);
+    if (row == -1) {
+      row = addRow(predecessor);
+    }
+    rowTotals[row] += count;
+
+    final int sizeBefore = counts.size();
+    counts.addTo(key(predecessor, successor), count);
+    if (counts.size() > sizeBefore) {
+      addSuccessor(row, successor);
+    }
+  }
+
+  private int addRow(final int predecessor) {
+    if (rows == rowPredecessors.length) {
+      final int capacity = rows << 1;
+      rowPredecessors = Arrays.copyOf(rowPredecessors, capacity);
+      rowTotals = Arrays.copyOf(rowTotals, capacity);
+      rowSuccessors = Arrays.copyOf(rowSuccessors, capacity);
+      rowSizes = Arrays.copyOf(rowSizes, capacity);
+    }
+
+    rowPredecessors[rows] = predecessor;
+    rowTotals[rows] = 0;
+    rowSuccessors[rows] = new int[2];
+    rowSizes[rows] = 0;
+    rowIndex.put(predecessor, rows);
+    return rows++;
+  }
+
+  private void addSuccessor(final int row, final int successor) {
+    if (rowSizes[row] == rowSuccessors[row].length) {
+      rowSuccessors[row] = Arrays.copyOf(rowSuccessors[row], Math.max(2, rowSizes[row] << 1));
+    }
+    rowSuccessors[row][rowSizes[row]++] = successor;
+  }
+
+  /**
+   * Packs the ids of a predecessor and a successor into a key of {@link #counts}.
+   *
+   * @param predecessor Id of the predecessor.
+   * @param successor Id of the successor.
+   * @return Key.
+   */
+  private static long key(final int predecessor, final int successor) {
+    return ((long) predecessor << 32) | (successor & 0xffffffffL);
+  }
+
+  /**
+   * Merges the frequency distribution of given matrix into this. If both matrices share a
+   * dictionary counts will be added by id, otherwise every word of the merged matrix will be looked
+   * up only once.
+   *
+   * @param wordMatrix Matrix to merge.
+   */
+  public void merge(final PrimitiveWordMatrix wordMatrix) {
+    if (wordMatrix.dictionary == dictionary) {
+      wordMatrix.forEachTransition(this::alterFrequency);
+      return;
+    }
+
+    final int[] translation = new int[wordMatrix.dictionary.size()];
+    Arrays.fill(translation, -1);
+
+    for (int row = 0; row < wordMatrix.rows; row++) {
+      final int predecessor = wordMatrix.rowPredecessors[row];
+      final int translatedPredecessor = translate(wordMatrix, translation, predecessor);
+      for (int i = 0; i < wordMatrix.rowSizes[row]; i++) {
+        final int successor = wordMatrix.rowSuccessors[row][i];
+        alterFrequency(translatedPredecessor, translate(wordMatrix, translation, successor),
+            wordMatrix.counts.get(key(predecessor, successor), 0));
+      }
+    }
+  }
+
+  private int translate(final PrimitiveWordMatrix wordMatrix, final int[] translation,
+      final int id) {
+    if (translation[id] == -1) {
+      translation[id] = dictionary.addAndGet(wordMatrix.dictionary.getWord(id));
+    }
+    return translation[id];
+  }
+
+  @Override
+  public double getChance(final String predecessor, final String successor)
+      throws IllegalArgumentException {
+    final int i = getId(predecessor);
+    final int row = i == -1 ? -1 : (int) rowIndex.get(i, -1);
+    if (row == -1) {
+      throw new IllegalArgumentException("No mapping found.");
+    }
+
+    final int ii = getId(successor);
+    final long count = ii == -1 ? 0 : counts.get(key(i, ii), 0);
+    return (double) count / (double) rowTotals[row];
+  }
+
+  @Override
+  public Set<String> getPredecessors() {
+    final Set<String> predecessors = new HashSet<>(rows);
+    for (int row = 0; row < rows; row++) {
+      predecessors.add(dictionary.getWord(rowPredecessors[row]));
+    }
+    return predecessors;
+  }
+
+  @Override
+  public Map<Integer, Double> getMappings(final String predecessor)
+      throws IllegalArgumentException {
+    final int i = getId(predecessor);
+    final int row = i == -1 ? -1 : (int) rowIndex.get(i, -1);
+    if (row == -1) {
+      throw new IllegalArgumentException("No mapping found.");
+    }
+
+    final double total = rowTotals[row];
+    final Map<Integer, Double> mappings = new HashMap<>(rowSizes[row] * 2);
+    for (int k = 0; k < rowSizes[row]; k++) {
+      final int successor = rowSuccessors[row][k];
+      mappings.put(successor, counts.get(key(i, successor), 0) / total);
+    }
+    return mappings;
+  }
+
+  @Override
+  public double getMeanChance() {
+    return getChanceMoments()[0];
+  }
+
+  @Override
+  public double getChanceStdDeviation() {
+    final double[] moments = getChanceMoments();
+    return Math.sqrt(moments[1] - (moments[0] * moments[0]));
+  }
+
+  /**
+   * Calculates the mean chance and the mean squared chance of all transitions.
+   *
+   * @return Mean chance and mean squared chance.
+   */
+  private double[] getChanceMoments() {
+    final double[] sums = getChanceSums();
+    return new double[] {sums[0] / sums[2], sums[1] / sums[2]};
+  }
+
+  /**
+   * Calculates the sum of chances, the sum of squared chances and the number of all transitions.
+   *
+   * @return Sum of chances, sum of squared chances and number of transitions.
+   */
+  double[] getChanceSums() {
+    double sum = 0;
+    double squaredSum = 0;
+    long transitions = 0;
+    for (int row = 0; row < rows; row++) {
+      final double total = rowTotals[row];
+      for (int k = 0; k < rowSizes[row]; k++) {
+        final double chance =
+            counts.get(key(rowPredecessors[row], rowSuccessors[row][k]), 0) / total;
+        sum += chance;
+        squaredSum += chance * chance;
+      }
+      transitions += rowSizes[row];
+    }
+
+    return new double[] {sum, squaredSum, transitions};
+  }
+
+  /**
+   * Removes all successors from the matrix whose chance of succeeding is lower than given value.
+   * Rows and the count table will be rebuilt, so memory of removed transitions is released.
+   *
+   * @param lowerBoundChance Lower bound for transition chances.
+   */
+  @Override
+  public void truncateTo(final double lowerBoundChance) {
+    final LongLongHashMap oldCounts = counts;
+    final int oldRows = rows;
+    final int[] oldRowPredecessors = rowPredecessors;
+    final long[] oldRowTotals = rowTotals;
+    final int[][] oldRowSuccessors = rowSuccessors;
+    final int[] oldRowSizes = rowSizes;
+
+    rowIndex = new LongLongHashMap();
+    counts = new LongLongHashMap();
+    rows = 0;
+    rowPredecessors = new int[16];
+    rowTotals = new long[16];
+    rowSuccessors = new int[16][];
+    rowSizes = new int[16];
+
+    for (int row = 0; row < oldRows; row++) {
+      final int predecessor = oldRowPredecessors[row];
+      final long lowerBound = Math.round((double) oldRowTotals[row] * lowerBoundChance);
+
+      final int[] successors = new int[oldRowSizes[row]];
+      int size = 0;
+      long newSum = 0;
+      for (int k = 0; k < oldRowSizes[row]; k++) {
+        final int successor = oldRowSuccessors[row][k];
+        final long count = oldCounts.get(key(predecessor, successor), 0);
+        if (count >= lowerBound) {
+          successors[size++] = successor;
+          newSum += count;
+        }
+      }
+
+      if (newSum == 0) {
+        continue;
+      }
+
+      final int newRow = addRow(predecessor);
+      rowTotals[newRow] = newSum;
+      rowSuccessors[newRow] = Arrays.copyOf(successors, size);
+      rowSizes[newRow] = size;
+      for (int k = 0; k < size; k++) {
+        final long key = key(predecessor, successors[k]);
+        counts.put(key, oldCounts.get(key, 0));
+      }
+    }
+  }
+
+  /**
+   * Hands every transition to given consumer by word ids of the dictionary.
+   *
+   * @param consumer Consumer of transitions.
+   */
+  void forEachTransition(final FrozenWordMatrix.TransitionConsumer consumer) {
+    for (int row = 0; row < rows; row++) {
+      final int predecessor = rowPredecessors[row];
+      for (int k = 0; k < rowSizes[row]; k++) {
+        final int successor = rowSuccessors[row][k];
+        consumer.accept(predecessor, successor, counts.get(key(predecessor, successor), 0));
+      }
+    }
+  }
+
+  @Override
+  public FrozenWordMatrix freeze() {
+    return FrozenWordMatrix.of(dictionary.size(), dictionary::getWord, this::forEachTransition);
+  }
+
+  /**
+   * Replaces a matrix by a copy with a dictionary of its own words on serialization, see
+   * {@link WordMatrix}.
+   *
+   * @return Matrix to serialize.
+   */
+  private Object writeReplace() {
+    final PrimitiveWordMatrix copy = new PrimitiveWordMatrix(new WordDictionary());
+    copy.merge(this);
+    return copy;
+  }
+}
@@ -1,14 +1,19 @@
 package org.aksw.twig.automaton.data;
 
 import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.Tweet;
 import org.aksw.twig.statistics.SamplingDiscreteDistribution;
 import org.aksw.twig.statistics.SamplingDiscreteTreeDistribution;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.stream.Stream;
 
 /**
  * Holds a frequency distribution of timestamps with hour and minute.
@@ -65,6 +70,45 @@ public class TimeCounter implements Serializable {
     });
   }
 
+  /**
+   * Returns a stream that adds the timestamps of all tweets passed to it like
+   * {@link #addModel(Model)} but without building a graph. Every timestamp is counted as it is
+   * passed, so the stream keeps no state of its own.
+   * 
+   * @return Stream to pass triples to.
+   */
+  public StreamRDF asStreamRDF() {
+    return new StreamRDFBase() {
+      @Override
+      public void triple(Triple triple) {
+        if (triple.getPredicate().getLocalName()
+            .equals(TWIGModelWrapper.TWEET_TIME_PROPERTY_NAME)) {
+          LocalDateTime time = LocalDateTime.from(TWIGModelWrapper.DATE_TIME_FORMATTER
+              .parse(triple.getObject().getLiteralLexicalForm()));
+          addTimestamps(time, 1);
+        }
+      }
+    };
+  }
+
+  /**
+   * Adds the timestamps of all tweets.
+   * 
+   * @param tweets Tweets to add.
+   */
+  public void addTweets(Stream<Tweet> tweets) {
+    tweets.forEach(this::addTweet);
+  }
+
+  /**
+   * Adds the timestamp of a tweet.
+   * 
+   * @param tweet Tweet to add.
+   */
+  public void addTweet(Tweet tweet) {
+    addTimestamps(tweet.getTime(), 1);
+  }
+
   /**
    * Adds {@code count} timestamps to the given time. Only hours and minutes will be considered.
    * 
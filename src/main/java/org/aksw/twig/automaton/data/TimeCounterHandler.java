@@ -1,9 +1,12 @@
 package org.aksw.twig.automaton.data;
 
 import org.aksw.twig.executors.FileReadingSuspendSupplier;
+import org.aksw.twig.executors.TreeReducer;
 import org.aksw.twig.files.FileHandler;
 import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.TweetBinaryReader;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.jena.riot.system.StreamRDF;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -13,14 +16,20 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 
 /**
- * Creates multiple {@link TimeCounter} objects by parsing files as {@link TWIGModelWrapper} and
- * adding them to a time counter. Parsed objects will then be merged into one result.
+ * Creates multiple {@link TimeCounter} objects by streaming files through {@link
+ * TWIGModelWrapper#parse(File, StreamRDF)} and adding them to a time counter. Parsed objects will
+ * then be merged into one result. Binary tweet files will be read by a {@link TweetBinaryReader}
+ * instead.
  */
 public class TimeCounterHandler extends FileReadingSuspendSupplier<TimeCounter> {
 
   private static final Logger LOGGER = LogManager.getLogger(TimeCounterHandler.class);
 
-  private final TimeCounter mergedResult = new TimeCounter();
+  private final TreeReducer<TimeCounter> reducer =
+      new TreeReducer<>(TimeCounter::new, (counter, other) -> {
+        counter.merge(other);
+        return counter;
+      });
 
   /**
    * Creates a new object setting class variables.
@@ -36,22 +45,26 @@ public class TimeCounterHandler extends FileReadingSuspendSupplier<TimeCounter>
     return () -> {
       LOGGER.info("Parsing file {}", file.getName());
       TimeCounter counter = new TimeCounter();
-      counter.addModel(TWIGModelWrapper.read(file).getModel());
+      if (TweetBinaryReader.isBinaryFile(file)) {
+        try (TweetBinaryReader reader = TweetBinaryReader.open(file)) {
+          counter.addTweets(reader.tweets());
+        }
+      } else {
+        TWIGModelWrapper.parse(file, counter.asStreamRDF());
+      }
       return counter;
     };
   }
 
   @Override
   public void addResult(TimeCounter result) {
-    synchronized (mergedResult) {
-      LOGGER.info("Merging result");
-      mergedResult.merge(result);
-    }
+    LOGGER.info("Merging result");
+    reducer.add(result);
   }
 
   @Override
   public TimeCounter getMergedResult() {
-    return mergedResult;
+    return reducer.reduce();
   }
 
   /**
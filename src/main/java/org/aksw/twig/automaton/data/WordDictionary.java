@@ -0,0 +1,121 @@
+package org.aksw.twig.automaton.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread safe dictionary of words to ascending integer ids starting with 0. Looking up known words
+ * does not lock, adding a new word locks the dictionary. Matrices sharing a dictionary share word
+ * ids, so they can be merged without looking up words, see
+ * {@link PrimitiveWordMatrix#merge(PrimitiveWordMatrix)} and {@link WordMatrix#merge(WordMatrix)}.
+ * Matrices use the process-wide dictionary {@link #getGlobal()} unless they are given another
+ * one.<br>
+ * A serialized dictionary contains every word once, ids are restored by the order of words.
+ */
+public class WordDictionary implements Serializable {
+
+  private static final long serialVersionUID = 6627419855270843104L;
+
+  private static final WordDictionary GLOBAL = new WordDictionary();
+
+  private transient ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  private transient volatile String[] words = new String[16];
+
+  private transient volatile int size = 0;
+
+  /**
+   * Returns the dictionary shared by all matrices of this process that are not given a dictionary.
+   * Words are never removed from it, so long running jobs should use a dictionary of their own, as
+   * the handlers do.
+   *
+   * @return Process-wide dictionary.
+   */
+  public static WordDictionary getGlobal() {
+    return GLOBAL;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the id of a word without adding it to the dictionary.
+   *
+   * @param word Word to look up.
+   * @return Id of the word or {@code -1} if it is unknown.
+   */
+  public int getId(final String word) {
+    final Integer id = ids.get(word);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Adds a word to the dictionary and gets its id.
+   *
+   * @param word Word to add.
+   * @return Id of the word.
+   */
+  public int addAndGet(final String word) {
+    if (word == null) {
+      throw new NullPointerException("Parameter is Null!");
+    }
+
+    final Integer id = ids.get(word);
+    if (id != null) {
+      return id;
+    }
+
+    synchronized (this) {
+      final Integer addedId = ids.get(word);
+      if (addedId != null) {
+        return addedId;
+      }
+
+      if (size == words.length) {
+        words = Arrays.copyOf(words, size << 1);
+      }
+      // Publish the word before its id, so every thread seeing the id can look up the word
+      final int newId = size;
+      words[newId] = word;
+      size = newId + 1;
+      ids.put(word, newId);
+      return newId;
+    }
+  }
+
+  /**
+   * Returns the word of an id.
+   *
+   * @param id Id of the word.
+   * @return Word or {@code null} if the id is unknown.
+   */
+  public String getWord(final int id) {
+    // Read size first, so the array read afterwards contains the word
+    return (id >= 0) && (id < size) ? words[id] : null;
+  }
+
+  private synchronized void writeObject(final ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      out.writeObject(words[i]);
+    }
+  }
+
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    final int wordCount = in.readInt();
+    ids = new ConcurrentHashMap<>(wordCount * 2);
+    words = new String[Math.max(16, wordCount)];
+    for (int i = 0; i < wordCount; i++) {
+      words[i] = (String) in.readObject();
+      ids.put(words[i], i);
+    }
+    size = wordCount;
+  }
+}
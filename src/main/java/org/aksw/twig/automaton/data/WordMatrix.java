@@ -1,6 +1,5 @@
 package org.aksw.twig.automaton.data;
 
-import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -9,10 +8,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.aksw.twig.model.TWIGModelWrapper;
 import org.apache.commons.lang3.tuple.MutablePair;
-import org.apache.commons.lang3.tuple.Pair;
-import org.apache.jena.rdf.model.Model;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -33,6 +29,12 @@ import org.apache.logging.log4j.Logger;
  * words.<br>
  * <br>
  *
+ * Words are stored in boxed hash maps, see {@link PrimitiveWordMatrix} for a compact
+ * implementation and {@link #freeze()} for a compact copy to read from. Word ids are given by a
+ * {@link WordDictionary} that is shared by all matrices of a process unless stated otherwise, so
+ * merging matrices adds up counts by id. A serialized matrix contains only its own words.<br>
+ * <br>
+ *
  * For example: After invocation of: <br>
  *
  * <pre>
@@ -43,14 +45,13 @@ import org.apache.logging.log4j.Logger;
  * {@code matrix.getChance("a", "b");} will return {@code 0.6} whereas
  * {@code matrix.getChance("a", "c");} will return {@code 0.4};
  */
-public class WordMatrix implements Serializable {
+public class WordMatrix implements WordTransitionMatrix {
 
-  private static final long serialVersionUID = 2104488071228760278L;
+  private static final long serialVersionUID = -7914532604176528364L;
 
   private static final Logger LOGGER = LogManager.getLogger(WordMatrix.class);
 
-  public final Map<Integer, String> index = new HashMap<>();
-  public final Map<String, Integer> indexReverse = new HashMap<>();
+  public final WordDictionary dictionary;
   public final Map<Integer, MutablePair<Long, Map<Integer, Long>>> matrix = new HashMap<>();
 
   private boolean alteredSinceCached = true;
@@ -62,6 +63,23 @@ public class WordMatrix implements Serializable {
   private static final double[] INSPECTION_BOUNDS =
       new double[] {0.5, 0.1, 0.05, 0.01, 0.005, 0.001, 0.0005, 0.0001, 0.00005, 0.00001};
 
+  /**
+   * Creates an empty matrix that stores words in the {@link WordDictionary#getGlobal() global}
+   * dictionary.
+   */
+  public WordMatrix() {
+    this(WordDictionary.getGlobal());
+  }
+
+  /**
+   * Creates an empty matrix that stores words in given dictionary.
+   *
+   * @param dictionary Dictionary of words.
+   */
+  public WordMatrix(final WordDictionary dictionary) {
+    this.dictionary = dictionary;
+  }
+
   /**
    * Adds {@link w} to index and gets its id.
    *
@@ -69,18 +87,7 @@ public class WordMatrix implements Serializable {
    * @return id
    */
   private Integer addAndGet(final String word) {
-    if ((word == null)) {
-      throw new NullPointerException("Parameter is Null!");
-    }
-    Integer key = null;
-    if (!indexReverse.containsKey(word)) {
-      key = index.size();
-      index.put(key, word);
-      indexReverse.put(word, key);
-    } else {
-      key = indexReverse.get(word);
-    }
-    return key;
+    return dictionary.addAndGet(word);
   }
 
   /**
@@ -107,45 +114,30 @@ public class WordMatrix implements Serializable {
   }
 
   /**
-   * Adds all iterable elements as pairs of predecessors and successors to the frequency
-   * distribution. Every {@link Pair} will be processed by:
-   * {@code alterFrequency(pair.getLeft(), pair.getRight(), 1);}.
-   *
-   * @param iterable Pairs of succeeding words to add to the frequency distribution.
-   */
-  public void putAll(final Iterable<Pair<String, String>> iterable) {
-    iterable.forEach(pair -> alterFrequency(pair.getLeft(), pair.getRight(), 1));
-  }
-
-  /**
-   * Iterates over given {@link Model} looking for statements with
-   * {@link TWIGModelWrapper#TWEET_CONTENT_PROPERTY_NAME} predicate. Once a sufficient statement is
-   * found all words from the literal will be added to the frequency distribution.
-   *
-   * @param model Model to add statements from.
-   */
-  public void addModel(final Model model) {
-    model.listStatements().forEachRemaining(statement -> {
-      if (statement.getPredicate().getLocalName()
-          .equals(TWIGModelWrapper.TWEET_CONTENT_PROPERTY_NAME)) {
-        final String tweet = statement.getObject().asLiteral().getString();
-        putAll(new TweetSplitter(tweet));
-      }
-    });
-  }
-
-  /**
-   * Merges the frequency distribution of given {@link wordMatrix} into this.
+   * Merges the frequency distribution of given {@link wordMatrix} into this. If both matrices share
+   * a dictionary counts will be added by id, otherwise words will be looked up.
    *
    * @param wordMatrix Matrix to merge.
    */
   public void merge(final WordMatrix wordMatrix) {
-    wordMatrix.matrix.entrySet().forEach(entry -> {
-      final String predecessor = wordMatrix.index.get(entry.getKey());
-      entry.getValue().getRight().entrySet().forEach(mappedEntry -> {
-        final String successor = wordMatrix.index.get(mappedEntry.getKey());
-        alterFrequency(predecessor, successor, mappedEntry.getValue());
+    if (wordMatrix.dictionary != dictionary) {
+      wordMatrix.matrix.entrySet().forEach(entry -> {
+        final String predecessor = wordMatrix.dictionary.getWord(entry.getKey());
+        entry.getValue().getRight().entrySet().forEach(mappedEntry -> {
+          final String successor = wordMatrix.dictionary.getWord(mappedEntry.getKey());
+          alterFrequency(predecessor, successor, mappedEntry.getValue());
+        });
       });
+      return;
+    }
+
+    alteredSinceCached = true;
+    wordMatrix.matrix.forEach((predecessor, otherMapping) -> {
+      final MutablePair<Long, Map<Integer, Long>> mapping;
+      mapping = matrix.computeIfAbsent(predecessor, key -> new MutablePair<>(0L, new HashMap<>()));
+      mapping.setLeft(mapping.getLeft() + otherMapping.getLeft());
+      otherMapping.getRight()
+          .forEach((successor, count) -> mapping.getRight().merge(successor, count, Long::sum));
     });
   }
 
@@ -171,6 +163,11 @@ public class WordMatrix implements Serializable {
     return (double) mapping.getRight().get(ii) / (double) mapping.getLeft();
   }
 
+  @Override
+  public String getWord(final int id) {
+    return dictionary.getWord(id);
+  }
+
   /**
    * Returns the set of all predecessors that can be queried as first argument in
    * {@link #getChance(String, String)} or {@link #getMappings(String)}.
@@ -178,7 +175,7 @@ public class WordMatrix implements Serializable {
    * @return Set of predecessors.
    */
   public Set<String> getPredecessors() {
-    return matrix.keySet().stream().map(key -> index.get(key)).collect(Collectors.toSet());
+    return matrix.keySet().stream().map(dictionary::getWord).collect(Collectors.toSet());
   }
 
   /**
@@ -292,6 +289,8 @@ public class WordMatrix implements Serializable {
    */
   public void truncateTo(final double lowerBoundChance) {
 
+    alteredSinceCached = true;
+
     final Iterator<Map.Entry<Integer, MutablePair<Long, Map<Integer, Long>>>> i;
     i = matrix.entrySet().iterator();
 
@@ -343,4 +342,23 @@ public class WordMatrix implements Serializable {
      * matrix = newMatrix;
      */
   }
+
+  @Override
+  public FrozenWordMatrix freeze() {
+    return FrozenWordMatrix.of(dictionary.size(), dictionary::getWord,
+        consumer -> matrix.forEach((predecessor, mapping) -> mapping.getRight()
+            .forEach((successor, count) -> consumer.accept(predecessor, successor, count))));
+  }
+
+  /**
+   * Replaces a matrix by a copy with a dictionary of its own words on serialization, so the words
+   * of other matrices sharing the dictionary are not serialized.
+   *
+   * @return Matrix to serialize.
+   */
+  private Object writeReplace() {
+    final WordMatrix copy = new WordMatrix(new WordDictionary());
+    copy.merge(this);
+    return copy;
+  }
 }
@@ -3,63 +3,90 @@ package org.aksw.twig.automaton.data;
 import org.aksw.twig.executors.FileReadingSuspendSupplier;
 import org.aksw.twig.files.FileHandler;
 import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.TweetBinaryReader;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.jena.riot.system.StreamRDF;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
 /**
- * Creates multiple {@link WordMatrix} objects by parsing files as {@link TWIGModelWrapper} and
- * adding them to the matrix. Parsed objects will then be merged into one result.
+ * Fills a {@link ConcurrentWordMatrix} by streaming files through {@link
+ * TWIGModelWrapper#parse(File, StreamRDF)}. All files are added to the same matrix as soon as
+ * they have been read, so there are no results of single files to be reduced. Binary tweet files
+ * will be read by a {@link TweetBinaryReader} instead.<br>
+ * Counts are added to the matrix while a file is read. A file failing partway therefore leaves the
+ * counts read so far in the matrix, which will be logged.
  */
-public class WordMatrixHandler extends FileReadingSuspendSupplier<WordMatrix> {
+public class WordMatrixHandler extends FileReadingSuspendSupplier<ConcurrentWordMatrix> {
 
   private static final Logger LOGGER = LogManager.getLogger(WordMatrixHandler.class);
 
-  private final WordMatrix mergedResult = new WordMatrix();
+  private final ConcurrentWordMatrix matrix = new ConcurrentWordMatrix();
 
+  /**
+   * Creates a new instance setting class variables. Caching and admission control are disabled,
+   * as there are no results of single files to cache and the heap in use grows with the shared
+   * matrix rather than with the files in flight.
+   *
+   * @param filesToParse Files to parse.
+   */
   public WordMatrixHandler(Collection<File> filesToParse) {
     super(filesToParse);
+    setCacheDirectory(null);
+    setAdmissionControl(null);
   }
 
   @Override
-  public Callable<WordMatrix> getFileProcessor(File file) {
+  public Callable<ConcurrentWordMatrix> getFileProcessor(File file) {
     return () -> {
       LOGGER.info("Parsing file {}", file.getName());
-      WordMatrix matrix = new WordMatrix();
-      matrix.addModel(TWIGModelWrapper.read(file).getModel());
+      try {
+        if (TweetBinaryReader.isBinaryFile(file)) {
+          try (TweetBinaryReader reader = TweetBinaryReader.open(file)) {
+            matrix.addTweets(reader.tweets());
+          }
+        } else {
+          TWIGModelWrapper.parse(file, matrix.asStreamRDF());
+        }
+      } catch (Exception e) {
+        LOGGER.warn("Parsing file {} failed partway, its counts read so far remain in the matrix",
+            file.getName());
+        throw e;
+      }
       return matrix;
     };
   }
 
   @Override
-  public void addResult(WordMatrix result) {
-    synchronized (mergedResult) {
-      LOGGER.info("Merging result");
-      mergedResult.merge(result);
-    }
+  public void addResult(ConcurrentWordMatrix result) {
+    LOGGER.info("Parsed file");
   }
 
   @Override
-  public WordMatrix getMergedResult() {
-    return mergedResult;
+  public ConcurrentWordMatrix getMergedResult() {
+    return matrix;
   }
 
   /**
    * Runs a {@link org.aksw.twig.executors.SelfSuspendingExecutor} with a {@link WordMatrixHandler}
-   * as {@link org.aksw.twig.executors.SuspendSupplier}. Arguments must state an output file to
-   * serialize the resulting {@link WordMatrix}. Arguments should state files to parse and must be
-   * formatted according to {@link FileHandler#readArgs(String[])}.
+   * as {@link org.aksw.twig.executors.SuspendSupplier}. Arguments must state an output directory
+   * to write the resulting matrix to by {@link FrozenWordMatrix#write(File)}. Arguments should
+   * state files to parse and must be formatted according to {@link FileHandler#readArgs(String[])}.
    * 
    * @param args Arguments.
    */
   public static void main(String[] args) {
     Pair<File, Set<File>> fileArgs = FileHandler.readArgs(args);
     WordMatrixHandler handler = new WordMatrixHandler(fileArgs.getRight());
-    FileReadingSuspendSupplier.start("word_matrix.obj", fileArgs.getLeft(), handler);
+    ResultWriter<ConcurrentWordMatrix> writer = (matrix, file) -> matrix.freeze().write(file);
+    FileReadingSuspendSupplier.start(
+        Collections.singletonMap("word_matrix" + FrozenWordMatrixFormat.FILE_ENDING, writer),
+        fileArgs.getLeft(), handler);
   }
 }
@@ -1,10 +1,7 @@
 package org.aksw.twig.automaton.data;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
@@ -35,36 +32,38 @@ public class WordSampler implements SamplingWordPredecessorSuccessorDistribution
 
   private final Random r = new Random();
 
-  public WordMatrix matrix = null;
+  public WordTransitionMatrix matrix = null;
 
   /**
-   * Creates a {@link WordSampler} of given {@link WordMatrix}.
+   * Creates a {@link WordSampler} of given {@link WordTransitionMatrix}. Distributions are built
+   * from the rows of its {@link WordTransitionMatrix#freeze() frozen} copy, so successors are read
+   * in alphabetical order without sorting them.
    *
    * @param matrix Matrix to create the sampler of.
    */
-  public WordSampler(final WordMatrix matrix) {
+  public WordSampler(final WordTransitionMatrix matrix) {
 
     this.matrix = matrix;
 
-    matrix.getPredecessors().forEach(predecessor -> {
-      final WordChanceMapping[] wordChanceMappings = matrix.getMappings(predecessor).entrySet()
-          .stream()
-          .map(entry -> new WordChanceMapping(matrix.index.get(entry.getKey()), entry.getValue()))
-          .toArray(WordChanceMapping[]::new);
-
-      // Sort successors alphabetically
-      Arrays.sort(wordChanceMappings, WordChanceMapping::compareTo);
+    final FrozenWordMatrix frozen = matrix.freeze();
+    for (int predecessor = 0; predecessor < frozen.getVocabularySize(); predecessor++) {
+      final int rowStart = frozen.getRowStart(predecessor);
+      final int rowEnd = frozen.getRowEnd(predecessor);
+      if (rowStart == rowEnd) {
+        continue;
+      }
 
       final SamplingDiscreteTreeDistribution<String> distribution;
       distribution = new SamplingDiscreteTreeDistribution<>(DISTRIBUTION_CHANCE_DELTA);
 
-      for (int i = 0; i < wordChanceMappings.length; i++) {
-        final WordChanceMapping mapping = wordChanceMappings[i];
-        distribution.addDiscreteEvent(mapping.word, mapping.chance);
+      final double total = frozen.getRowTotal(predecessor);
+      for (int k = rowStart; k < rowEnd; k++) {
+        distribution.addDiscreteEvent(frozen.getWord(frozen.getSuccessorId(k)),
+            frozen.getCount(k) / total);
       }
 
-      distributionMap.put(predecessor, distribution);
-    });
+      distributionMap.put(frozen.getWord(predecessor), distribution);
+    }
   }
 
   /**
@@ -130,27 +129,6 @@ public class WordSampler implements SamplingWordPredecessorSuccessorDistribution
     return tweet.stream().reduce("", (a, b) -> a.concat(" ").concat(b)).trim();
   }
 
-  /**
-   * Wrapper class for a word and it's chance to be a successor.
-   */
-  private static class WordChanceMapping implements Comparable<WordChanceMapping> {
-
-    private final String word;
-
-    // TODO: never used?
-    private final double chance;
-
-    WordChanceMapping(final String word, final double chance) {
-      this.word = word;
-      this.chance = chance;
-    }
-
-    @Override
-    public int compareTo(final WordChanceMapping mapping) {
-      return word.compareTo(mapping.word);
-    }
-  }
-
   private static final EmptyWordSampler EMPTY_WORD_SAMPLER = new EmptyWordSampler();
 
   /**
@@ -173,7 +151,8 @@ public class WordSampler implements SamplingWordPredecessorSuccessorDistribution
   }
 
   /**
-   * Creates a {@link WordSampler} by parsing a {@link WordMatrix} of file stated in {@code arg[0]}.
+   * Creates a {@link WordSampler} by loading a word matrix of file stated in {@code arg[0]}, see
+   * {@link FrozenWordMatrix#load(File)}.
    * <br>
    * Then {@code arg[1]} tweets will be sampled and outputted by {@link Logger#info(String)}.
    *
@@ -185,12 +164,11 @@ public class WordSampler implements SamplingWordPredecessorSuccessorDistribution
     }
 
     final int messages = Integer.parseInt(args[1]);
-    try (ObjectInputStream objectInputStream =
-        new ObjectInputStream(new FileInputStream(new File(args[0])))) {
-      final WordMatrix matrix = (WordMatrix) objectInputStream.readObject();
-      matrix.printInspection();
-      matrix.truncateTo(TRUNCATE_CHANCE);
-      final WordSampler sampler = new WordSampler(matrix);
+    try {
+      final FrozenWordMatrix frozen = FrozenWordMatrix.load(new File(args[0]));
+      frozen.printInspection();
+      frozen.truncateTo(TRUNCATE_CHANCE);
+      final WordSampler sampler = new WordSampler(frozen);
       for (int i = 0; i < messages; i++) {
         LOGGER.info("Message: {}", sampler.sample());
       }
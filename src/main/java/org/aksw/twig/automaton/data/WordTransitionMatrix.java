@@ -0,0 +1,200 @@
+package org.aksw.twig.automaton.data;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.Tweet;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Frequency distribution of words being followed by one another as described by
+ * {@link WordMatrix}. Implementations differ in how they store the distribution. Words are
+ * identified by integer ids, see {@link #getMappings(String)} and {@link #getWord(int)}.
+ */
+public interface WordTransitionMatrix extends Serializable {
+
+  /**
+   * Alters the frequency distribution: You add {@code count} more occurences of the word
+   * {@code predecessor} being followed by {@code successor}.
+   *
+   * @param predecessor Predecessor to add.
+   * @param successor Successor to add.
+   * @param count Count to alter the frequency distribution by.
+   */
+  void alterFrequency(String predecessor, String successor, long count);
+
+  /**
+   * Returns the probability that {@code predecessor} will be followed by {@code successor}.
+   *
+   * @param predecessor Predecessor.
+   * @param successor Successor.
+   * @return Chance.
+   * @throws IllegalArgumentException Thrown if there is no mapping for the {@code predecessor}.
+   */
+  double getChance(String predecessor, String successor) throws IllegalArgumentException;
+
+  /**
+   * Returns the set of all predecessors that can be queried as first argument in
+   * {@link #getChance(String, String)} or {@link #getMappings(String)}.
+   *
+   * @return Set of predecessors.
+   */
+  Set<String> getPredecessors();
+
+  /**
+   * Get all words that can be successor to the {@code predecessor}. Those successors are mapped to
+   * their chance of succeeding.
+   *
+   * @param predecessor Predecessor.
+   * @return Map of successor ids to succeeding chance.
+   * @throws IllegalArgumentException Thrown if there is no mapping for the {@code predecessor}.
+   */
+  Map<Integer, Double> getMappings(String predecessor) throws IllegalArgumentException;
+
+  /**
+   * Returns the word of an id as used by {@link #getMappings(String)}.
+   *
+   * @param id Id of the word.
+   * @return Word or {@code null} if the id is unknown.
+   */
+  String getWord(int id);
+
+  /**
+   * Returns the mean chance of a word to be successor to any other word.
+   *
+   * @return Mean chance.
+   */
+  double getMeanChance();
+
+  /**
+   * Returns the standard deviation of the chance of a word to be successor to any other word.
+   *
+   * @return Chance standard deviation.
+   */
+  double getChanceStdDeviation();
+
+  /**
+   * Removes all successors from the matrix whose chance of succeeding is lower than given value.
+   *
+   * @param lowerBoundChance Lower bound for transition chances.
+   */
+  void truncateTo(double lowerBoundChance);
+
+  /**
+   * Returns an immutable copy of this matrix in a compact layout for read-mostly use. Word ids of
+   * the copy may differ from the ids of this matrix.
+   *
+   * @return Frozen matrix.
+   */
+  FrozenWordMatrix freeze();
+
+  /**
+   * Adds all iterable elements as pairs of predecessors and successors to the frequency
+   * distribution. Every {@link Pair} will be processed by:
+   * {@code alterFrequency(pair.getLeft(), pair.getRight(), 1);}.
+   *
+   * @param iterable Pairs of succeeding words to add to the frequency distribution.
+   */
+  default void putAll(final Iterable<Pair<String, String>> iterable) {
+    iterable.forEach(pair -> alterFrequency(pair.getLeft(), pair.getRight(), 1));
+  }
+
+  /**
+   * Iterates over given {@link Model} looking for statements with
+   * {@link TWIGModelWrapper#TWEET_CONTENT_PROPERTY_NAME} predicate. Once a sufficient statement is
+   * found all words from the literal will be added to the frequency distribution.
+   *
+   * @param model Model to add statements from.
+   */
+  default void addModel(final Model model) {
+    model.listStatements().forEachRemaining(statement -> {
+      if (statement.getPredicate().getLocalName()
+          .equals(TWIGModelWrapper.TWEET_CONTENT_PROPERTY_NAME)) {
+        final String tweet = statement.getObject().asLiteral().getString();
+        putAll(new TweetSplitter(tweet));
+      }
+    });
+  }
+
+  /**
+   * Returns a stream that adds all words of the tweet contents passed to it like
+   * {@link #addModel(Model)} but without building a graph.
+   *
+   * @return Stream to pass triples to.
+   */
+  default StreamRDF asStreamRDF() {
+    return new StreamRDFBase() {
+      @Override
+      public void triple(final Triple triple) {
+        if (triple.getPredicate().getLocalName()
+            .equals(TWIGModelWrapper.TWEET_CONTENT_PROPERTY_NAME)) {
+          putAll(new TweetSplitter(triple.getObject().getLiteralLexicalForm()));
+        }
+      }
+    };
+  }
+
+  /**
+   * Adds all words of the contents of given tweets to the frequency distribution.
+   *
+   * @param tweets Tweets to add.
+   */
+  default void addTweets(final Stream<Tweet> tweets) {
+    tweets.forEach(this::addTweet);
+  }
+
+  /**
+   * Adds all words of the content of given tweet to the frequency distribution.
+   *
+   * @param tweet Tweet to add.
+   */
+  default void addTweet(final Tweet tweet) {
+    putAll(new TweetSplitter(tweet.getContent()));
+  }
+
+  /**
+   * Prints information about distriution of transition chances. For each bound {@code x} you will
+   * see the average percentage of words that succeed with a chance lower than or equal to
+   * {@code x}.<br>
+   * Results will be printed by usage of {@link org.apache.logging.log4j.Logger#info(String,
+   * Object...)}.
+   */
+  default void printInspection() {
+    final double[] bounds =
+        new double[] {0.5, 0.1, 0.05, 0.01, 0.005, 0.001, 0.0005, 0.0001, 0.00005, 0.00001};
+    final Map<Double, List<Double>> boundsMap = new HashMap<>(bounds.length);
+    for (final double bound : bounds) {
+      boundsMap.put(bound, new LinkedList<>());
+    }
+
+    getPredecessors().forEach(predecessor -> {
+      final Map<Integer, Double> mappings = getMappings(predecessor);
+      for (final double bound : bounds) {
+        final long inBounds =
+            mappings.values().stream().filter(chance -> chance <= bound).count();
+        boundsMap.get(bound).add((double) inBounds / mappings.size());
+      }
+    });
+
+    for (final double bound : bounds) {
+      final List<Double> inBounds = boundsMap.get(bound);
+      final double averageInBounds =
+          inBounds.stream().reduce(0d, (a, b) -> a + b) / inBounds.size();
+
+      LogManager.getLogger(getClass()).info(
+          "On average {}% of succeeding words succeed with a chance <= {}.", averageInBounds,
+          bound);
+    }
+  }
+}
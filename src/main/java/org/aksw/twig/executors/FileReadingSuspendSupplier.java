@@ -1,17 +1,35 @@
 package org.aksw.twig.executors;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.NavigableSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
+import org.aksw.twig.Const;
 import org.aksw.twig.files.FileHandler;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -19,8 +37,16 @@ import org.apache.logging.log4j.Logger;
  * Navigates over a set of files polling {@link Callable} objects by
  * {@link FileReadingSuspendSupplier#getFileProcessor(File)}. Results of executed callables will be
  * handed to {@link FileReadingSuspendSupplier#addResult(Object)} and should be merged into one
- * result by implementing classes. The merged result can be queried via
- * {@link FileReadingSuspendSupplier#getMergedResult()}.<br>
+ * result by implementing classes, e. g. by a {@link TreeReducer}. The merged result can be queried
+ * via {@link FileReadingSuspendSupplier#getMergedResult()}, or awaited by {@link #execute()} and
+ * {@link #awaitResult()} to chain further processing in the same process.<br>
+ * Files are supplied largest first, so that a large file is not picked up last and becomes the tail
+ * of the whole run. Files larger than {@link Const#ANALYSIS_SPLIT_SIZE} are split into segments if
+ * implementing classes support it, see {@link #getSegmentProcessors(File, int)}.<br>
+ * Tasks can be held back until there is enough heap for them, see
+ * {@link #setAdmissionControl(HeapAdmissionControl)}.<br>
+ * Results of single files can be cached, so that a rerun over a growing set of files only processes
+ * new or changed files, see {@link #setCacheDirectory(File)}.<br>
  * Must be executed by a {@link SelfSuspendingExecutor}.
  *
  * @param <T> Type of parsing results.
@@ -30,7 +56,24 @@ public abstract class FileReadingSuspendSupplier<T extends Serializable>
 
   private static final Logger LOGGER = LogManager.getLogger(FileReadingSuspendSupplier.class);
 
-  private final NavigableSet<File> filesToParse = new TreeSet<>();
+  private final Collection<File> filesToParse = new TreeSet<>();
+
+  /** Scheduled tasks, largest first, or {@code null} if they have not been scheduled yet. */
+  private Deque<Task> tasks;
+
+  /** Number of bytes above which files will be split or {@code 0} if splitting is disabled. */
+  private long splitSize = Const.ANALYSIS_SPLIT_SIZE;
+
+  /** Directory to cache results of single files in or {@code null} if caching is disabled. */
+  private File cacheDirectory =
+      Const.ANALYSIS_CACHE_DIRECTORY.isEmpty() ? null : new File(Const.ANALYSIS_CACHE_DIRECTORY);
+
+  /** Admission control tasks must pass before being supplied or {@code null} if disabled. */
+  private HeapAdmissionControl admissionControl =
+      Const.ADMISSION_HEAP_FRACTION > 0 ? new HeapAdmissionControl() : null;
+
+  /** Held while a task waits for admission, so that tasks are admitted in order. */
+  private final Object admissionLock = new Object();
 
   /**
    * Creates a new instance setting class variables.
@@ -41,15 +84,271 @@ public abstract class FileReadingSuspendSupplier<T extends Serializable>
     this.filesToParse.addAll(filesToParse);
   }
 
+  /**
+   * Sets the directory to cache the result of every single file in. Defaults to
+   * {@link Const#ANALYSIS_CACHE_DIRECTORY}. Cached results are keyed by the class of this supplier
+   * and path, size and modification time of the file. A file whose result has been cached will not
+   * be processed again but its cached result will be handed to {@link #addResult(Object)}.
+   *
+   * @param cacheDirectory Cache directory or {@code null} to disable caching.
+   */
+  public void setCacheDirectory(final File cacheDirectory) {
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  /**
+   * Sets the number of bytes above which a file will be split into segments of at most this size.
+   * Defaults to {@link Const#ANALYSIS_SPLIT_SIZE}. Must be set before the first call of
+   * {@link #next()}.
+   *
+   * @param splitSize Maximum segment size or {@code 0} to disable splitting.
+   */
+  public void setSplitSize(final long splitSize) {
+    this.splitSize = splitSize;
+  }
+
+  /**
+   * Sets the admission control that tasks must pass before they are supplied. Defaults to a
+   * {@link HeapAdmissionControl} with the configured budget if
+   * {@link Const#ADMISSION_HEAP_FRACTION} is positive. {@link #next()} will block until the next
+   * task has been admitted, and tasks are admitted in the order they are supplied.
+   *
+   * @param admissionControl Admission control or {@code null} to supply tasks immediately.
+   */
+  public void setAdmissionControl(final HeapAdmissionControl admissionControl) {
+    this.admissionControl = admissionControl;
+  }
+
   @Override
   public Callable<T> next() {
-    if (filesToParse.isEmpty()) {
-      return null;
+    final HeapAdmissionControl admissionControl = this.admissionControl;
+    final Task task;
+    HeapAdmissionControl.Admission admission = null;
+    synchronized (admissionLock) {
+      synchronized (filesToParse) {
+        LOGGER.info("Supplying callable");
+        task = getTasks().pollFirst();
+      }
+      if (task == null) {
+        return null;
+      }
+      if (admissionControl == null) {
+        return getTaskProcessor(task);
+      }
+
+      // Returning null would mark the supplier as drained, so wait for admission even if
+      // interrupted. Admission will be granted at the latest once no other task is in flight.
+      boolean interrupted = false;
+      while (admission == null) {
+        try {
+          admission = admissionControl.acquire(task.size);
+        } catch (final InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
     }
 
+    final HeapAdmissionControl.Admission taskAdmission = admission;
+    final Callable<T> taskProcessor = getTaskProcessor(task);
+    return () -> {
+      try {
+        return taskProcessor.call();
+      } finally {
+        admissionControl.release(taskAdmission);
+      }
+    };
+  }
+
+  /**
+   * Returns a {@link Callable} processing a task. If caching is enabled the callable reads and
+   * writes the cached result of the task.
+   *
+   * @param task Task to process.
+   * @return Processing callable.
+   */
+  private Callable<T> getTaskProcessor(final Task task) {
+    final File file = task.file;
+    final Callable<T> fileProcessor =
+        task.callable != null ? task.callable : getFileProcessor(file);
+    final File cacheDirectory = this.cacheDirectory;
+    if (cacheDirectory == null) {
+      return fileProcessor;
+    }
+
+    final File cacheFile = getCacheFile(cacheDirectory, task);
+    return () -> {
+      final T cachedResult = readCachedResult(cacheFile);
+      if (cachedResult != null) {
+        LOGGER.info("Using cached result of file {}", file.getName());
+        return cachedResult;
+      }
+
+      final T result = fileProcessor.call();
+      writeCachedResult(cacheFile, result);
+      return result;
+    };
+  }
+
+  /**
+   * Returns the scheduled tasks. Tasks will be scheduled on first access, largest first. Must be
+   * called while holding the lock on {@link #filesToParse}.
+   *
+   * @return Scheduled tasks.
+   */
+  private Deque<Task> getTasks() {
+    if (tasks != null) {
+      return tasks;
+    }
+
+    final List<Task> scheduled = new ArrayList<>(filesToParse.size());
+    for (final File file : filesToParse) {
+      final long length = file.length();
+      final int segments = splitSize > 0 ? (int) Math.min(Integer.MAX_VALUE,
+          (length + splitSize - 1) / splitSize) : 1;
+      List<Callable<T>> segmentProcessors = null;
+      if (segments > 1) {
+        try {
+          segmentProcessors = getSegmentProcessors(file, segments);
+        } catch (final IOException e) {
+          LOGGER.warn("Couldn't split file {}: {}", file.getName(), e.getMessage());
+        }
+      }
+
+      if ((segmentProcessors == null) || segmentProcessors.isEmpty()) {
+        scheduled.add(new Task(file, 0, 1, length, null));
+        continue;
+      }
+
+      LOGGER.info("Splitting file {} into {} segments", file.getName(),
+          segmentProcessors.size());
+      for (int i = 0; i < segmentProcessors.size(); i++) {
+        scheduled.add(new Task(file, i, segmentProcessors.size(),
+            length / segmentProcessors.size(), segmentProcessors.get(i)));
+      }
+    }
+
+    scheduled.sort(Comparator.comparingLong((final Task task) -> task.size).reversed()
+        .thenComparing(task -> task.file).thenComparingInt(task -> task.segment));
+    tasks = new ArrayDeque<>(scheduled);
+    return tasks;
+  }
+
+  /**
+   * Returns the makespan, in bytes of input, of processing all remaining tasks on given number of
+   * threads in the order they will be supplied. Every thread picks up the next task as soon as it
+   * is idle, so the schedule is a longest processing time first schedule and the makespan is at
+   * most 4/3 of the optimum.
+   *
+   * @param nThreads Number of threads processing tasks.
+   * @return Expected makespan in bytes.
+   */
+  public long getExpectedMakespan(final int nThreads) {
+    final PriorityQueue<Long> threadLoads = new PriorityQueue<>();
+    for (int i = 0; i < nThreads; i++) {
+      threadLoads.add(0L);
+    }
+
+    synchronized (filesToParse) {
+      for (final Task task : getTasks()) {
+        threadLoads.add(threadLoads.poll() + task.size);
+      }
+    }
+
+    return Collections.max(threadLoads);
+  }
+
+  /**
+   * Logs the expected makespan of processing all remaining tasks on given number of threads
+   * compared to a perfectly balanced schedule.
+   *
+   * @param nThreads Number of threads processing tasks.
+   */
+  public void logExpectedMakespan(final int nThreads) {
+    final long makespan = getExpectedMakespan(nThreads);
+    final int taskCount;
+    long totalSize = 0;
     synchronized (filesToParse) {
-      LOGGER.info("Supplying callable");
-      return getFileProcessor(filesToParse.pollFirst());
+      taskCount = getTasks().size();
+      for (final Task task : getTasks()) {
+        totalSize += task.size;
+      }
+    }
+
+    final long balanced = (totalSize + nThreads - 1) / nThreads;
+    LOGGER.info("Scheduled {} tasks of {} bytes on {} threads, expected makespan {} bytes ({}% of"
+        + " a balanced schedule)", taskCount, totalSize, nThreads, makespan,
+        balanced > 0 ? (100 * makespan) / balanced : 100);
+  }
+
+  /**
+   * Returns the file the result of given task will be cached in.
+   *
+   * @param cacheDirectory Cache directory.
+   * @param task Task to process.
+   * @return Cache file.
+   */
+  private File getCacheFile(final File cacheDirectory, final Task task) {
+    final File file = task.file;
+    String key = getClass().getName().concat("|").concat(file.getAbsolutePath())
+        .concat("|").concat(Long.toString(file.length())).concat("|")
+        .concat(Long.toString(file.lastModified()));
+    if (task.segments > 1) {
+      key = key.concat("|").concat(Integer.toString(task.segment)).concat("/")
+          .concat(Integer.toString(task.segments));
+    }
+    return new File(cacheDirectory,
+        getClass().getSimpleName().concat("_").concat(DigestUtils.sha1Hex(key)).concat(".obj"));
+  }
+
+  /**
+   * Reads a cached result.
+   *
+   * @param cacheFile File to read.
+   * @return Cached result or {@code null} if there is none or it can't be read.
+   */
+  @SuppressWarnings("unchecked")
+  private T readCachedResult(final File cacheFile) {
+    if (!cacheFile.isFile()) {
+      return null;
+    }
+
+    try (ObjectInputStream objectInputStream =
+        new ObjectInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+      return (T) objectInputStream.readObject();
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      LOGGER.warn("Couldn't read cached result {}: {}", cacheFile.getName(), e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Caches a result. The cache file will be written completely before it becomes visible.
+   *
+   * @param cacheFile File to write.
+   * @param result Result to cache.
+   */
+  private void writeCachedResult(final File cacheFile, final T result) {
+    final File directory = cacheFile.getParentFile();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      LOGGER.warn("Couldn't create cache directory {}", directory);
+      return;
+    }
+
+    try {
+      final File tmpFile = File.createTempFile(cacheFile.getName(), ".tmp", directory);
+      try (ObjectOutputStream objectOutputStream =
+          new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+        objectOutputStream.writeObject(result);
+      } catch (final IOException e) {
+        tmpFile.delete();
+        throw e;
+      }
+      Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (final IOException e) {
+      LOGGER.warn("Couldn't cache result {}: {}", cacheFile.getName(), e.getMessage());
     }
   }
 
@@ -61,6 +360,22 @@ public abstract class FileReadingSuspendSupplier<T extends Serializable>
    */
   protected abstract Callable<T> getFileProcessor(File file);
 
+  /**
+   * Returns {@link Callable} objects parsing given file in about {@code segments} segments of
+   * about the same size. Every segment result will be handed to {@link #addResult(Object)} on its
+   * own. Callables should not open the file before they are called. The default implementation
+   * does not split files.
+   *
+   * @param file File to parse.
+   * @param segments Number of segments to split the file into.
+   * @return Parsing callables or {@code null} if the file can't be split.
+   * @throws IOException Thrown if the file can't be split.
+   */
+  protected List<Callable<T>> getSegmentProcessors(final File file, final int segments)
+      throws IOException {
+    return null;
+  }
+
   /**
    * Returns the merged result of the executed callables.
    *
@@ -68,6 +383,41 @@ public abstract class FileReadingSuspendSupplier<T extends Serializable>
    */
   protected abstract T getMergedResult();
 
+  /**
+   * Creates a {@link SelfSuspendingExecutor} with {@link Const#N_THREADS_SELFSUSPENDINGEXECUTOR}
+   * threads and executes this supplier. Method is non-blocking.
+   *
+   * @return Future of the merged result, completed once every file has been processed.
+   */
+  public CompletableFuture<T> execute() {
+    return execute(Const.N_THREADS_SELFSUSPENDINGEXECUTOR);
+  }
+
+  /**
+   * Creates a {@link SelfSuspendingExecutor} and executes this supplier. Method is non-blocking.
+   *
+   * @param nThreads Number of threads to process files on.
+   * @return Future of the merged result, completed once every file has been processed.
+   */
+  public CompletableFuture<T> execute(final int nThreads) {
+    final SelfSuspendingExecutor<T> executor = new SelfSuspendingExecutor<>(this, nThreads);
+    logExpectedMakespan(nThreads);
+    LOGGER.info("Starting executor");
+    executor.start();
+    return executor.getCompletionFuture().thenApply(finished -> getMergedResult());
+  }
+
+  /**
+   * Executes this supplier like {@link #execute()} and blocks until every file has been processed.
+   *
+   * @return Merged result.
+   * @throws InterruptedException Thrown if the waiting thread has been interrupted.
+   * @throws ExecutionException Thrown if the merged result could not be computed.
+   */
+  public T awaitResult() throws InterruptedException, ExecutionException {
+    return execute().get();
+  }
+
   /**
    * Creates a {@link SelfSuspendingExecutor} and executes it.
    *
@@ -80,32 +430,111 @@ public abstract class FileReadingSuspendSupplier<T extends Serializable>
   protected static <T extends Serializable> void start(final String fileName,
       final File outputDirectory, final FileReadingSuspendSupplier<T> suspendSupplier)
       throws IllegalArgumentException {
+    start(Collections.singletonMap(fileName, serializing(Function.identity())), outputDirectory,
+        suspendSupplier);
+  }
+
+  /**
+   * Returns a writer that serializes the result of given function applied to the merged result.
+   *
+   * @param output Function that extracts the object to serialize.
+   * @param <T> Type of parsing results.
+   * @return Writer.
+   */
+  protected static <T> ResultWriter<T> serializing(
+      final Function<T, ? extends Serializable> output) {
+    return (result, file) -> {
+      try (ObjectOutputStream objectOutputStream =
+          new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+        objectOutputStream.writeObject(output.apply(result));
+        objectOutputStream.flush();
+      }
+    };
+  }
+
+  /**
+   * Creates a {@link SelfSuspendingExecutor} and executes it. Once finished, every writer will
+   * write the merged result into its file, see {@link #serializing(Function)}.
+   *
+   * @param outputs Maps file names to writers of the merged result.
+   * @param outputDirectory Output directory for merged result.
+   * @param suspendSupplier Suspend supplier to be executed.
+   * @param <T> Type of parsing results.
+   * @throws IllegalArgumentException Thrown if {@code outputDirectory} is {@code null}.
+   */
+  protected static <T extends Serializable> void start(
+      final Map<String, ResultWriter<T>> outputs, final File outputDirectory,
+      final FileReadingSuspendSupplier<T> suspendSupplier) throws IllegalArgumentException {
 
     if (outputDirectory == null) {
       throw new IllegalArgumentException();
     }
 
-    final String[] split = fileName.split("\\.");
-    File outputFile;
-    try {
-      outputFile = new FileHandler(outputDirectory, split[0],
-          split.length > 1 ? ".".concat(split[1]) : ".obj").nextFile();
-    } catch (final IOException e) {
-      LOGGER.error(e.getMessage(), e);
-      return;
-    }
-
-    final SelfSuspendingExecutor<T> executor = new SelfSuspendingExecutor<>(suspendSupplier);
-    executor.addFinishedEventListeners(() -> {
-      try (ObjectOutputStream objectOutputStream =
-          new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile)))) {
-        objectOutputStream.writeObject(suspendSupplier.getMergedResult());
-        objectOutputStream.flush();
+    final Map<File, ResultWriter<T>> outputFiles = new LinkedHashMap<>();
+    for (final Map.Entry<String, ResultWriter<T>> output : outputs.entrySet()) {
+      final String[] split = output.getKey().split("\\.");
+      try {
+        outputFiles.put(new FileHandler(outputDirectory, split[0],
+            split.length > 1 ? ".".concat(split[1]) : ".obj").nextFile(), output.getValue());
       } catch (final IOException e) {
         LOGGER.error(e.getMessage(), e);
+        return;
       }
+    }
+
+    suspendSupplier.execute().thenAccept(mergedResult -> {
+      outputFiles.forEach((outputFile, output) -> {
+        try {
+          output.write(mergedResult, outputFile);
+        } catch (final IOException e) {
+          LOGGER.error(e.getMessage(), e);
+        }
+      });
     });
-    LOGGER.info("Starting executor");
-    executor.start();
+  }
+
+  /**
+   * Writes a merged result into an output file.
+   *
+   * @param <T> Type of parsing results.
+   */
+  @FunctionalInterface
+  public interface ResultWriter<T> {
+
+    /**
+     * Writes the result.
+     *
+     * @param result Merged result.
+     * @param file File to write.
+     * @throws IOException Thrown if the file could not be written.
+     */
+    void write(T result, File file) throws IOException;
+  }
+
+  /**
+   * A file or a segment of a file to process.
+   */
+  private final class Task {
+
+    private final File file;
+
+    private final int segment;
+
+    private final int segments;
+
+    /** Number of input bytes, used as estimate of the processing time. */
+    private final long size;
+
+    /** Callable processing a segment or {@code null} if the whole file will be processed. */
+    private final Callable<T> callable;
+
+    private Task(final File file, final int segment, final int segments, final long size,
+        final Callable<T> callable) {
+      this.file = file;
+      this.segment = segment;
+      this.segments = segments;
+      this.size = size;
+      this.callable = callable;
+    }
   }
 }
@@ -0,0 +1,168 @@
+package org.aksw.twig.executors;
+
+import java.util.function.LongSupplier;
+
+import org.aksw.twig.Const;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Admits tasks only while there is enough heap headroom for them. The memory a task needs is
+ * estimated by the size of its input times an expansion ratio. The ratio is learned while tasks
+ * complete as an exponential moving average of the heap a task has added during its run per byte
+ * of input in flight, so it adapts to the data and to the representation tasks build from it. Heap
+ * that has been in use before a task was admitted, e. g. by merged results, does not count towards
+ * the ratio.<br>
+ * A task will be admitted if its estimate fits into the heap budget next to the estimates of all
+ * admitted tasks and next to the heap actually in use, whichever is larger. If no task is in flight
+ * a task will always be admitted, so a single task larger than the budget is run on its own
+ * instead of never.
+ */
+public class HeapAdmissionControl {
+
+  private static final Logger LOGGER = LogManager.getLogger(HeapAdmissionControl.class);
+
+  /** Milliseconds to wait before checking the heap again, as memory may be freed by garbage. */
+  private static final long RECHECK_MILLIS = 1000;
+
+  /** Weight of a new sample in the moving average of the expansion ratio. */
+  private static final double ALPHA = 0.3;
+
+  private final long budget;
+
+  private final LongSupplier usedHeap;
+
+  /** Heap in use before any task has been admitted. */
+  private final long baseline;
+
+  private double expansionRatio;
+
+  private int tasksInFlight = 0;
+
+  private long bytesInFlight = 0;
+
+  private long reserved = 0;
+
+  /**
+   * Creates a new instance with a budget of {@link Const#ADMISSION_HEAP_FRACTION} of the maximum
+   * heap and an initial ratio of {@link Const#ADMISSION_EXPANSION_RATIO}.
+   */
+  public HeapAdmissionControl() {
+    this((long) (Runtime.getRuntime().maxMemory() * Const.ADMISSION_HEAP_FRACTION),
+        Const.ADMISSION_EXPANSION_RATIO);
+  }
+
+  /**
+   * Creates a new instance setting class variables.
+   *
+   * @param budget Number of heap bytes tasks may use at once.
+   * @param expansionRatio Initial number of heap bytes a task uses per byte of input.
+   */
+  public HeapAdmissionControl(final long budget, final double expansionRatio) {
+    this(budget, expansionRatio,
+        () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+  }
+
+  /**
+   * Creates a new instance setting class variables.
+   *
+   * @param budget Number of heap bytes tasks may use at once.
+   * @param expansionRatio Initial number of heap bytes a task uses per byte of input.
+   * @param usedHeap Supplies the number of heap bytes in use.
+   */
+  HeapAdmissionControl(final long budget, final double expansionRatio,
+      final LongSupplier usedHeap) {
+    this.budget = budget;
+    this.expansionRatio = expansionRatio;
+    this.usedHeap = usedHeap;
+    baseline = usedHeap.getAsLong();
+  }
+
+  public synchronized double getExpansionRatio() {
+    return expansionRatio;
+  }
+
+  /**
+   * Blocks until a task with given input size can be admitted and admits it. Every admitted task
+   * must be released by {@link #release(Admission)} once it has completed.
+   *
+   * @param inputSize Number of input bytes of the task.
+   * @return Admission of the task that must be handed to {@link #release(Admission)}.
+   * @throws InterruptedException Thrown if the thread has been interrupted while waiting. The task
+   *         has not been admitted then.
+   */
+  public synchronized Admission acquire(final long inputSize) throws InterruptedException {
+    final long estimate = (long) (inputSize * expansionRatio);
+    boolean logged = false;
+    while ((tasksInFlight > 0) && (estimate > getHeadroom())) {
+      if (!logged) {
+        LOGGER.info("Waiting for {} bytes of heap headroom", estimate);
+        logged = true;
+      }
+      wait(RECHECK_MILLIS);
+    }
+
+    tasksInFlight++;
+    bytesInFlight += inputSize;
+    reserved += estimate;
+    return new Admission(inputSize, estimate, usedHeap.getAsLong());
+  }
+
+  /**
+   * Releases an admitted task and updates the expansion ratio by the heap that has been added
+   * while it ran. As tasks running at the same time add to the heap as well, the added heap is
+   * divided by all input bytes in flight.
+   *
+   * @param admission Admission returned by {@link #acquire(long)}.
+   */
+  public synchronized void release(final Admission admission) {
+    final long added = Math.max(0, usedHeap.getAsLong() - admission.usedHeap);
+    if (bytesInFlight > 0) {
+      final double sample = (double) added / bytesInFlight;
+      expansionRatio = (ALPHA * sample) + ((1 - ALPHA) * expansionRatio);
+    }
+
+    tasksInFlight--;
+    bytesInFlight -= admission.inputSize;
+    reserved -= admission.estimate;
+    notifyAll();
+  }
+
+  /**
+   * Returns the number of bytes of the budget that are neither reserved by admitted tasks nor, if
+   * more, in use.
+   *
+   * @return Heap headroom.
+   */
+  private long getHeadroom() {
+    return budget - Math.max(reserved, usedHeap.getAsLong() - baseline);
+  }
+
+  /**
+   * Admitted task.
+   */
+  public static final class Admission {
+
+    private final long inputSize;
+
+    private final long estimate;
+
+    /** Heap in use when the task has been admitted. */
+    private final long usedHeap;
+
+    private Admission(final long inputSize, final long estimate, final long usedHeap) {
+      this.inputSize = inputSize;
+      this.estimate = estimate;
+      this.usedHeap = usedHeap;
+    }
+
+    /**
+     * Returns the estimated number of heap bytes the task will use.
+     *
+     * @return Estimate.
+     */
+    public long getEstimate() {
+      return estimate;
+    }
+  }
+}
@@ -4,8 +4,11 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aksw.twig.Const;
 import org.apache.logging.log4j.LogManager;
@@ -18,7 +21,10 @@ import org.apache.logging.log4j.Logger;
  * class is that it will only pull and execute {@link Callable} objects from its supplier as long as
  * there are available threads. When there are no free threads available the executor will wait
  * until there are. This is especially useful if queued tasks on normal executors consume a lot of
- * RAM or task creation is much more faster than task processing.
+ * RAM or task creation is much more faster than task processing.<br>
+ * Every thread pulls its next callable from the supplier itself as soon as it is idle, so the
+ * supplier will be queried concurrently. Once the supplier is drained and the last thread is idle,
+ * finished listeners will be run and {@link #getCompletionFuture()} will be completed.
  *
  * @param <T> Type of the results provided by the {@link Callable} objects.
  */
@@ -26,7 +32,7 @@ public class SelfSuspendingExecutor<T> {
 
   private static final Logger LOGGER = LogManager.getLogger(SelfSuspendingExecutor.class);
 
-  private int nThreads = Const.N_THREADS_SELFSUSPENDINGEXECUTOR;
+  private final int nThreads;
 
   private final SuspendSupplier<T> suspendSupplier;
 
@@ -36,12 +42,14 @@ public class SelfSuspendingExecutor<T> {
   private final ExecutorService executorService;
 
   /**
-   * Executes code querying the {@link #suspendSupplier}.
+   * Number of threads that have not yet found the {@link #suspendSupplier} drained.
    */
-  private final ExecutorService callableSubmittingService;
+  private final AtomicInteger runningThreads = new AtomicInteger();
 
   private final Queue<Runnable> finishedEventListeners = new LinkedList<>();
 
+  private final CompletableFuture<Void> completionFuture = new CompletableFuture<>();
+
   private boolean finished = false;
 
   /**
@@ -50,9 +58,7 @@ public class SelfSuspendingExecutor<T> {
    * @param suspendSupplier Supplier for new callables.
    */
   public SelfSuspendingExecutor(final SuspendSupplier<T> suspendSupplier) {
-    this.suspendSupplier = suspendSupplier;
-    this.executorService = Executors.newFixedThreadPool(nThreads);
-    this.callableSubmittingService = Executors.newSingleThreadExecutor();
+    this(suspendSupplier, Const.N_THREADS_SELFSUSPENDINGEXECUTOR);
   }
 
   /**
@@ -62,8 +68,9 @@ public class SelfSuspendingExecutor<T> {
    * @param nThreads Number of threads to work on callables.
    */
   public SelfSuspendingExecutor(final SuspendSupplier<T> suspendSupplier, final int nThreads) {
-    this(suspendSupplier);
+    this.suspendSupplier = suspendSupplier;
     this.nThreads = nThreads;
+    this.executorService = Executors.newFixedThreadPool(nThreads);
   }
 
   /**
@@ -89,53 +96,84 @@ public class SelfSuspendingExecutor<T> {
    * mean every callable has been executed.
    */
   public void start() {
-    callableSubmittingService.execute(() -> {
-      for (int i = 0; i < nThreads; i++) {
-        execNext();
-      }
-    });
+    runningThreads.set(nThreads);
+    for (int i = 0; i < nThreads; i++) {
+      executorService.execute(this::work);
+    }
+    executorService.shutdown();
   }
 
   /**
-   * Executes the next callable supplied by {@link #suspendSupplier} or finishes execution.
+   * Returns a future that will be completed once every callable has been executed and all finished
+   * listeners have been run. Further stages can be chained onto it.
+   *
+   * @return Completion future.
    */
-  private void execNext() {
-    LOGGER.info("Querying callable");
-    final Callable<T> callable = suspendSupplier.next();
-    if (callable == null) {
-      if (!callableSubmittingService.isShutdown()) {
-        callableSubmittingService.execute(this::finish);
+  public CompletableFuture<Void> getCompletionFuture() {
+    return completionFuture;
+  }
+
+  /**
+   * Blocks until every callable has been executed and all finished listeners have been run.
+   *
+   * @throws InterruptedException Thrown if the waiting thread has been interrupted.
+   * @throws ExecutionException Thrown if a finished listener failed.
+   */
+  public void awaitCompletion() throws InterruptedException, ExecutionException {
+    completionFuture.get();
+  }
+
+  /**
+   * Executes callables supplied by {@link #suspendSupplier} until it is drained. The last thread
+   * to find the supplier drained finishes the execution.
+   */
+  private void work() {
+    try {
+      Callable<T> callable;
+      while ((callable = nextCallable()) != null) {
+        runCallable(callable);
+      }
+    } finally {
+      if (runningThreads.decrementAndGet() == 0) {
+        finish();
       }
-      return;
     }
-    executorService.execute(() -> runCallable(callable));
   }
 
   /**
-   * Finishes the execution by shutting down services, etc.
+   * Queries the next callable of {@link #suspendSupplier}.
+   *
+   * @return Next callable or {@code null} if the supplier is drained or failed.
    */
-  private void finish() {
-    if (executorService.isShutdown()) {
-      return;
+  private Callable<T> nextCallable() {
+    LOGGER.info("Querying callable");
+    try {
+      return suspendSupplier.next();
+    } catch (final RuntimeException e) {
+      LOGGER.error(e.getMessage(), e);
+      return null;
     }
+  }
 
+  /**
+   * Finishes the execution by running finished listeners and completing the completion future.
+   */
+  private void finish() {
     LOGGER.info("Finishing");
 
-    executorService.shutdown();
-
-    while (!executorService.isTerminated()) {
-      try {
-        Thread.sleep(10);
-      } catch (final InterruptedException e) {
-        LOGGER.error(e.getMessage(), e);
+    try {
+      synchronized (finishedEventListeners) {
+        finishedEventListeners.forEach(Runnable::run);
+        finishedEventListeners.clear();
+        finished = true;
       }
-    }
-
-    synchronized (finishedEventListeners) {
-      finishedEventListeners.forEach(Runnable::run);
-      finishedEventListeners.clear();
-      finished = true;
-      callableSubmittingService.shutdown();
+      completionFuture.complete(null);
+    } catch (final RuntimeException e) {
+      LOGGER.error(e.getMessage(), e);
+      synchronized (finishedEventListeners) {
+        finished = true;
+      }
+      completionFuture.completeExceptionally(e);
     }
   }
 
@@ -163,6 +201,5 @@ public class SelfSuspendingExecutor<T> {
     } catch (final Exception e) {
       LOGGER.error(e.getMessage(), e);
     }
-    callableSubmittingService.execute(this::execNext);
   }
 }
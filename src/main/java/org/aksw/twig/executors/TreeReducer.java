@@ -0,0 +1,95 @@
+package org.aksw.twig.executors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Merges partial results pairwise in a binary tree instead of merging every partial result into
+ * one accumulator. Every partial result has a level, added results start at level 0. Two results of
+ * the same level will be merged into one result of the next level by the thread that added the
+ * second one, without holding any lock. Threads adding results therefore merge in parallel and
+ * every partial result takes part in a logarithmic number of merges. {@link #reduce()} merges the
+ * remaining results, at most one per level, into the final result.
+ *
+ * @param <T> Type of results to merge.
+ */
+public class TreeReducer<T> {
+
+  private final Supplier<T> identity;
+
+  private final BinaryOperator<T> merger;
+
+  /** Maps levels to the result waiting for a partner of the same level. */
+  private final TreeMap<Integer, T> levels = new TreeMap<>();
+
+  /**
+   * Creates a new instance setting class variables.
+   *
+   * @param identity Supplies an empty result that {@link #reduce()} returns if no result has been
+   *        added.
+   * @param merger Merges two results into one. It may merge the second result into the first and
+   *        return the first. It will be called concurrently for distinct results.
+   */
+  public TreeReducer(final Supplier<T> identity, final BinaryOperator<T> merger) {
+    this.identity = identity;
+    this.merger = merger;
+  }
+
+  /**
+   * Adds a partial result. If there is a result of the same level they will be merged by the
+   * calling thread and the merged result will be added to the next level.
+   *
+   * @param result Result to add.
+   */
+  public void add(final T result) {
+    T current = result;
+    int level = 0;
+    while (true) {
+      final T partner;
+      synchronized (levels) {
+        partner = levels.remove(level);
+        if (partner == null) {
+          levels.put(level, current);
+          return;
+        }
+      }
+
+      current = merger.apply(partner, current);
+      level++;
+    }
+  }
+
+  /**
+   * Merges all added results into one. The result will be kept, so reducing again without adding
+   * further results returns the same object. Must not be called concurrently to
+   * {@link #add(Object)}.
+   *
+   * @return Merged result.
+   */
+  public T reduce() {
+    final List<T> partials;
+    final int topLevel;
+    synchronized (levels) {
+      if (levels.isEmpty()) {
+        levels.put(0, identity.get());
+      }
+      partials = new ArrayList<>(levels.descendingMap().values());
+      topLevel = levels.lastKey();
+      levels.clear();
+    }
+
+    // Merge smaller results into larger ones.
+    T merged = partials.get(0);
+    for (int i = 1; i < partials.size(); i++) {
+      merged = merger.apply(merged, partials.get(i));
+    }
+
+    synchronized (levels) {
+      levels.put(topLevel, merged);
+    }
+    return merged;
+  }
+}
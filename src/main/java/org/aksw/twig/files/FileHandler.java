@@ -1,22 +1,30 @@
 package org.aksw.twig.files;
 
+import org.aksw.twig.Const;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.google.common.io.ByteStreams;
+
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipInputStream;
 
 /**
@@ -110,7 +118,8 @@ public class FileHandler {
   }
 
   /**
-   * Gets all files from a directory.
+   * Gets all files from a directory. Index files of {@link GZIPMemberIndex} that are stored next
+   * to their input files will be skipped.
    * 
    * @param f Directory to search.
    * @param allowRecursion {@code true} if you want to look for files in sub-folders, too.
@@ -127,7 +136,7 @@ public class FileHandler {
           if (allowRecursion) {
             fileStream = Stream.concat(fileStream, getFiles(file, true));
           }
-        } else {
+        } else if (!file.getName().endsWith(GZIPMemberIndex.FILE_ENDING)) {
           fileStream = Stream.concat(fileStream, Stream.of(file));
         }
       }
@@ -250,4 +259,252 @@ public class FileHandler {
 
     return fileStream;
   }
+
+  /**
+   * Creates a gzip compression stream writing into given stream. If {@link Const#N_THREADS_GZIP} is
+   * greater than 1 a {@link ParallelGZIPOutputStream} will be created, otherwise a
+   * {@link GZIPOutputStream}. Either way the written data can be read by
+   * {@link #getDecompressionStreams(File)} if the file ends with '.gz'.
+   * 
+   * @param outputStream Stream to write compressed data into.
+   * @return OutputStream compressing written data.
+   * @throws IOException Thrown during stream creation.
+   */
+  public static OutputStream getCompressionStream(OutputStream outputStream) throws IOException {
+    if (Const.N_THREADS_GZIP > 1) {
+      return new ParallelGZIPOutputStream(outputStream);
+    }
+
+    return new GZIPOutputStream(outputStream);
+  }
+
+  /**
+   * Returns whether {@link #getDecompressionStreams(File)} would decompress the file, i. e. whether
+   * its file ending is one of:
+   * <ul>
+   * <li>.gz</li>
+   * <li>.zip</li>
+   * <li>.tar</li>
+   * </ul>
+   * 
+   * @param file File to check.
+   * @return {@code true} if the file is compressed.
+   */
+  public static boolean isCompressed(File file) {
+    String[] split = file.getName().split("\\.");
+    switch (split[split.length - 1]) {
+      case "gz":
+      case "zip":
+      case "tar":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Splits an uncompressed file into at most {@code ranges} byte ranges that can be read
+   * independently. Every range but the first starts at the beginning of a line that starts with
+   * {@code linePrefix}. Ranges are consecutive and cover the whole file.
+   * 
+   * @param file File to split.
+   * @param ranges Number of ranges to create at most.
+   * @param linePrefix Prefix of lines a range may start at. Pass {@code ""} to split at any line.
+   * @return Pairs of start offset (inclusive, left value) and end offset (exclusive, right value).
+   * @throws IOException Thrown during reading the file.
+   */
+  public static List<Pair<Long, Long>> splitAtLines(File file, int ranges, String linePrefix)
+      throws IOException {
+    long size = file.length();
+    byte[] prefix = linePrefix.getBytes(StandardCharsets.UTF_8);
+
+    List<Long> starts = new ArrayList<>(ranges);
+    starts.add(0L);
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+      for (int i = 1; i < ranges; i++) {
+        long lastStart = starts.get(starts.size() - 1);
+        long target = size / ranges * i;
+        if (target <= lastStart) {
+          continue;
+        }
+
+        long start = nextLineStart(randomAccessFile, target, prefix);
+        if (start == -1 || start >= size) {
+          break;
+        }
+        if (start > lastStart) {
+          starts.add(start);
+        }
+      }
+    }
+
+    List<Pair<Long, Long>> split = new ArrayList<>(starts.size());
+    for (int i = 0; i < starts.size(); i++) {
+      split.add(
+          new ImmutablePair<>(starts.get(i), i + 1 < starts.size() ? starts.get(i + 1) : size));
+    }
+
+    return split;
+  }
+
+  /**
+   * Finds the offset of the first line at or after {@code from} that starts with given prefix.
+   * 
+   * @param file File to search.
+   * @param from Offset to start searching at.
+   * @param linePrefix Bytes the line must start with.
+   * @return Offset of the line start or {@code -1} if there is none.
+   * @throws IOException Thrown during reading the file.
+   */
+  private static long nextLineStart(RandomAccessFile file, long from, byte[] linePrefix)
+      throws IOException {
+    if (from <= 0) {
+      return 0;
+    }
+
+    // Start at the preceding byte to recognize a line starting exactly at 'from'.
+    file.seek(from - 1);
+    InputStream inputStream = new BufferedInputStream(Channels.newInputStream(file.getChannel()));
+    long position = from - 1;
+    int b = inputStream.read();
+    while (b != -1) {
+      if (b != '\n') {
+        b = inputStream.read();
+        position++;
+        continue;
+      }
+
+      long lineStart = position + 1;
+      int matched = 0;
+      b = inputStream.read();
+      position++;
+      while (matched < linePrefix.length && b == linePrefix[matched]) {
+        matched++;
+        b = inputStream.read();
+        position++;
+      }
+
+      if (matched == linePrefix.length) {
+        return lineStart;
+      }
+      // b is the first byte not matching the prefix and may be a line break itself.
+    }
+
+    return -1;
+  }
+
+  /**
+   * Creates up to {@code segments} streams that together read a file line by line, each starting
+   * at a line that starts with {@code linePrefix}. The streams can be read in parallel:
+   * <ul>
+   * <li>Uncompressed files will be split into byte ranges by
+   * {@link #splitAtLines(File, int, String)}.</li>
+   * <li>Gzip files will be split at their members if {@link Const#GZIP_INDEX} is set and a
+   * {@link GZIPMemberIndex} of the file exists. If there is no index yet the file will be read by a
+   * single stream that stores the index once the whole file has been read, so subsequent calls can
+   * split it.</li>
+   * <li>Any other file will be read by a single stream as created by
+   * {@link #getDecompressionStreams(File)}.</li>
+   * </ul>
+   * 
+   * @param file File to read.
+   * @param segments Number of streams to create at most.
+   * @param linePrefix Prefix of lines a stream may start at. Pass {@code ""} to split at any line.
+   * @return Streams reading the file.
+   * @throws IOException Thrown during stream creation.
+   */
+  public static List<InputStream> getSegmentStreams(File file, int segments, String linePrefix)
+      throws IOException {
+    List<InputStream> streams = new ArrayList<>(segments);
+    for (StreamOpener opener : getSegmentStreamOpeners(file, segments, linePrefix)) {
+      streams.add(opener.open());
+    }
+    return streams;
+  }
+
+  /**
+   * Same as {@link #getSegmentStreams(File, int, String)} but every stream will be opened once its
+   * opener is called, so segments can be scheduled without holding a file handle each.
+   * 
+   * @param file File to read.
+   * @param segments Number of streams to create at most.
+   * @param linePrefix Prefix of lines a stream may start at. Pass {@code ""} to split at any line.
+   * @return Openers of streams reading the file.
+   * @throws IOException Thrown during splitting.
+   */
+  public static List<StreamOpener> getSegmentStreamOpeners(File file, int segments,
+      String linePrefix) throws IOException {
+    List<StreamOpener> openers = new ArrayList<>(segments);
+    if (!isCompressed(file)) {
+      for (Pair<Long, Long> range : splitAtLines(file, segments, linePrefix)) {
+        openers.add(() -> getRangeStream(file, range.getLeft(), range.getRight()));
+      }
+      return openers;
+    }
+
+    String[] split = file.getName().split("\\.");
+    boolean gzip = split[split.length - 1].equals("gz")
+        && !(split.length > 2 && (split[split.length - 2].equals("tar")
+            || split[split.length - 2].equals("zip")));
+    if (!Const.GZIP_INDEX || !gzip) {
+      openers.add(() -> getDecompressionStreams(file));
+      return openers;
+    }
+
+    GZIPMemberIndex index = GZIPMemberIndex.load(file);
+    if (index == null) {
+      openers.add(() -> {
+        LOGGER.info("Indexing gzip members of {} while reading.", file.getName());
+        return new BufferedInputStream(new GZIPMemberInputStream(file, builtIndex -> {
+          try {
+            builtIndex.save(file);
+          } catch (IOException e) {
+            LOGGER.warn("Couldn't store index of {}: {}", file.getName(), e.getMessage());
+          }
+        }));
+      });
+      return openers;
+    }
+
+    List<Pair<Long, Long>> memberSegments = index.split(segments);
+    if (memberSegments.size() == 1) {
+      openers.add(() -> new BufferedInputStream(new GZIPMemberInputStream(file, 0L)));
+      return openers;
+    }
+
+    byte[] prefix = linePrefix.getBytes(StandardCharsets.UTF_8);
+    for (int i = 0; i < memberSegments.size(); i++) {
+      Pair<Long, Long> segment = memberSegments.get(i);
+      boolean skipLeading = i > 0;
+      openers.add(() -> new LineAlignedInputStream(
+          new BufferedInputStream(new GZIPMemberInputStream(file, segment.getLeft())), prefix,
+          segment.getRight(), skipLeading));
+    }
+    return openers;
+  }
+
+  /**
+   * Opens a stream of a segment as returned by
+   * {@link FileHandler#getSegmentStreamOpeners(File, int, String)}.
+   */
+  public interface StreamOpener {
+
+    InputStream open() throws IOException;
+  }
+
+  /**
+   * Creates an input stream reading only the bytes {@code from} (inclusive) to {@code to}
+   * (exclusive) of a file. Closing the stream closes the file.
+   * 
+   * @param file File to read.
+   * @param from Offset of the first byte to read.
+   * @param to Offset after the last byte to read.
+   * @return InputStream reading the range.
+   * @throws IOException Thrown during stream creation.
+   */
+  public static InputStream getRangeStream(File file, long from, long to) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    randomAccessFile.seek(from);
+    return ByteStreams.limit(Channels.newInputStream(randomAccessFile.getChannel()), to - from);
+  }
 }
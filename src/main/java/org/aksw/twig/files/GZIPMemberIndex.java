@@ -0,0 +1,204 @@
+package org.aksw.twig.files;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Index of the members of a gzip file. For every member the compressed offset of its header and
+ * the uncompressed offset of its first byte will be stored. Gzip files with many members, such as
+ * written by {@link ParallelGZIPOutputStream}, can be split at members by {@link #split(int)} and
+ * read by a {@link GZIPMemberInputStream} per segment. Indexes are stored next to their gzip file
+ * in a file with the additional ending {@link #FILE_ENDING} and will only be used as long as the
+ * gzip file has not been modified.<br/>
+ * Deflate streams can't be entered at arbitrary deflate blocks without a bit-level inflater, so a
+ * single-member gzip file can't be split by this index.
+ */
+public final class GZIPMemberIndex {
+
+  private static final Logger LOGGER = LogManager.getLogger(GZIPMemberIndex.class);
+
+  private static final int MAGIC = 0x475a4958;
+
+  private static final int VERSION = 1;
+
+  public static final String FILE_ENDING = ".idx";
+
+  private final long fileLength;
+
+  private final long lastModified;
+
+  private final long[] compressedOffsets;
+
+  private final long[] uncompressedOffsets;
+
+  private final long uncompressedLength;
+
+  /**
+   * Creates a new index of a gzip file.
+   *
+   * @param file Indexed gzip file.
+   * @param compressedOffsets Compressed offset of every member.
+   * @param uncompressedOffsets Uncompressed offset of every member.
+   * @param uncompressedLength Uncompressed length of the whole file.
+   */
+  GZIPMemberIndex(final File file, final List<Long> compressedOffsets,
+      final List<Long> uncompressedOffsets, final long uncompressedLength) {
+    this(file.length(), file.lastModified(),
+        compressedOffsets.stream().mapToLong(Long::longValue).toArray(),
+        uncompressedOffsets.stream().mapToLong(Long::longValue).toArray(), uncompressedLength);
+  }
+
+  private GZIPMemberIndex(final long fileLength, final long lastModified,
+      final long[] compressedOffsets, final long[] uncompressedOffsets,
+      final long uncompressedLength) {
+    this.fileLength = fileLength;
+    this.lastModified = lastModified;
+    this.compressedOffsets = compressedOffsets;
+    this.uncompressedOffsets = uncompressedOffsets;
+    this.uncompressedLength = uncompressedLength;
+  }
+
+  public int getMemberCount() {
+    return compressedOffsets.length;
+  }
+
+  public long getUncompressedLength() {
+    return uncompressedLength;
+  }
+
+  /**
+   * Splits the indexed file at members into at most {@code segments} segments of about the same
+   * uncompressed size. Segments are consecutive and cover the whole file.
+   *
+   * @param segments Number of segments to create at most.
+   * @return Pairs of the compressed offset of the first member (left value) and the uncompressed
+   *         length (right value) of each segment. The length of the last segment is
+   *         {@link Long#MAX_VALUE}.
+   */
+  public List<Pair<Long, Long>> split(final int segments) {
+    final List<Integer> firstMembers = new ArrayList<>(segments);
+    firstMembers.add(0);
+    for (int i = 1; i < segments; i++) {
+      final long target = (uncompressedLength / segments) * i;
+      int member = Arrays.binarySearch(uncompressedOffsets, target);
+      if (member < 0) {
+        member = -member - 1;
+      }
+      // Skip empty members sharing their uncompressed offset.
+      while ((member > 0) && (member < uncompressedOffsets.length)
+          && (uncompressedOffsets[member - 1] == uncompressedOffsets[member])) {
+        member--;
+      }
+
+      if ((member < compressedOffsets.length)
+          && (member > firstMembers.get(firstMembers.size() - 1))) {
+        firstMembers.add(member);
+      }
+    }
+
+    final List<Pair<Long, Long>> split = new ArrayList<>(firstMembers.size());
+    for (int i = 0; i < firstMembers.size(); i++) {
+      final int member = firstMembers.get(i);
+      final long length = i + 1 < firstMembers.size()
+          ? uncompressedOffsets[firstMembers.get(i + 1)] - uncompressedOffsets[member]
+          : Long.MAX_VALUE;
+      split.add(new ImmutablePair<>(compressedOffsets[member], length));
+    }
+    return split;
+  }
+
+  /**
+   * Returns the file an index of given gzip file is stored in.
+   *
+   * @param file Gzip file.
+   * @return Index file.
+   */
+  public static File getIndexFile(final File file) {
+    return new File(file.getPath().concat(FILE_ENDING));
+  }
+
+  /**
+   * Stores the index next to given gzip file. The index file will be replaced atomically if
+   * possible.
+   *
+   * @param file Indexed gzip file.
+   * @throws IOException Thrown if the index can't be written.
+   */
+  public void save(final File file) throws IOException {
+    final File indexFile = getIndexFile(file);
+    final File tmpFile = new File(indexFile.getPath().concat(".tmp"));
+    try (DataOutputStream outputStream =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+      outputStream.writeInt(MAGIC);
+      outputStream.writeInt(VERSION);
+      outputStream.writeLong(fileLength);
+      outputStream.writeLong(lastModified);
+      outputStream.writeLong(uncompressedLength);
+      outputStream.writeInt(compressedOffsets.length);
+      for (int i = 0; i < compressedOffsets.length; i++) {
+        outputStream.writeLong(compressedOffsets[i]);
+        outputStream.writeLong(uncompressedOffsets[i]);
+      }
+    }
+
+    Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Loads the index of given gzip file.
+   *
+   * @param file Indexed gzip file.
+   * @return Index or {@code null} if there is no index or if it is outdated or unreadable.
+   */
+  public static GZIPMemberIndex load(final File file) {
+    final File indexFile = getIndexFile(file);
+    if (!indexFile.isFile()) {
+      return null;
+    }
+
+    try (DataInputStream inputStream =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+      if ((inputStream.readInt() != MAGIC) || (inputStream.readInt() != VERSION)) {
+        return null;
+      }
+
+      final long fileLength = inputStream.readLong();
+      final long lastModified = inputStream.readLong();
+      if ((fileLength != file.length()) || (lastModified != file.lastModified())) {
+        LOGGER.info("Index of {} is outdated.", file.getName());
+        return null;
+      }
+
+      final long uncompressedLength = inputStream.readLong();
+      final int members = inputStream.readInt();
+      final long[] compressedOffsets = new long[members];
+      final long[] uncompressedOffsets = new long[members];
+      for (int i = 0; i < members; i++) {
+        compressedOffsets[i] = inputStream.readLong();
+        uncompressedOffsets[i] = inputStream.readLong();
+      }
+
+      return new GZIPMemberIndex(fileLength, lastModified, compressedOffsets,
+          uncompressedOffsets, uncompressedLength);
+    } catch (final IOException e) {
+      LOGGER.warn("Couldn't read index of {}: {}", file.getName(), e.getMessage());
+      return null;
+    }
+  }
+}
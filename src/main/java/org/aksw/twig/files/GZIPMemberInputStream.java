@@ -0,0 +1,269 @@
+package org.aksw.twig.files;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a gzip file member by member like {@link java.util.zip.GZIPInputStream} but keeps
+ * track of the compressed offset at which every member starts. Reading may start at the offset of
+ * any member, which allows reading a multi-member gzip file from several threads. If reading starts
+ * at the beginning of the file a {@link GZIPMemberIndex} of the whole file will be handed to a
+ * listener once the end of the file has been reached.
+ */
+public class GZIPMemberInputStream extends InputStream {
+
+  private static final int GZIP_MAGIC = 0x8b1f;
+
+  private static final int FHCRC = 2;
+  private static final int FEXTRA = 4;
+  private static final int FNAME = 8;
+  private static final int FCOMMENT = 16;
+
+  private final File file;
+
+  private final InputStream inputStream;
+
+  private final byte[] buffer = new byte[64 * 1024];
+
+  /** Compressed offset of {@code buffer[0]}. */
+  private long bufferOffset;
+
+  private int bufferPosition = 0;
+
+  private int bufferLength = 0;
+
+  private final Inflater inflater = new Inflater(true);
+
+  private final CRC32 crc = new CRC32();
+
+  private long uncompressedPosition = 0;
+
+  private long memberUncompressedStart = 0;
+
+  private boolean memberOpen = false;
+
+  private boolean firstMember = true;
+
+  private boolean eof = false;
+
+  private final Consumer<GZIPMemberIndex> indexListener;
+
+  private final List<Long> compressedOffsets;
+
+  private final List<Long> uncompressedOffsets;
+
+  /**
+   * Creates a stream decompressing a gzip file from its first member on.
+   *
+   * @param file File to decompress.
+   * @param indexListener Listener to hand the index of the file to once it has been read
+   *        completely or {@code null}.
+   * @throws IOException Thrown if the file can't be opened.
+   */
+  public GZIPMemberInputStream(final File file, final Consumer<GZIPMemberIndex> indexListener)
+      throws IOException {
+    this(file, 0, indexListener);
+  }
+
+  /**
+   * Creates a stream decompressing a gzip file from the member starting at given offset on.
+   *
+   * @param file File to decompress.
+   * @param offset Compressed offset of a member as stated by a {@link GZIPMemberIndex}.
+   * @throws IOException Thrown if the file can't be opened.
+   */
+  public GZIPMemberInputStream(final File file, final long offset) throws IOException {
+    this(file, offset, null);
+  }
+
+  private GZIPMemberInputStream(final File file, final long offset,
+      final Consumer<GZIPMemberIndex> indexListener) throws IOException {
+    this.file = file;
+    final FileInputStream fileInputStream = new FileInputStream(file);
+    fileInputStream.getChannel().position(offset);
+    inputStream = fileInputStream;
+    bufferOffset = offset;
+
+    this.indexListener = offset == 0 ? indexListener : null;
+    compressedOffsets = this.indexListener != null ? new ArrayList<>() : null;
+    uncompressedOffsets = this.indexListener != null ? new ArrayList<>() : null;
+  }
+
+  @Override
+  public int read() throws IOException {
+    final byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+
+    while (!eof) {
+      if (!memberOpen && !openMember()) {
+        eof = true;
+        if (indexListener != null) {
+          indexListener.accept(new GZIPMemberIndex(file, compressedOffsets, uncompressedOffsets,
+              uncompressedPosition));
+        }
+        break;
+      }
+
+      if (inflater.needsInput()) {
+        if (bufferPosition == bufferLength && !fillBuffer()) {
+          throw new EOFException("Unexpected end of gzip member");
+        }
+        inflater.setInput(buffer, bufferPosition, bufferLength - bufferPosition);
+        bufferPosition = bufferLength;
+      }
+
+      final int read;
+      try {
+        read = inflater.inflate(b, off, len);
+      } catch (final DataFormatException e) {
+        throw new ZipException(e.getMessage());
+      }
+
+      if (read > 0) {
+        crc.update(b, off, read);
+        uncompressedPosition += read;
+        return read;
+      }
+
+      if (inflater.finished()) {
+        bufferPosition = bufferLength - inflater.getRemaining();
+        closeMember();
+      } else if (inflater.needsDictionary()) {
+        throw new ZipException("Unexpected preset dictionary in gzip member");
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Reads the header of the next member.
+   *
+   * @return {@code false} if there is no further member.
+   * @throws IOException Thrown if the first member has no valid header.
+   */
+  private boolean openMember() throws IOException {
+    final long memberOffset = bufferOffset + bufferPosition;
+    final int magic = readUByte();
+    if (magic == -1) {
+      return false;
+    }
+
+    if ((magic | (readUByte() << 8)) != GZIP_MAGIC || readUByte() != 8) {
+      if (firstMember) {
+        throw new ZipException("Not in GZIP format");
+      }
+      // Trailing garbage will be ignored like by GZIPInputStream.
+      return false;
+    }
+
+    final int flags = readUByteChecked();
+    skipBytes(6);
+    if ((flags & FEXTRA) == FEXTRA) {
+      skipBytes(readUByteChecked() | (readUByteChecked() << 8));
+    }
+    if ((flags & FNAME) == FNAME) {
+      skipString();
+    }
+    if ((flags & FCOMMENT) == FCOMMENT) {
+      skipString();
+    }
+    if ((flags & FHCRC) == FHCRC) {
+      skipBytes(2);
+    }
+
+    if (compressedOffsets != null) {
+      compressedOffsets.add(memberOffset);
+      uncompressedOffsets.add(uncompressedPosition);
+    }
+
+    inflater.reset();
+    crc.reset();
+    memberUncompressedStart = uncompressedPosition;
+    memberOpen = true;
+    firstMember = false;
+    return true;
+  }
+
+  /**
+   * Reads and checks the trailer of the current member.
+   *
+   * @throws IOException Thrown if the trailer does not match the decompressed data.
+   */
+  private void closeMember() throws IOException {
+    final long expectedCrc = readUInt();
+    final long expectedSize = readUInt();
+    if (expectedCrc != crc.getValue()) {
+      throw new ZipException("Corrupt gzip member: CRC mismatch");
+    }
+    if (expectedSize != ((uncompressedPosition - memberUncompressedStart) & 0xffffffffL)) {
+      throw new ZipException("Corrupt gzip member: size mismatch");
+    }
+    memberOpen = false;
+  }
+
+  private boolean fillBuffer() throws IOException {
+    bufferOffset += bufferLength;
+    bufferPosition = 0;
+    bufferLength = Math.max(inputStream.read(buffer), 0);
+    return bufferLength > 0;
+  }
+
+  private int readUByte() throws IOException {
+    if (bufferPosition == bufferLength && !fillBuffer()) {
+      return -1;
+    }
+    return buffer[bufferPosition++] & 0xff;
+  }
+
+  private int readUByteChecked() throws IOException {
+    final int b = readUByte();
+    if (b == -1) {
+      throw new EOFException("Unexpected end of gzip member");
+    }
+    return b;
+  }
+
+  private long readUInt() throws IOException {
+    long value = 0;
+    for (int i = 0; i < 4; i++) {
+      value |= ((long) readUByteChecked()) << (8 * i);
+    }
+    return value;
+  }
+
+  private void skipBytes(final int n) throws IOException {
+    for (int i = 0; i < n; i++) {
+      readUByteChecked();
+    }
+  }
+
+  private void skipString() throws IOException {
+    while (readUByteChecked() != 0) {
+      // skip until zero termination
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    inflater.end();
+    inputStream.close();
+  }
+}
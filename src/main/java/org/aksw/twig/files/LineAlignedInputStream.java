@@ -0,0 +1,155 @@
+package org.aksw.twig.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * Restricts a stream to the lines of a segment whose bounds are not known to be line-aligned. A
+ * segment of nominal length {@code length} owns all lines starting at an offset {@code p} with
+ * {@code 0 < p <= length}, and the first segment additionally owns the line at offset {@code 0}.
+ * Only lines starting with a given prefix count as line starts, so the stream skips everything
+ * before the first such line of the segment and reads past its nominal end up to the first such
+ * line of the next segment. Consecutive segments therefore cover every line exactly once.
+ */
+class LineAlignedInputStream extends InputStream {
+
+  private static final int PUSHBACK_SIZE = 8192;
+
+  private final PushbackInputStream inputStream;
+
+  private final byte[] linePrefix;
+
+  private final long length;
+
+  private final boolean skipLeading;
+
+  private long position = 0;
+
+  private boolean atLineStart = true;
+
+  private boolean started = false;
+
+  private boolean ended = false;
+
+  /**
+   * Creates a new stream.
+   *
+   * @param inputStream Stream starting at the nominal start of the segment.
+   * @param linePrefix Prefix of lines a segment may start at.
+   * @param length Nominal length of the segment or {@link Long#MAX_VALUE} to read to the end.
+   * @param skipLeading {@code false} if this is the first segment, which starts at offset 0.
+   */
+  LineAlignedInputStream(final InputStream inputStream, final byte[] linePrefix,
+      final long length, final boolean skipLeading) {
+    this.inputStream = new PushbackInputStream(inputStream, PUSHBACK_SIZE);
+    this.linePrefix = linePrefix;
+    this.length = length;
+    this.skipLeading = skipLeading;
+  }
+
+  @Override
+  public int read() throws IOException {
+    final byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, int len) throws IOException {
+    if (!started) {
+      start();
+    }
+    if (len == 0) {
+      return 0;
+    }
+    if (ended || (atLineStart && (position > length) && startsWithPrefix())) {
+      ended = true;
+      return -1;
+    }
+
+    len = Math.min(len, PUSHBACK_SIZE);
+    final int read = inputStream.read(b, off, len);
+    if (read == -1) {
+      ended = true;
+      return -1;
+    }
+
+    // Lines starting after the nominal end must be checked for the prefix before being returned.
+    int returned = read;
+    for (int i = (int) Math.max(0, Math.min(read, length - position)); i < read; i++) {
+      if (b[off + i] == '\n' && (i + 1 < read)) {
+        returned = i + 1;
+        inputStream.unread(b, off + returned, read - returned);
+        break;
+      }
+    }
+
+    position += returned;
+    atLineStart = b[off + returned - 1] == '\n';
+    return returned;
+  }
+
+  /**
+   * Skips all bytes before the first line of the segment.
+   *
+   * @throws IOException Thrown during reading.
+   */
+  private void start() throws IOException {
+    started = true;
+    if (!skipLeading) {
+      return;
+    }
+
+    atLineStart = false;
+    int b;
+    while (true) {
+      if (atLineStart && startsWithPrefix()) {
+        ended = position > length;
+        return;
+      }
+
+      b = inputStream.read();
+      if (b == -1) {
+        ended = true;
+        return;
+      }
+      position++;
+      atLineStart = b == '\n';
+    }
+  }
+
+  /**
+   * Checks whether the next bytes equal the line prefix without consuming them.
+   *
+   * @return {@code true} if the stream continues with the prefix.
+   * @throws IOException Thrown during reading.
+   */
+  private boolean startsWithPrefix() throws IOException {
+    final byte[] peek = new byte[linePrefix.length];
+    int read = 0;
+    while (read < peek.length) {
+      final int n = inputStream.read(peek, read, peek.length - read);
+      if (n == -1) {
+        break;
+      }
+      read += n;
+    }
+    inputStream.unread(peek, 0, read);
+
+    if (read < peek.length) {
+      // The end of the stream never starts a line.
+      return false;
+    }
+    for (int i = 0; i < peek.length; i++) {
+      if (peek[i] != linePrefix[i]) {
+        return false;
+      }
+    }
+    return read > 0 || linePrefix.length == 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    inputStream.close();
+  }
+}
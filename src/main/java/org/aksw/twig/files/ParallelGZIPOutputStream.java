@@ -0,0 +1,218 @@
+package org.aksw.twig.files;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import org.aksw.twig.Const;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Gzip output stream that compresses on several threads. Written bytes are cut into blocks of a
+ * fixed size and every block is compressed into a gzip member of its own on a thread pool. Members
+ * are written into the underlying stream in order, so the result is a multi-member gzip file that
+ * can be read by {@link java.util.zip.GZIPInputStream} and standard tools. At most a bounded number
+ * of blocks will be compressed at once, so memory usage does not depend on the amount of written
+ * data. This class is not thread safe.
+ */
+public class ParallelGZIPOutputStream extends OutputStream {
+
+  private static final class DefaultService {
+
+    private static final ExecutorService SERVICE = Executors.newFixedThreadPool(
+        Const.N_THREADS_GZIP,
+        new ThreadFactoryBuilder().setNameFormat("gzip-%d").setDaemon(true).build());
+  }
+
+  private final OutputStream outputStream;
+
+  private final ExecutorService service;
+
+  private final int blockSize;
+
+  private final int maxPendingBlocks;
+
+  private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+  private byte[] block;
+
+  private int blockLength = 0;
+
+  private boolean written = false;
+
+  private boolean closed = false;
+
+  /**
+   * Creates a new stream compressing blocks of {@link Const#GZIP_BLOCK_SIZE} bytes on a
+   * process-wide pool of {@link Const#N_THREADS_GZIP} threads.
+   *
+   * @param outputStream Stream to write compressed data into.
+   */
+  public ParallelGZIPOutputStream(final OutputStream outputStream) {
+    this(outputStream, DefaultService.SERVICE, Const.GZIP_BLOCK_SIZE, 2 * Const.N_THREADS_GZIP);
+  }
+
+  /**
+   * Creates a new stream.
+   *
+   * @param outputStream Stream to write compressed data into.
+   * @param service Service to compress blocks on. It will not be shut down by {@link #close()}.
+   * @param blockSize Number of uncompressed bytes per gzip member.
+   * @param maxPendingBlocks Number of blocks that may be compressed at once.
+   * @throws IllegalArgumentException Thrown if {@code blockSize} or {@code maxPendingBlocks} is
+   *         less than 1.
+   */
+  public ParallelGZIPOutputStream(final OutputStream outputStream, final ExecutorService service,
+      final int blockSize, final int maxPendingBlocks) throws IllegalArgumentException {
+    if ((blockSize < 1) || (maxPendingBlocks < 1)) {
+      throw new IllegalArgumentException();
+    }
+
+    this.outputStream = outputStream;
+    this.service = service;
+    this.blockSize = blockSize;
+    this.maxPendingBlocks = maxPendingBlocks;
+    block = new byte[blockSize];
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    ensureOpen();
+    block[blockLength++] = (byte) b;
+    if (blockLength == blockSize) {
+      submitBlock();
+    }
+  }
+
+  @Override
+  public void write(final byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      final int copy = Math.min(len, blockSize - blockLength);
+      System.arraycopy(b, off, block, blockLength, copy);
+      blockLength += copy;
+      off += copy;
+      len -= copy;
+      if (blockLength == blockSize) {
+        submitBlock();
+      }
+    }
+  }
+
+  /**
+   * Compresses all bytes written so far, even if the current block is not full, and flushes the
+   * underlying stream.
+   *
+   * @throws IOException Thrown if compression or writing fails.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    if (blockLength > 0) {
+      submitBlock();
+    }
+    while (!pendingBlocks.isEmpty()) {
+      writeNextBlock();
+    }
+    outputStream.flush();
+  }
+
+  /**
+   * Compresses and writes all remaining bytes and closes the underlying stream. If no bytes have
+   * been written at all an empty gzip member will be written, so the result is always a valid gzip
+   * file.
+   *
+   * @throws IOException Thrown if compression or writing fails.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    try {
+      if ((blockLength > 0) || !written) {
+        submitBlock();
+      }
+      while (!pendingBlocks.isEmpty()) {
+        writeNextBlock();
+      }
+    } finally {
+      closed = true;
+      block = null;
+      for (final Future<byte[]> pendingBlock : pendingBlocks) {
+        pendingBlock.cancel(true);
+      }
+      pendingBlocks.clear();
+      outputStream.close();
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  /**
+   * Hands the current block to the service. If too many blocks are pending the oldest one will be
+   * written first.
+   *
+   * @throws IOException Thrown if compression or writing of a pending block fails.
+   */
+  private void submitBlock() throws IOException {
+    while (pendingBlocks.size() >= maxPendingBlocks) {
+      writeNextBlock();
+    }
+
+    final byte[] data = block;
+    final int length = blockLength;
+    pendingBlocks.addLast(service.submit(() -> compress(data, length)));
+    written = true;
+
+    block = new byte[blockSize];
+    blockLength = 0;
+  }
+
+  /**
+   * Waits for the oldest pending block and writes it.
+   *
+   * @throws IOException Thrown if compression or writing fails.
+   */
+  private void writeNextBlock() throws IOException {
+    final Future<byte[]> pendingBlock = pendingBlocks.removeFirst();
+    try {
+      outputStream.write(pendingBlock.get());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (final ExecutionException e) {
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Compresses bytes into a complete gzip member.
+   *
+   * @param data Bytes to compress.
+   * @param length Number of bytes of {@code data} to compress.
+   * @return Gzip member.
+   * @throws IOException Thrown if compression fails.
+   */
+  private static byte[] compress(final byte[] data, final int length) throws IOException {
+    final ByteArrayOutputStream member = new ByteArrayOutputStream((length / 2) + 64);
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(member, 64 * 1024)) {
+      gzipOutputStream.write(data, 0, length);
+    }
+    return member.toByteArray();
+  }
+}
@@ -0,0 +1,116 @@
+package org.aksw.twig.model;
+
+import java.io.File;
+
+import org.aksw.twig.files.FileHandler;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
+
+/**
+ * Serialization formats TWIG models can be written in. All formats can be written as a stream of
+ * triples. N-Triples files can additionally be split at any line to be read in parallel and RDF
+ * Thrift files are the fastest to write and parse.
+ */
+public enum RDFOutputFormat {
+
+  TURTLE("ttl", Lang.TURTLE, RDFFormat.TURTLE_BLOCKS),
+
+  N_TRIPLES("nt", Lang.NTRIPLES, RDFFormat.NTRIPLES),
+
+  RDF_THRIFT("rt", Lang.RDFTHRIFT, RDFFormat.RDF_THRIFT);
+
+  private final String name;
+
+  private final Lang lang;
+
+  private final RDFFormat streamingFormat;
+
+  RDFOutputFormat(final String name, final Lang lang, final RDFFormat streamingFormat) {
+    this.name = name;
+    this.lang = lang;
+    this.streamingFormat = streamingFormat;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the file ending of the format including '.'.
+   *
+   * @return File ending.
+   */
+  public String getFileEnding() {
+    return ".".concat(name);
+  }
+
+  public Lang getLang() {
+    return lang;
+  }
+
+  /**
+   * Returns the format to write the serialization with a
+   * {@link org.apache.jena.riot.system.StreamRDFWriter}.
+   *
+   * @return Streaming format.
+   */
+  public RDFFormat getStreamingFormat() {
+    return streamingFormat;
+  }
+
+  /**
+   * Returns whether every line of a serialization in this format is self-contained, so that files
+   * can be read from any line start on.
+   *
+   * @return {@code true} if files may be split at lines.
+   */
+  public boolean isLineBased() {
+    return this == N_TRIPLES;
+  }
+
+  /**
+   * Returns the format by its name as given by {@link #getName()}.
+   *
+   * @param name Name of the format.
+   * @return Format.
+   * @throws IllegalArgumentException Thrown if there is no format with given name.
+   */
+  public static RDFOutputFormat fromName(final String name) throws IllegalArgumentException {
+    for (final RDFOutputFormat format : values()) {
+      if (format.name.equals(name)) {
+        return format;
+      }
+    }
+
+    throw new IllegalArgumentException("Unknown RDF output format ".concat(name));
+  }
+
+  /**
+   * Returns the format of a file by its file ending. Compression endings as handled by
+   * {@link FileHandler#getDecompressionStreams(File)} will be skipped. Files with an unknown ending
+   * are considered to be turtle.
+   *
+   * @param file File to get the format of.
+   * @return Format.
+   */
+  public static RDFOutputFormat fromFile(final File file) {
+    final String[] split = file.getName().split("\\.");
+    for (int i = split.length - 1; i > 0; i--) {
+      switch (split[i]) {
+        case "gz":
+        case "zip":
+        case "tar":
+          continue;
+        default:
+          for (final RDFOutputFormat format : values()) {
+            if (format.name.equals(split[i])) {
+              return format;
+            }
+          }
+          return TURTLE;
+      }
+    }
+
+    return TURTLE;
+  }
+}
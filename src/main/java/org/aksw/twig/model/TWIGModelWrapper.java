@@ -3,30 +3,46 @@ package org.aksw.twig.model;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Writer;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Random;
+import java.util.List;
 import java.util.Set;
 
+import org.aksw.twig.Const;
 import org.aksw.twig.files.FileHandler;
-import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.system.StreamRDFOps;
+import org.apache.jena.riot.system.StreamRDFWriter;
 import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.tdb.TDBFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
- * Wraps a {@link Model} using TWIG ontology to create RDF-graphs.
+ * Wraps a {@link Model} using TWIG ontology to create RDF-graphs. The model can be held in memory
+ * or be backed by a TDB dataset on disk, see {@link #TWIGModelWrapper(File)}.
  */
 public class TWIGModelWrapper {
 
@@ -52,7 +68,7 @@ public class TWIGModelWrapper {
   private static final String XSD_IRI = "http://www.w3.org/2001/XMLSchema#";
   private static final String XSD_PREF = "xsd";
 
-  private static final PrefixMapping PREFIX_MAPPING = PrefixMapping.Factory.create();
+  static final PrefixMapping PREFIX_MAPPING = PrefixMapping.Factory.create();
 
   static {
     PREFIX_MAPPING.setNsPrefix(FOAF_PREF, FOAF_IRI);
@@ -69,34 +85,35 @@ public class TWIGModelWrapper {
   public static final String TWEET_CONTENT_PROPERTY_NAME = "tweetContent";
 
   // RDF statement parts.
-  private static final Resource TWEET =
+  static final Resource TWEET =
       ResourceFactory.createResource(PREFIX_MAPPING.expandPrefix("twig:Tweet"));
-  private static final Resource ONLINE_TWITTER_ACCOUNT =
+  static final Resource ONLINE_TWITTER_ACCOUNT =
       ResourceFactory.createResource(PREFIX_MAPPING.expandPrefix("twig:OnlineTwitterAccount"));
-  private static final Resource OWL_NAMED_INDIVIDUAL =
+  static final Resource OWL_NAMED_INDIVIDUAL =
       ResourceFactory.createResource(PREFIX_MAPPING.expandPrefix("owl:NamedIndividual"));
-  private static final Property SENDS = ResourceFactory
+  static final Property SENDS = ResourceFactory
       .createProperty(PREFIX_MAPPING.expandPrefix("twig:".concat(SENDS_PROPERTY_NAME)));
-  private static final Property MENTIONS = ResourceFactory
+  static final Property MENTIONS = ResourceFactory
       .createProperty(PREFIX_MAPPING.expandPrefix("twig:".concat(MENTIONS_PROPERTY_NAME)));
-  private static final Property TWEET_TIME = ResourceFactory
+  static final Property TWEET_TIME = ResourceFactory
       .createProperty(PREFIX_MAPPING.expandPrefix("twig:".concat(TWEET_TIME_PROPERTY_NAME)));
-  private static final Property TWEET_CONTENT = ResourceFactory
+  static final Property TWEET_CONTENT = ResourceFactory
       .createProperty(PREFIX_MAPPING.expandPrefix("twig:".concat(TWEET_CONTENT_PROPERTY_NAME)));
-  private static final Property RDF_TYPE =
+  static final Property RDF_TYPE =
       ResourceFactory.createProperty(PREFIX_MAPPING.expandPrefix("rdf:type"));
 
-  private static byte[] randomHashSuffix = new byte[32];
-
-  static {
-    new Random().nextBytes(randomHashSuffix);
-  }
-
-  private MessageDigest MD5;
-
-  /** The wrapped model. */
+  /** The wrapped model. If the wrapper is backed by a dataset this holds the uncommitted batch. */
   private Model model = ModelFactory.createDefaultModel();
 
+  /** The dataset backing the wrapper or {@code null} if the model is held in memory only. */
+  private final Dataset dataset;
+
+  /**
+   * Returns the wrapped model. If the wrapper is backed by a TDB dataset only the statements that
+   * have not been committed yet will be returned.
+   *
+   * @return Model.
+   */
   public Model getModel() {
     return model;
   }
@@ -105,34 +122,137 @@ public class TWIGModelWrapper {
    * Creates a new instance along with a new {@link Model} to wrap.
    */
   public TWIGModelWrapper() {
+    dataset = null;
     model.setNsPrefixes(PREFIX_MAPPING);
+  }
+
+  /**
+   * Creates a new instance backed by a TDB dataset in given directory. Statements will be collected
+   * in memory and committed into the default model of the dataset in batches of
+   * {@link Const#TDB_BATCH_SIZE} statements, so the size of the model is not bounded by the heap.
+   * The dataset can be queried in place once {@link #commit()} has been called and will be
+   * extended if it exists already.
+   *
+   * @param tdbDirectory Directory of the TDB dataset.
+   */
+  public TWIGModelWrapper(final File tdbDirectory) {
+    if (!tdbDirectory.isDirectory() && !tdbDirectory.mkdirs()) {
+      throw new IllegalArgumentException("tdbDirectory is no directory");
+    }
+
+    dataset = TDBFactory.createDataset(tdbDirectory.getPath());
+    model.setNsPrefixes(PREFIX_MAPPING);
+  }
+
+  /**
+   * Returns whether the wrapper is backed by a TDB dataset.
+   *
+   * @return {@code true} if the wrapper is backed by a TDB dataset.
+   */
+  public boolean isTDBBacked() {
+    return dataset != null;
+  }
+
+  /**
+   * Returns the number of statements of the model including committed ones.
+   *
+   * @return Number of statements.
+   */
+  public long size() {
+    if (dataset == null) {
+      return model.size();
+    }
+
+    dataset.begin(ReadWrite.READ);
     try {
-      MD5 = MessageDigest.getInstance("MD5");
-    } catch (final NoSuchAlgorithmException e) {
-      throw new ExceptionInInitializerError();
+      return dataset.getDefaultModel().size() + model.size();
+    } finally {
+      dataset.end();
     }
   }
 
   /**
-   * Adds a tweet to the wrapped {@link Model}.
+   * Adds all statements of another wrapper to this.
+   *
+   * @param other Wrapper to add statements from.
+   */
+  public void add(final TWIGModelWrapper other) {
+    model.add(other.model);
+    commitIfFull();
+  }
+
+  /**
+   * Commits all statements that have been collected in memory into the TDB dataset. Has no effect
+   * if the wrapper is not backed by a TDB dataset.
+   */
+  public void commit() {
+    if ((dataset == null) || model.isEmpty()) {
+      return;
+    }
+
+    LOGGER.info("Committing {} statements.", model.size());
+    dataset.begin(ReadWrite.WRITE);
+    try {
+      final Model storedModel = dataset.getDefaultModel();
+      storedModel.setNsPrefixes(PREFIX_MAPPING);
+      storedModel.add(model);
+      dataset.commit();
+    } finally {
+      dataset.end();
+    }
+
+    model = ModelFactory.createDefaultModel();
+    model.setNsPrefixes(PREFIX_MAPPING);
+  }
+
+  private void commitIfFull() {
+    if ((dataset != null) && (model.size() >= Const.TDB_BATCH_SIZE)) {
+      commit();
+    }
+  }
+
+  /**
+   * Commits all pending statements and closes the TDB dataset. Has no effect if the wrapper is not
+   * backed by a TDB dataset.
+   */
+  public void close() {
+    if (dataset != null) {
+      commit();
+      dataset.close();
+    }
+  }
+
+  /**
+   * Adds a tweet to the wrapped {@link Model}. Account names will be anonymized and mentions in the
+   * content will be replaced by their anonymized names. The mention offsets of the tweet will be
+   * used if present.
+   *
+   * @param tweet Tweet to add.
+   * @param seed Seed to create the tweet IRI with.
+   */
+  public void addTweet(final Tweet tweet, final long seed) {
+    final Set<String> anonymizedMentions = new HashSet<>();
+    for (final String mention : tweet.getMentions()) {
+      anonymizedMentions.add(TwitterAccountAnonymizer.anonymize(mention));
+    }
+
+    addTweetNoAnonymization(TwitterAccountAnonymizer.anonymize(tweet.getAccountName()),
+        TwitterAccountAnonymizer.anonymizeContent(tweet.getContent(), tweet.getMentions(),
+            tweet.getMentionOffsets()),
+        tweet.getTime(), anonymizedMentions, seed);
+  }
+
+  /**
+   * Adds a tweet to the wrapped {@link Model}. See {@link #addTweet(Tweet, long)}.
    *
    * @param accountName Name of the tweeting account.
    * @param tweetContent Content of the tweet.
    * @param tweetTime Time of the tweet.
-   * @param mentions All mentioned account names of the tweet.
+   * @param mentions All mentioned account names of the tweet ordered by their occurrence.
    */
   public void addTweet(final String accountName, final String tweetContent,
       final LocalDateTime tweetTime, final Collection<String> mentions, final long seed) {
-    final Set<String> anonymizedMentions = new HashSet<>();
-    String anonymizedTweetContent = tweetContent;
-    for (final String mention : mentions) {
-      final String anonymizedMention = anonymizeTwitterAccount(mention);
-      anonymizedMentions.add(anonymizedMention);
-      anonymizedTweetContent = anonymizedTweetContent.replaceAll(mention, anonymizedMention);
-    }
-
-    addTweetNoAnonymization(anonymizeTwitterAccount(accountName), anonymizedTweetContent, tweetTime,
-        anonymizedMentions, seed);
+    addTweet(new Tweet(accountName, tweetContent, tweetTime, new ArrayList<>(mentions)), seed);
   }
 
   /**
@@ -157,6 +277,7 @@ public class TWIGModelWrapper {
     twitterAccount.addProperty(SENDS, tweet);
 
     mentions.forEach(mention -> tweet.addProperty(MENTIONS, getTwitterAccount(mention)));
+    commitIfFull();
   }
 
   /**
@@ -170,32 +291,13 @@ public class TWIGModelWrapper {
         .addProperty(RDF_TYPE, OWL_NAMED_INDIVIDUAL).addProperty(RDF_TYPE, ONLINE_TWITTER_ACCOUNT);
   }
 
-  /**
-   * Replaces a twitter account with a unique but non deterministic twitterUser_X.
-   *
-   * @param twitterAccountName User account name.
-   * @return Anonymized name.
-   */
-  private String anonymizeTwitterAccount(final String twitterAccountName) {
-    MD5.update(twitterAccountName.getBytes());
-    MD5.update(randomHashSuffix);
-    byte[] hash;
-    try {
-      hash = MD5.digest();
-    } catch (final RuntimeException e) {
-      LOGGER.error("Exception during anonymizing {}", twitterAccountName);
-      return null;
-    }
-    return Hex.encodeHexString(hash);
-  }
-
   /**
    * Creates the IRI of a twitter account.
    *
    * @param twitterAccountName Name of the account.
    * @return IRI of the twitter account.
    */
-  private String createTwitterAccountIri(final String twitterAccountName) {
+  static String createTwitterAccountIri(final String twitterAccountName) {
     return prefixedIri(twitterAccountName);
   }
 
@@ -206,7 +308,7 @@ public class TWIGModelWrapper {
    * @param messageTime Date and time of the tweet.
    * @return IRI of the tweet.
    */
-  private String createTweetIri(final String twitterAccountName, final LocalDateTime messageTime,
+  static String createTweetIri(final String twitterAccountName, final LocalDateTime messageTime,
       final long seed) {
     final String returnValue = twitterAccountName//
         .concat("_").concat(messageTime.toString().replaceAll(":", "-"))//
@@ -226,17 +328,68 @@ public class TWIGModelWrapper {
 
   /**
    * Writes the model into the given writer and deletes the current one. <b>No</b> other methods
-   * (such as {@link Writer#flush()}) are invoked at the writer.
+   * (such as {@link Writer#flush()}) are invoked at the writer. If the wrapper is backed by a TDB
+   * dataset all statements will be committed and the whole dataset will be written but kept.
    *
    * @param writer Writer to write in.
    */
   public void write(final Writer writer) {
+    if (dataset != null) {
+      commit();
+      dataset.begin(ReadWrite.READ);
+      try {
+        dataset.getDefaultModel().write(writer, LANG);
+      } finally {
+        dataset.end();
+      }
+      return;
+    }
+
     model.write(writer, LANG);
     model = ModelFactory.createDefaultModel();
+    model.setNsPrefixes(PREFIX_MAPPING);
+  }
+
+  /**
+   * Writes the model into the given output stream in given format and deletes the current one.
+   * Turtle will be written as by {@link #write(Writer)}, other formats will be written triple by
+   * triple without analyzing the graph first. The output stream will be flushed but not closed. If
+   * the wrapper is backed by a TDB dataset all statements will be committed and the whole dataset
+   * will be written but kept.
+   *
+   * @param outputStream Stream to write in.
+   * @param format Format to write.
+   */
+  public void write(final OutputStream outputStream, final RDFOutputFormat format) {
+    if (dataset != null) {
+      commit();
+      dataset.begin(ReadWrite.READ);
+      try {
+        write(dataset.getDefaultModel(), outputStream, format);
+      } finally {
+        dataset.end();
+      }
+      return;
+    }
+
+    write(model, outputStream, format);
+    model = ModelFactory.createDefaultModel();
+    model.setNsPrefixes(PREFIX_MAPPING);
+  }
+
+  private static void write(final Model model, final OutputStream outputStream,
+      final RDFOutputFormat format) {
+    if (format == RDFOutputFormat.TURTLE) {
+      model.write(outputStream, LANG);
+    } else {
+      StreamRDFOps.sendGraphToStream(model.getGraph(),
+          StreamRDFWriter.getWriterStream(outputStream, format.getStreamingFormat()));
+    }
   }
 
   /**
-   * Reads a TWIG rdf model from a file.
+   * Reads a TWIG rdf model from a file. The format will be determined by
+   * {@link RDFOutputFormat#fromFile(File)}.
    *
    * @param file File to read from.
    * @return TWIGModelWrapper
@@ -244,9 +397,157 @@ public class TWIGModelWrapper {
    */
   public static TWIGModelWrapper read(final File file) throws IOException {
     final TWIGModelWrapper wrapper = new TWIGModelWrapper();
+    parse(file, StreamRDFLib.graph(wrapper.model.getGraph()));
+    return wrapper;
+  }
+
+  /**
+   * Reads a TWIG rdf model from a byte range of a file as returned by
+   * {@link #split(File, int)}.
+   *
+   * @param file File to read from.
+   * @param from Offset of the first byte to read.
+   * @param to Offset after the last byte to read.
+   * @return TWIGModelWrapper
+   * @throws IOException IO error.
+   * @throws IllegalArgumentException Thrown if the file can't be read in ranges.
+   */
+  public static TWIGModelWrapper read(final File file, final long from, final long to)
+      throws IOException, IllegalArgumentException {
+    final TWIGModelWrapper wrapper = new TWIGModelWrapper();
+    parse(file, from, to, StreamRDFLib.graph(wrapper.model.getGraph()));
+    return wrapper;
+  }
+
+  /**
+   * Splits a TWIG rdf file into at most {@code ranges} line-aligned byte ranges that can be read
+   * independently by {@link #read(File, long, long)} or
+   * {@link #parse(File, long, long, StreamRDF)}. Only uncompressed N-Triples files will be split,
+   * any other file results in one range covering the whole file.
+   *
+   * @param file File to split.
+   * @param ranges Number of ranges to create at most.
+   * @return Pairs of start offset (inclusive, left value) and end offset (exclusive, right value).
+   * @throws IOException IO error.
+   */
+  public static List<Pair<Long, Long>> split(final File file, final int ranges)
+      throws IOException {
+    if ((ranges > 1) && isSplittable(file)) {
+      return FileHandler.splitAtLines(file, ranges, "");
+    }
+
+    return Collections.singletonList(new ImmutablePair<>(0L, file.length()));
+  }
+
+  /**
+   * Splits a TWIG rdf file into at most {@code segments} line-aligned segments that can be parsed
+   * independently by {@link #parse(File, FileHandler.StreamOpener, StreamRDF)}. In contrast to
+   * {@link #split(File, int)} gzip compressed N-Triples files will be split at their members as
+   * stated by {@link FileHandler#getSegmentStreamOpeners(File, int, String)}. Files of other
+   * formats result in one segment covering the whole file.
+   *
+   * @param file File to split.
+   * @param segments Number of segments to create at most.
+   * @return Openers of the segments.
+   * @throws IOException IO error.
+   */
+  public static List<FileHandler.StreamOpener> getSegmentStreamOpeners(final File file,
+      final int segments) throws IOException {
+    if (RDFOutputFormat.fromFile(file).isLineBased()) {
+      return FileHandler.getSegmentStreamOpeners(file, segments, "");
+    }
+
+    return Collections.singletonList(() -> FileHandler.getDecompressionStreams(file));
+  }
+
+  private static boolean isSplittable(final File file) {
+    return !FileHandler.isCompressed(file) && RDFOutputFormat.fromFile(file).isLineBased();
+  }
+
+  /**
+   * Parses a TWIG rdf file and passes all triples to given stream as the parser emits them, i. e.
+   * without building a graph. {@link StreamRDF#start()} and {@link StreamRDF#finish()} will be
+   * called exactly once around parsing. The format will be determined by
+   * {@link RDFOutputFormat#fromFile(File)}.
+   *
+   * @param file File to read from.
+   * @param stream Stream to pass triples to.
+   * @throws IOException IO error.
+   */
+  public static void parse(final File file, final StreamRDF stream) throws IOException {
     try (InputStream inputStream = FileHandler.getDecompressionStreams(file)) {
-      wrapper.model.read(inputStream, null, LANG);
-      return wrapper;
+      parse(inputStream, RDFOutputFormat.fromFile(file).getLang(), stream);
     }
   }
+
+  /**
+   * Same as {@link #parse(File, StreamRDF)} but parses only a byte range of the file as returned by
+   * {@link #split(File, int)}.
+   *
+   * @param file File to read from.
+   * @param from Offset of the first byte to read.
+   * @param to Offset after the last byte to read.
+   * @param stream Stream to pass triples to.
+   * @throws IOException IO error.
+   * @throws IllegalArgumentException Thrown if the file can't be read in ranges.
+   */
+  public static void parse(final File file, final long from, final long to,
+      final StreamRDF stream) throws IOException, IllegalArgumentException {
+    if ((from == 0) && (to == file.length())) {
+      parse(file, stream);
+      return;
+    }
+
+    if (!isSplittable(file)) {
+      throw new IllegalArgumentException(
+          "Only uncompressed N-Triples files can be read in ranges");
+    }
+
+    try (InputStream inputStream = FileHandler.getRangeStream(file, from, to)) {
+      parse(inputStream, Lang.NTRIPLES, stream);
+    }
+  }
+
+  /**
+   * Same as {@link #parse(File, StreamRDF)} but parses only a segment of the file as returned by
+   * {@link #getSegmentStreamOpeners(File, int)}.
+   *
+   * @param file File the segment belongs to.
+   * @param segment Opener of the segment.
+   * @param stream Stream to pass triples to.
+   * @throws IOException IO error.
+   */
+  public static void parse(final File file, final FileHandler.StreamOpener segment,
+      final StreamRDF stream) throws IOException {
+    try (InputStream inputStream = segment.open()) {
+      parse(inputStream, RDFOutputFormat.fromFile(file).getLang(), stream);
+    }
+  }
+
+  private static void parse(final InputStream inputStream, final Lang lang,
+      final StreamRDF stream) {
+    stream.start();
+    RDFDataMgr.parse(new StreamRDFBase() {
+      @Override
+      public void triple(final Triple triple) {
+        stream.triple(triple);
+      }
+
+      @Override
+      public void quad(final Quad quad) {
+        stream.quad(quad);
+      }
+
+      @Override
+      public void base(final String base) {
+        stream.base(base);
+      }
+
+      @Override
+      public void prefix(final String prefix, final String iri) {
+        stream.prefix(prefix, iri);
+      }
+    }, inputStream, lang);
+    stream.finish();
+  }
 }
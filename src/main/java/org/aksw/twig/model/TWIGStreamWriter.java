@@ -0,0 +1,170 @@
+package org.aksw.twig.model;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+
+/**
+ * Writes tweets as TWIG RDF triples into a {@link StreamRDF}. In contrast to
+ * {@link TWIGModelWrapper} no graph will be held in memory: every triple is passed to the stream as
+ * soon as its tweet gets added. Therefore type statements of twitter accounts will be emitted once
+ * per occurrence of the account. This class is not thread safe.
+ */
+public class TWIGStreamWriter implements TweetWriter {
+
+  private static final Node TWEET = NodeFactory.createURI(TWIGModelWrapper.TWEET.getURI());
+  private static final Node ONLINE_TWITTER_ACCOUNT =
+      NodeFactory.createURI(TWIGModelWrapper.ONLINE_TWITTER_ACCOUNT.getURI());
+  private static final Node OWL_NAMED_INDIVIDUAL =
+      NodeFactory.createURI(TWIGModelWrapper.OWL_NAMED_INDIVIDUAL.getURI());
+  private static final Node SENDS = NodeFactory.createURI(TWIGModelWrapper.SENDS.getURI());
+  private static final Node MENTIONS = NodeFactory.createURI(TWIGModelWrapper.MENTIONS.getURI());
+  private static final Node TWEET_TIME =
+      NodeFactory.createURI(TWIGModelWrapper.TWEET_TIME.getURI());
+  private static final Node TWEET_CONTENT =
+      NodeFactory.createURI(TWIGModelWrapper.TWEET_CONTENT.getURI());
+  private static final Node RDF_TYPE = NodeFactory.createURI(TWIGModelWrapper.RDF_TYPE.getURI());
+
+  private final StreamRDF stream;
+
+  private boolean finished = false;
+
+  private long tripleCount = 0;
+
+  /**
+   * Creates a new writer writing turtle into given output stream. The output stream will not be
+   * closed by {@link #finish()}.
+   *
+   * @param outputStream Stream to write into.
+   */
+  public TWIGStreamWriter(final OutputStream outputStream) {
+    this(outputStream, RDFOutputFormat.TURTLE);
+  }
+
+  /**
+   * Creates a new writer writing given format into given output stream. The output stream will not
+   * be closed by {@link #finish()}.
+   *
+   * @param outputStream Stream to write into.
+   * @param format Format to write.
+   */
+  public TWIGStreamWriter(final OutputStream outputStream, final RDFOutputFormat format) {
+    this(StreamRDFWriter.getWriterStream(outputStream, format.getStreamingFormat()));
+  }
+
+  /**
+   * Creates a new writer passing all triples to given stream. {@link StreamRDF#start()} will be
+   * called and TWIG prefixes will be emitted immediately.
+   *
+   * @param stream Stream to pass triples to.
+   */
+  public TWIGStreamWriter(final StreamRDF stream) {
+    this.stream = stream;
+
+    stream.start();
+    TWIGModelWrapper.PREFIX_MAPPING.getNsPrefixMap().forEach(stream::prefix);
+  }
+
+  /**
+   * Returns the number of triples that have been written so far.
+   *
+   * @return Number of triples.
+   */
+  public long getTripleCount() {
+    return tripleCount;
+  }
+
+  /**
+   * Writes a tweet into the stream. Account names will be anonymized as by
+   * {@link TWIGModelWrapper#addTweet(Tweet, long)}.
+   *
+   * @param tweet Tweet to write.
+   * @param seed Seed to create the tweet IRI with.
+   */
+  @Override
+  public void addTweet(final Tweet tweet, final long seed) {
+    final Set<String> anonymizedMentions = new HashSet<>();
+    for (final String mention : tweet.getMentions()) {
+      anonymizedMentions.add(TwitterAccountAnonymizer.anonymize(mention));
+    }
+
+    addTweetNoAnonymization(TwitterAccountAnonymizer.anonymize(tweet.getAccountName()),
+        TwitterAccountAnonymizer.anonymizeContent(tweet.getContent(), tweet.getMentions(),
+            tweet.getMentionOffsets()),
+        tweet.getTime(), anonymizedMentions, seed);
+  }
+
+  /**
+   * Same as {@link #addTweet(Tweet, long)} but with no username anonymization. Useful for already
+   * anonymized data.
+   *
+   * @param accountName Name of the tweeting account.
+   * @param tweetContent Content of the tweet.
+   * @param tweetTime Time of the tweet.
+   * @param mentions All mentioned account names of the tweet.
+   * @param seed Seed to create the tweet IRI with.
+   * @throws IllegalStateException Thrown if the writer has been finished.
+   */
+  public void addTweetNoAnonymization(final String accountName, final String tweetContent,
+      final LocalDateTime tweetTime, final Collection<String> mentions, final long seed)
+      throws IllegalStateException {
+    if (finished) {
+      throw new IllegalStateException();
+    }
+
+    final Node twitterAccount = addTwitterAccount(accountName);
+    final Node tweet =
+        NodeFactory.createURI(TWIGModelWrapper.createTweetIri(accountName, tweetTime, seed));
+
+    triple(new Triple(tweet, RDF_TYPE, OWL_NAMED_INDIVIDUAL));
+    triple(new Triple(tweet, RDF_TYPE, TWEET));
+    triple(new Triple(tweet, TWEET_CONTENT, NodeFactory.createLiteral(tweetContent)));
+    triple(new Triple(tweet, TWEET_TIME,
+        NodeFactory.createLiteral(tweetTime.format(TWIGModelWrapper.DATE_TIME_FORMATTER),
+            XSDDatatype.XSDdateTime))); // TODO: add timezone
+    triple(new Triple(twitterAccount, SENDS, tweet));
+
+    for (final String mention : mentions) {
+      triple(new Triple(tweet, MENTIONS, addTwitterAccount(mention)));
+    }
+  }
+
+  /**
+   * Writes the type statements of a twitter account into the stream.
+   *
+   * @param accountName Name of the twitter account.
+   * @return Node of the twitter account.
+   */
+  private Node addTwitterAccount(final String accountName) {
+    final Node twitterAccount =
+        NodeFactory.createURI(TWIGModelWrapper.createTwitterAccountIri(accountName));
+    triple(new Triple(twitterAccount, RDF_TYPE, OWL_NAMED_INDIVIDUAL));
+    triple(new Triple(twitterAccount, RDF_TYPE, ONLINE_TWITTER_ACCOUNT));
+    return twitterAccount;
+  }
+
+  private void triple(final Triple triple) {
+    stream.triple(triple);
+    tripleCount++;
+  }
+
+  /**
+   * Finishes the stream by calling {@link StreamRDF#finish()}. Subsequent calls have no effect.
+   */
+  @Override
+  public void finish() {
+    if (!finished) {
+      finished = true;
+      stream.finish();
+    }
+  }
+}
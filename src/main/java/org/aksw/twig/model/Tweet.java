@@ -0,0 +1,73 @@
+package org.aksw.twig.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain record of a parsed tweet. Tweets can be added to a {@link TWIGModelWrapper} or streamed
+ * into a {@link TWIGStreamWriter}.
+ */
+public class Tweet {
+
+  private final String accountName;
+
+  private final String content;
+
+  private final LocalDateTime time;
+
+  private final List<String> mentions;
+
+  private final int[] mentionOffsets;
+
+  /**
+   * Creates a new tweet.
+   *
+   * @param accountName Name of the tweeting account.
+   * @param content Content of the tweet.
+   * @param time Time of the tweet.
+   * @param mentions All mentioned account names of the tweet.
+   */
+  public Tweet(final String accountName, final String content, final LocalDateTime time,
+      final List<String> mentions) {
+    this(accountName, content, time, mentions, null);
+  }
+
+  /**
+   * Creates a new tweet along with the positions of its mentions. Offsets allow anonymizing the
+   * content without searching it.
+   *
+   * @param accountName Name of the tweeting account.
+   * @param content Content of the tweet.
+   * @param time Time of the tweet.
+   * @param mentions All mentioned account names of the tweet ordered by their occurrence.
+   * @param mentionOffsets Index of every mentioned account name in the content or {@code null}.
+   */
+  public Tweet(final String accountName, final String content, final LocalDateTime time,
+      final List<String> mentions, final int[] mentionOffsets) {
+    this.accountName = accountName;
+    this.content = content;
+    this.time = time;
+    this.mentions = mentions;
+    this.mentionOffsets = mentionOffsets;
+  }
+
+  public String getAccountName() {
+    return accountName;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public LocalDateTime getTime() {
+    return time;
+  }
+
+  public List<String> getMentions() {
+    return mentions;
+  }
+
+  public int[] getMentionOffsets() {
+    return mentionOffsets;
+  }
+}
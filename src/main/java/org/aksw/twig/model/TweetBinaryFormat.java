@@ -0,0 +1,67 @@
+package org.aksw.twig.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Constants and helpers of the binary tweet format written by {@link TweetBinaryWriter} and read by
+ * {@link TweetBinaryReader}. A file consists of a header followed by records:
+ * <ul>
+ * <li>header: magic number and version as two ints</li>
+ * <li>account record: tag {@link #ACCOUNT_RECORD}, UTF-8 length and bytes of an anonymized account
+ * name. Accounts get ascending ids in order of their records starting with 0.</li>
+ * <li>tweet record: tag {@link #TWEET_RECORD}, account id, epoch seconds (UTC) as long, UTF-8
+ * length and bytes of the anonymized content, mention count and mentioned account ids</li>
+ * </ul>
+ * Lengths, counts and ids are unsigned variable length integers. An account record is always
+ * written before the first tweet record that refers to it.
+ */
+final class TweetBinaryFormat {
+
+  static final int MAGIC = 0x54574942; // TWIB
+
+  static final int VERSION = 1;
+
+  static final byte ACCOUNT_RECORD = 1;
+
+  static final byte TWEET_RECORD = 2;
+
+  /** File ending of uncompressed binary tweet files. */
+  static final String FILE_ENDING = ".twb";
+
+  private TweetBinaryFormat() {}
+
+  /**
+   * Returns whether the file is a binary tweet file by its name, i. e. it ends with
+   * {@link #FILE_ENDING} and optionally a compression file ending.
+   *
+   * @param file File to check.
+   * @return {@code true} if the file is a binary tweet file.
+   */
+  static boolean isBinaryFile(final File file) {
+    final String name = file.getName();
+    return name.endsWith(FILE_ENDING) || name.contains(FILE_ENDING + ".");
+  }
+
+  static void writeVarInt(final DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  static int readVarInt(final DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      final byte b = in.readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable length integer.");
+  }
+}
@@ -0,0 +1,158 @@
+package org.aksw.twig.model;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.aksw.twig.files.FileHandler;
+
+/**
+ * Reads tweets sequentially from the binary format written by {@link TweetBinaryWriter}. Read
+ * tweets contain anonymized account names and content but no mention offsets. This class is not
+ * thread safe.
+ */
+public class TweetBinaryReader implements Closeable {
+
+  private final DataInputStream in;
+
+  private final List<String> accountNames = new ArrayList<>();
+
+  /**
+   * Creates a new reader and checks the header.
+   *
+   * @param inputStream Stream to read from.
+   * @throws IOException Thrown if the stream does not start with a valid header.
+   */
+  public TweetBinaryReader(final InputStream inputStream) throws IOException {
+    in = new DataInputStream(new BufferedInputStream(inputStream));
+    if (in.readInt() != TweetBinaryFormat.MAGIC) {
+      throw new IOException("Not a binary tweet file.");
+    }
+    final int version = in.readInt();
+    if (version != TweetBinaryFormat.VERSION) {
+      throw new IOException("Unsupported binary tweet file version " + version);
+    }
+  }
+
+  /**
+   * Opens a reader to a possibly compressed binary tweet file.
+   *
+   * @param file File to read from.
+   * @return Reader.
+   * @throws IOException Thrown if the file could not be opened or has no valid header.
+   */
+  public static TweetBinaryReader open(final File file) throws IOException {
+    return new TweetBinaryReader(FileHandler.getDecompressionStreams(file));
+  }
+
+  /**
+   * Returns whether the file is a binary tweet file by its name.
+   *
+   * @param file File to check.
+   * @return {@code true} if the file is a binary tweet file.
+   */
+  public static boolean isBinaryFile(final File file) {
+    return TweetBinaryFormat.isBinaryFile(file);
+  }
+
+  /**
+   * Reads the next tweet.
+   *
+   * @return Next tweet or {@code null} if there are no more tweets.
+   * @throws IOException Thrown if the stream could not be read or is malformed.
+   */
+  public Tweet read() throws IOException {
+    while (true) {
+      final int tag = in.read();
+      switch (tag) {
+        case -1:
+          return null;
+        case TweetBinaryFormat.ACCOUNT_RECORD:
+          accountNames.add(readString());
+          break;
+        case TweetBinaryFormat.TWEET_RECORD:
+          return readTweet();
+        default:
+          throw new IOException("Malformed record " + tag);
+      }
+    }
+  }
+
+  private Tweet readTweet() throws IOException {
+    try {
+      final String accountName = accountName(TweetBinaryFormat.readVarInt(in));
+      final LocalDateTime time = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+      final String content = readString();
+
+      final int mentionCount = TweetBinaryFormat.readVarInt(in);
+      final List<String> mentions = new ArrayList<>(mentionCount);
+      for (int i = 0; i < mentionCount; i++) {
+        mentions.add(accountName(TweetBinaryFormat.readVarInt(in)));
+      }
+
+      return new Tweet(accountName, content, time, mentions);
+    } catch (final EOFException e) {
+      throw new IOException("Truncated tweet record.", e);
+    }
+  }
+
+  private String accountName(final int id) throws IOException {
+    if ((id < 0) || (id >= accountNames.size())) {
+      throw new IOException("Unknown account id " + id);
+    }
+    return accountNames.get(id);
+  }
+
+  private String readString() throws IOException {
+    final byte[] bytes = new byte[TweetBinaryFormat.readVarInt(in)];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns a sequential stream of all remaining tweets. {@link IOException} objects during
+   * reading will be wrapped into {@link UncheckedIOException}.
+   *
+   * @return Stream of tweets.
+   */
+  public Stream<Tweet> tweets() {
+    return StreamSupport.stream(new Spliterators.AbstractSpliterator<Tweet>(Long.MAX_VALUE,
+        Spliterator.ORDERED | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(final Consumer<? super Tweet> action) {
+        final Tweet tweet;
+        try {
+          tweet = read();
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+
+        if (tweet == null) {
+          return false;
+        }
+        action.accept(tweet);
+        return true;
+      }
+    }, false);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
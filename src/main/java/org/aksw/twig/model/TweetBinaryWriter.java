@@ -0,0 +1,129 @@
+package org.aksw.twig.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes tweets in the compact binary format described by {@link TweetBinaryFormat}. Account names
+ * are anonymized like in {@link TWIGModelWrapper} and dictionary encoded, so every distinct account
+ * is written once per file. This class is not thread safe.
+ */
+public class TweetBinaryWriter implements TweetWriter {
+
+  private final DataOutputStream out;
+
+  private final Map<String, Integer> accountIds = new HashMap<>();
+
+  private boolean finished = false;
+
+  /**
+   * Creates a new writer and writes the header. The output stream will not be closed by
+   * {@link #finish()}.
+   *
+   * @param outputStream Stream to write into.
+   * @throws IOException Thrown if the header could not be written.
+   */
+  public TweetBinaryWriter(final OutputStream outputStream) throws IOException {
+    out = new DataOutputStream(new BufferedOutputStream(outputStream));
+    out.writeInt(TweetBinaryFormat.MAGIC);
+    out.writeInt(TweetBinaryFormat.VERSION);
+  }
+
+  /**
+   * Returns the file ending of uncompressed binary tweet files.
+   *
+   * @return File ending.
+   */
+  public static String getFileEnding() {
+    return TweetBinaryFormat.FILE_ENDING;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException Thrown if the underlying stream could not be written.
+   * @throws IllegalStateException Thrown if the writer has been finished.
+   */
+  @Override
+  public void addTweet(final Tweet tweet, final long seed)
+      throws UncheckedIOException, IllegalStateException {
+    if (finished) {
+      throw new IllegalStateException();
+    }
+
+    try {
+      final List<String> mentions = tweet.getMentions();
+      final int[] mentionIds = new int[mentions.size()];
+      for (int i = 0; i < mentionIds.length; i++) {
+        mentionIds[i] = accountId(TwitterAccountAnonymizer.anonymize(mentions.get(i)));
+      }
+      final int accountId = accountId(TwitterAccountAnonymizer.anonymize(tweet.getAccountName()));
+      final byte[] content = TwitterAccountAnonymizer
+          .anonymizeContent(tweet.getContent(), mentions, tweet.getMentionOffsets())
+          .getBytes(StandardCharsets.UTF_8);
+
+      out.writeByte(TweetBinaryFormat.TWEET_RECORD);
+      TweetBinaryFormat.writeVarInt(out, accountId);
+      out.writeLong(tweet.getTime().toEpochSecond(ZoneOffset.UTC));
+      TweetBinaryFormat.writeVarInt(out, content.length);
+      out.write(content);
+      TweetBinaryFormat.writeVarInt(out, mentionIds.length);
+      for (final int mentionId : mentionIds) {
+        TweetBinaryFormat.writeVarInt(out, mentionId);
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the id of an anonymized account name. Writes an account record if the account has no
+   * id yet.
+   *
+   * @param accountName Anonymized account name.
+   * @return Id of the account.
+   * @throws IOException Thrown if the account record could not be written.
+   */
+  private int accountId(final String accountName) throws IOException {
+    final Integer id = accountIds.get(accountName);
+    if (id != null) {
+      return id;
+    }
+
+    final byte[] bytes = accountName.getBytes(StandardCharsets.UTF_8);
+    out.writeByte(TweetBinaryFormat.ACCOUNT_RECORD);
+    TweetBinaryFormat.writeVarInt(out, bytes.length);
+    out.write(bytes);
+
+    final int newId = accountIds.size();
+    accountIds.put(accountName, newId);
+    return newId;
+  }
+
+  /**
+   * Flushes all buffered records. Subsequent calls have no effect.
+   *
+   * @throws UncheckedIOException Thrown if the underlying stream could not be flushed.
+   */
+  @Override
+  public void finish() throws UncheckedIOException {
+    if (finished) {
+      return;
+    }
+    finished = true;
+
+    try {
+      out.flush();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package org.aksw.twig.model;
+
+/**
+ * Writes parsed tweets into an output format.
+ */
+public interface TweetWriter {
+
+  /**
+   * Writes a tweet. Account names will be anonymized.
+   *
+   * @param tweet Tweet to write.
+   * @param seed Seed to create tweet identifiers with if the format needs them.
+   */
+  void addTweet(Tweet tweet, long seed);
+
+  /**
+   * Completes the output. No tweets can be added afterwards.
+   */
+  void finish();
+}
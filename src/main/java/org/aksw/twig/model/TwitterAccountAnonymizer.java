@@ -0,0 +1,99 @@
+package org.aksw.twig.model;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Random;
+
+import org.aksw.twig.Const;
+import org.apache.commons.codec.binary.Hex;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Anonymizes twitter accounts by a salted MD5 hash. The salt is random per JVM, so anonymized names
+ * are unique but non deterministic across runs. Anonymized names will be cached in a bounded cache
+ * of {@link Const#ANONYMIZATION_CACHE_SIZE} entries which can be used by many threads.
+ */
+final class TwitterAccountAnonymizer {
+
+  private static final byte[] RANDOM_HASH_SUFFIX = new byte[32];
+
+  static {
+    new Random().nextBytes(RANDOM_HASH_SUFFIX);
+  }
+
+  private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("MD5");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new ExceptionInInitializerError();
+    }
+  });
+
+  private static final LoadingCache<String, String> CACHE = CacheBuilder.newBuilder()
+      .maximumSize(Const.ANONYMIZATION_CACHE_SIZE)
+      .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+      .build(new CacheLoader<String, String>() {
+        @Override
+        public String load(final String twitterAccountName) {
+          final MessageDigest md5 = MD5.get();
+          md5.update(twitterAccountName.getBytes());
+          md5.update(RANDOM_HASH_SUFFIX);
+          return Hex.encodeHexString(md5.digest());
+        }
+      });
+
+  private TwitterAccountAnonymizer() {}
+
+  /**
+   * Replaces a twitter account with a unique but non deterministic name.
+   *
+   * @param twitterAccountName User account name.
+   * @return Anonymized name.
+   */
+  static String anonymize(final String twitterAccountName) {
+    return CACHE.getUnchecked(twitterAccountName);
+  }
+
+  /**
+   * Replaces every mention in a tweet content by its anonymized name in one pass. Mentions must be
+   * ordered by their occurrence in the content. If no offsets are given every mention will be
+   * searched as {@code @mention} after the previous one.
+   *
+   * @param content Content of the tweet.
+   * @param mentions Mentioned account names.
+   * @param mentionOffsets Index of every mentioned account name in the content or {@code null}.
+   * @return Anonymized content.
+   */
+  static String anonymizeContent(final String content, final Collection<String> mentions,
+      final int[] mentionOffsets) {
+    if (mentions.isEmpty()) {
+      return content;
+    }
+
+    final StringBuilder builder = new StringBuilder(content.length() + (mentions.size() * 32));
+    int copied = 0;
+    int i = 0;
+    for (final String mention : mentions) {
+      final int offset;
+      if (mentionOffsets != null) {
+        offset = mentionOffsets[i++];
+      } else {
+        final int at = content.indexOf('@' + mention, copied);
+        offset = at == -1 ? -1 : at + 1;
+      }
+
+      if (offset < copied) {
+        continue;
+      }
+
+      builder.append(content, copied, offset).append(anonymize(mention));
+      copied = offset + mention.length();
+    }
+    builder.append(content, copied, content.length());
+    return builder.toString();
+  }
+}
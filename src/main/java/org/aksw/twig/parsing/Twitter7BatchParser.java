@@ -0,0 +1,36 @@
+package org.aksw.twig.parsing;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.aksw.twig.Const;
+import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.Tweet;
+import org.apache.commons.lang3.tuple.Triple;
+
+/**
+ * Parses a batch of twitter7 block triples into one {@link TWIGModelWrapper}. Blocks are parsed as
+ * by {@link Twitter7TweetParser}, malformed blocks will be skipped.
+ */
+class Twitter7BatchParser implements Callable<TWIGModelWrapper> {
+
+  private final List<Triple<String, String, String>> twitter7Triples;
+
+  /**
+   * Creates a new parser for given triples. Every triple must contain twitter7 data for one block.
+   *
+   * @param twitter7Triples Triples to parse.
+   */
+  Twitter7BatchParser(final List<Triple<String, String, String>> twitter7Triples) {
+    this.twitter7Triples = twitter7Triples;
+  }
+
+  @Override
+  public TWIGModelWrapper call() {
+    final TWIGModelWrapper model = new TWIGModelWrapper();
+    for (final Tweet tweet : new Twitter7TweetParser(twitter7Triples).call()) {
+      model.addTweet(tweet, Const.seed);
+    }
+    return model;
+  }
+}
@@ -5,15 +5,18 @@ import java.net.URL;
 import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.aksw.twig.Const;
 import org.aksw.twig.model.TWIGModelWrapper;
+import org.aksw.twig.model.Tweet;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -73,6 +76,9 @@ class Twitter7BlockParser implements Callable<TWIGModelWrapper> {
   /** Parsed '@' twitter username mentions from message content. */
   private final Collection<String> mentions = new LinkedList<>();
 
+  /** Index of every parsed mention in the message content. */
+  private final List<Integer> mentionOffsets = new ArrayList<>();
+
   /**
    * Getter to parsed message content.
    *
@@ -95,6 +101,19 @@ class Twitter7BlockParser implements Callable<TWIGModelWrapper> {
 
   @Override
   public TWIGModelWrapper call() throws Twitter7BlockParseException {
+    parse();
+
+    final TWIGModelWrapper model = new TWIGModelWrapper();
+    addTo(model);
+    return model;
+  }
+
+  /**
+   * Parses the twitter7 block. Parsing results can be queried by the getters afterwards.
+   *
+   * @throws Twitter7BlockParseException Thrown if the block is malformed.
+   */
+  void parse() throws Twitter7BlockParseException {
 
     // Parse date and time
     try {
@@ -125,10 +144,26 @@ class Twitter7BlockParser implements Callable<TWIGModelWrapper> {
     final Matcher mentionsMatcher = MENTIONS_PATTERN.matcher(messageContent);
     while (mentionsMatcher.find()) {
       mentions.add(mentionsMatcher.group(1));
+      mentionOffsets.add(mentionsMatcher.start(1));
     }
+  }
 
-    final TWIGModelWrapper model = new TWIGModelWrapper();
-    model.addTweet(twitterUserName, messageContent, messageDateTime, mentions, Const.seed);
-    return model;
+  /**
+   * Adds the parsed tweet to given model. {@link #parse()} must have been invoked before.
+   *
+   * @param model Model to add the tweet to.
+   */
+  void addTo(final TWIGModelWrapper model) {
+    model.addTweet(toTweet(), Const.seed);
+  }
+
+  /**
+   * Creates a record of the parsed tweet. {@link #parse()} must have been invoked before.
+   *
+   * @return Parsed tweet.
+   */
+  Tweet toTweet() {
+    return new Tweet(twitterUserName, messageContent, messageDateTime, new ArrayList<>(mentions),
+        mentionOffsets.stream().mapToInt(Integer::intValue).toArray());
   }
 }
@@ -0,0 +1,179 @@
+package org.aksw.twig.parsing;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.tuple.MutableTriple;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Assembles twitter7 blocks from lines of twitter7 data. Each block must be formatted by following
+ * regex:<br/>
+ * <ul>
+ * <li>{T .*[\n]+ U .*[\n]+ W .*[\n]}+}*</li>
+ * </ul>
+ * Blocks that do not match this criteria will be skipped. This class is not thread safe.
+ *
+ * @author Felix Linker
+ */
+class Twitter7BlockReader {
+
+  private static final Logger LOGGER = LogManager.getLogger(Twitter7BlockReader.class);
+
+  /**
+   * Source of lines to assemble blocks of. Like {@link java.io.BufferedReader#readLine()} it must
+   * return {@code null} once there are no more lines.
+   */
+  interface LineReader {
+
+    String readLine() throws IOException;
+  }
+
+  private final LineReader lineReader;
+
+  /**
+   * Creates a new block reader reading lines from given source.
+   *
+   * @param lineReader Source of lines.
+   */
+  Twitter7BlockReader(final LineReader lineReader) {
+    this.lineReader = lineReader;
+  }
+
+  /**
+   * Reads the next block of twitter7 data. Malformed blocks will be skipped.
+   *
+   * @return Triple of T, U and W line without their prefixes or {@code null} if there are no more
+   *         blocks.
+   * @throws IOException Thrown by the line source.
+   */
+  Triple<String, String, String> readBlock() throws IOException {
+
+    recursion: while (true) {
+      final MutableTriple<String, String, String> triple = new MutableTriple<>();
+      READ_STATE readState = START_STATE;
+      while (!readingFinished(readState)) {
+
+        // Skip empty lines
+        String line;
+        while (((line = lineReader.readLine()) != null) && line.isEmpty()) {
+          ;
+        }
+        if (line == null) {
+          return null;
+        }
+
+        final String linePrefix = lineIdentifier(readState);
+        if (line.startsWith(linePrefix)) {
+          triplePutLine(readState, triple).accept(line.substring(linePrefix.length()));
+          readState = nextState(readState);
+        } else {
+          LOGGER.error("Encountered malformed block in twitter7 data.");
+          // Skip non-empty lines
+          while (((line = lineReader.readLine()) != null) && !line.isEmpty()) {
+            ;
+          }
+          if (line == null) {
+            return null;
+          }
+
+          continue recursion; // "recursive" call
+        }
+      }
+
+      return triple;
+    }
+  }
+
+  /**
+   * All states during one invoke of {@link #readingFinished(READ_STATE)}.
+   */
+  private enum READ_STATE {
+    READ_T, READ_U, READ_W, READ_FINISHED
+  }
+
+  /**
+   * Start state of {@link #readingFinished(READ_STATE)}.
+   */
+  private static final READ_STATE START_STATE = READ_STATE.READ_T;
+
+  /**
+   * Returns whether the given state is the finishing one.
+   *
+   * @param state State to check.
+   * @return True if parsing can be finished.
+   */
+  private boolean readingFinished(final READ_STATE state) {
+    switch (state) {
+      case READ_FINISHED:
+        return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the next state.
+   *
+   * @param oldState Current state to get the next for.
+   * @return Next state.
+   * @throws IllegalStateException Thrown if {@code oldState} state has no next state.
+   */
+  private READ_STATE nextState(final READ_STATE oldState) throws IllegalStateException {
+    switch (oldState) {
+      case READ_T:
+        return READ_STATE.READ_U;
+      case READ_U:
+        return READ_STATE.READ_W;
+      case READ_W:
+        return READ_STATE.READ_FINISHED;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * Twitter7 data has lines starting with different prefixes. This method returns the line start
+   * for given state.
+   *
+   * @param state State to get prefix for.
+   * @return Prefix.
+   * @throws IllegalStateException Thrown if {@code state} is finishing state.
+   */
+  private String lineIdentifier(final READ_STATE state) throws IllegalStateException {
+    switch (state) {
+      case READ_T:
+        return "T";
+      case READ_U:
+        return "U";
+      case READ_W:
+        return "W";
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * Returns consumer to a line. This consumer will set the line to the right triple element.
+   *
+   * @param state State to get the consumer for.
+   * @param triple Triple to store the consumed result in.
+   * @return Consumer that stores a line in the triple.
+   * @throws IllegalStateException Thrown if {@code state} is finishing state.
+   */
+  private Consumer<String> triplePutLine(final READ_STATE state,
+      final MutableTriple<String, String, String> triple) throws IllegalStateException {
+    switch (state) {
+      case READ_T:
+        return triple::setLeft;
+      case READ_U:
+        return triple::setMiddle;
+      case READ_W:
+        return triple::setRight;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+}
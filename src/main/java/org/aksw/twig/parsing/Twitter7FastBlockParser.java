@@ -0,0 +1,316 @@
+package org.aksw.twig.parsing;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.aksw.twig.model.Tweet;
+import org.apache.commons.lang3.tuple.Triple;
+
+/**
+ * Allocation-light alternative to {@link Twitter7BlockParser}. Lines are parsed by their characters
+ * only: the timestamp by its fixed-width {@code yyyy-MM-dd HH:mm:ss} positions, the user name by
+ * slicing the {@code http://twitter.com/} prefix and mentions by a hand-written scan.<br>
+ * <br>
+ * Malformed blocks do not throw exceptions. They will be counted by their
+ * {@link Twitter7BlockParseException.Error} instead, see
+ * {@link #getErrorCount(Twitter7BlockParseException.Error)}. An instance can parse multiple blocks
+ * one after another but is not thread safe.
+ */
+class Twitter7FastBlockParser {
+
+  private static final AtomicLongArray ERROR_COUNTS =
+      new AtomicLongArray(Twitter7BlockParseException.Error.values().length);
+
+  private static final String HTTP_PREFIX = "http://";
+
+  private static final String HTTPS_PREFIX = "https://";
+
+  private static final String TWITTER_AUTHORITY = "twitter.com";
+
+  private static final int DATE_TIME_LENGTH = "yyyy-MM-dd HH:mm:ss".length();
+
+  private static final int MAX_MENTION_LENGTH = 15;
+
+  /** Parsed timestamp form T line. */
+  private LocalDateTime messageDateTime;
+
+  /** Parsed twitter user name from U line. */
+  private String twitterUserName;
+
+  /** Parsed message content from W line. */
+  private String messageContent;
+
+  /** Parsed '@' twitter username mentions from message content. */
+  private final List<String> mentions = new ArrayList<>();
+
+  /** Index of every parsed mention in the message content. */
+  private int[] mentionOffsets = new int[8];
+
+  /**
+   * Getter to parsed timestamp.
+   *
+   * @return Timestamp.
+   */
+  LocalDateTime getMessageDateTime() {
+    return messageDateTime;
+  }
+
+  /**
+   * Getter to parsed twitter username.
+   *
+   * @return Twitter username.
+   */
+  String getTwitterUserName() {
+    return twitterUserName;
+  }
+
+  /**
+   * Getter to parsed message content.
+   *
+   * @return Message content.
+   */
+  String getMessageContent() {
+    return messageContent;
+  }
+
+  /**
+   * Getter to parsed mentions.
+   *
+   * @return Mentioned twitter usernames.
+   */
+  List<String> getMentions() {
+    return mentions;
+  }
+
+  /**
+   * Returns how many blocks have been malformed because of given error since start of the JVM.
+   *
+   * @param error Error to get the count of.
+   * @return Count of malformed blocks.
+   */
+  static long getErrorCount(final Twitter7BlockParseException.Error error) {
+    return ERROR_COUNTS.get(error.ordinal());
+  }
+
+  /**
+   * Parses a twitter7 block triple. See {@link #parse(String, String, String)}.
+   *
+   * @param twitter7Triple Triple to parse.
+   * @return {@code true} if the block was well-formed.
+   */
+  boolean parse(final Triple<String, String, String> twitter7Triple) {
+    return parse(twitter7Triple.getLeft(), twitter7Triple.getMiddle(), twitter7Triple.getRight());
+  }
+
+  /**
+   * Parses the lines of a twitter7 block. Parsing results can be queried by the getters afterwards
+   * if the block was well-formed. Otherwise the error will be counted.
+   *
+   * @param lineT T line of the twitter7 block.
+   * @param lineU U line of the twitter7 block.
+   * @param lineW W line of the twitter7 block.
+   * @return {@code true} if the block was well-formed.
+   */
+  boolean parse(final String lineT, final String lineU, final String lineW) {
+    mentions.clear();
+
+    if (!parseDateTime(lineT)) {
+      return countError(Twitter7BlockParseException.Error.DATETIME_MALFORMED);
+    }
+
+    final Twitter7BlockParseException.Error userNameError = parseUserName(lineU);
+    if (userNameError != null) {
+      return countError(userNameError);
+    }
+
+    messageContent = lineW.trim();
+    parseMentions(messageContent);
+    return true;
+  }
+
+  /**
+   * Creates a record of the parsed tweet. {@link #parse(String, String, String)} must have returned
+   * {@code true} before. The mentions will be copied as the parser reuses them.
+   *
+   * @return Parsed tweet.
+   */
+  Tweet toTweet() {
+    return new Tweet(twitterUserName, messageContent, messageDateTime, new ArrayList<>(mentions),
+        Arrays.copyOf(mentionOffsets, mentions.size()));
+  }
+
+  private static boolean countError(final Twitter7BlockParseException.Error error) {
+    ERROR_COUNTS.incrementAndGet(error.ordinal());
+    return false;
+  }
+
+  /**
+   * Parses a {@code yyyy-MM-dd HH:mm:ss} timestamp surrounded by whitespace.
+   *
+   * @param line Line to parse.
+   * @return {@code true} if the line contained a valid timestamp.
+   */
+  private boolean parseDateTime(final String line) {
+    final int start = trimStart(line);
+    if ((trimEnd(line) - start) != DATE_TIME_LENGTH) {
+      return false;
+    }
+
+    if ((line.charAt(start + 4) != '-') || (line.charAt(start + 7) != '-')
+        || (line.charAt(start + 10) != ' ') || (line.charAt(start + 13) != ':')
+        || (line.charAt(start + 16) != ':')) {
+      return false;
+    }
+
+    final int year = parseDigits(line, start, 4);
+    final int month = parseDigits(line, start + 5, 2);
+    final int day = parseDigits(line, start + 8, 2);
+    final int hour = parseDigits(line, start + 11, 2);
+    final int minute = parseDigits(line, start + 14, 2);
+    final int second = parseDigits(line, start + 17, 2);
+
+    if ((year < 0) || (month < 1) || (month > 12) || (day < 1)
+        || (day > Month.of(month).length(Year.isLeap(year))) || (hour < 0) || (hour > 23)
+        || (minute < 0) || (minute > 59) || (second < 0) || (second > 59)) {
+      return false;
+    }
+
+    messageDateTime = LocalDateTime.of(year, month, day, hour, minute, second);
+    return true;
+  }
+
+  /**
+   * Parses the first path segment of a {@code http://twitter.com/} link surrounded by whitespace.
+   *
+   * @param line Line to parse.
+   * @return {@code null} if a user name has been parsed or the error that occurred.
+   */
+  private Twitter7BlockParseException.Error parseUserName(final String line) {
+    int position = trimStart(line);
+    final int end = trimEnd(line);
+
+    if (line.regionMatches(true, position, HTTP_PREFIX, 0, HTTP_PREFIX.length())) {
+      position += HTTP_PREFIX.length();
+    } else if (line.regionMatches(true, position, HTTPS_PREFIX, 0, HTTPS_PREFIX.length())) {
+      position += HTTPS_PREFIX.length();
+    } else {
+      return Twitter7BlockParseException.Error.URL_MALFORMED;
+    }
+
+    final int authorityEnd = indexOfAny(line, position, end, "/?#");
+    if (((authorityEnd - position) != TWITTER_AUTHORITY.length())
+        || !line.regionMatches(true, position, TWITTER_AUTHORITY, 0, TWITTER_AUTHORITY.length())) {
+      return Twitter7BlockParseException.Error.NO_TWITTER_LINK;
+    }
+
+    // The path ends before query and fragment
+    final int pathEnd = indexOfAny(line, authorityEnd, end, "?#");
+    int nameStart = authorityEnd;
+    while ((nameStart < pathEnd) && (line.charAt(nameStart) == '/')) {
+      nameStart++;
+    }
+    if (nameStart == pathEnd) {
+      return Twitter7BlockParseException.Error.NO_TWITTER_ACCOUNT;
+    }
+
+    twitterUserName = line.substring(nameStart, indexOfAny(line, nameStart, pathEnd, "/"));
+    return null;
+  }
+
+  /**
+   * Adds every {@code @([a-zA-Z0-9_]{1,15})} mention in the content to {@link #mentions}.
+   *
+   * @param content Message content.
+   */
+  private void parseMentions(final String content) {
+    final int length = content.length();
+    for (int i = 0; i < length; i++) {
+      if (content.charAt(i) != '@') {
+        continue;
+      }
+
+      int end = i + 1;
+      while ((end < length) && ((end - i) <= MAX_MENTION_LENGTH)
+          && isMentionChar(content.charAt(end))) {
+        end++;
+      }
+
+      if (end > (i + 1)) {
+        if (mentions.size() == mentionOffsets.length) {
+          mentionOffsets = Arrays.copyOf(mentionOffsets, mentionOffsets.length * 2);
+        }
+        mentionOffsets[mentions.size()] = i + 1;
+        mentions.add(content.substring(i + 1, end));
+        i = end - 1;
+      }
+    }
+  }
+
+  private static boolean isMentionChar(final char c) {
+    return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9'))
+        || (c == '_');
+  }
+
+  /**
+   * Parses a non-negative decimal number of fixed length.
+   *
+   * @param line Line to parse.
+   * @param start Index of the first digit.
+   * @param length Number of digits.
+   * @return Parsed number or {@code -1} if there is a non-digit character.
+   */
+  private static int parseDigits(final String line, final int start, final int length) {
+    int value = 0;
+    for (int i = start; i < (start + length); i++) {
+      final char c = line.charAt(i);
+      if ((c < '0') || (c > '9')) {
+        return -1;
+      }
+      value = (value * 10) + (c - '0');
+    }
+    return value;
+  }
+
+  /**
+   * Returns the index of the first character in {@code [from, to)} that is one of {@code chars}.
+   *
+   * @return Index or {@code to} if there is none.
+   */
+  private static int indexOfAny(final String line, final int from, final int to,
+      final String chars) {
+    for (int i = from; i < to; i++) {
+      if (chars.indexOf(line.charAt(i)) != -1) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  /**
+   * Returns the index of the first character that would not be removed by {@link String#trim()}.
+   */
+  private static int trimStart(final String line) {
+    int start = 0;
+    while ((start < line.length()) && (line.charAt(start) <= ' ')) {
+      start++;
+    }
+    return start;
+  }
+
+  /**
+   * Returns the index after the last character that would not be removed by
+   * {@link String#trim()}.
+   */
+  private static int trimEnd(final String line) {
+    int end = line.length();
+    while ((end > 0) && (line.charAt(end - 1) <= ' ')) {
+      end--;
+    }
+    return end;
+  }
+}
@@ -5,22 +5,23 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import org.aksw.twig.Const;
 import org.aksw.twig.files.FileHandler;
 import org.aksw.twig.model.TWIGModelWrapper;
-import org.apache.commons.lang3.tuple.MutableTriple;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
@@ -41,7 +42,12 @@ import com.google.common.util.concurrent.MoreExecutors;
  * Blocks that do not match this criteria will be skipped. Every matching block will be handed to a
  * {@link Callable} that gets specified in constructor. Every {@link FutureCallback} that has been
  * added by {@link #addFutureCallbacks(FutureCallback[])} will be added as listener to the
- * {@link Callable}.
+ * {@link Callable}. Blocks can also be handed to the {@link Callable} in batches by
+ * {@link #Twitter7Parser(InputStream, Function, int)}.<br/>
+ * Uncompressed and indexed multi-member gzip files can be split into multiple parsers reading in
+ * parallel by {@link #splitFile(File, int, Function)}.<br/>
+ * Parsers of many files can share one process-wide service by
+ * {@link #Twitter7Parser(InputStream, Function, int, ListeningExecutorService)}.
  *
  * @param <T> Data type that will be returned by threaded parsers.
  *
@@ -54,14 +60,21 @@ public class Twitter7Parser<T> implements Runnable {
 
   private static final Logger LOGGER = LogManager.getLogger(Twitter7Parser.class);
 
-  private final Function<Triple<String, String, String>, Callable<T>> resultParserSupplier;
+  /** Start of the first line of a block, at which files can be split. */
+  static final String BLOCK_START = "T\t";
 
-  private final ListeningExecutorService service = MoreExecutors
-      .listeningDecorator(Executors.newFixedThreadPool(Const.N_THREADS_TWITTER7PARSER));
+  private final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier;
+
+  private final int batchSize;
+
+  private final ListeningExecutorService service;
+
+  /** Whether {@link #service} has been created by this parser and must be shut down by it. */
+  private final boolean ownsService;
 
   private final Executor listenerExecutor = MoreExecutors.directExecutor();
 
-  private final Runnable threadTerminatedListener = this::readTwitter7Block;
+  private final Runnable threadTerminatedListener = this::batchParsed;
 
   private final List<FutureCallback<T>> futureCallbacks = new LinkedList<>();
 
@@ -69,6 +82,17 @@ public class Twitter7Parser<T> implements Runnable {
 
   private final BufferedReader fileReader;
 
+  private final Twitter7BlockReader blockReader;
+
+  /** Whether the last block has been read. Guarded by {@link #fileReader}. */
+  private boolean endOfInput = false;
+
+  /** Number of submitted batches that have not been parsed yet. Guarded by {@link #fileReader}. */
+  private int batchesInFlight = 0;
+
+  /** Whether {@link #finish()} has been called. Guarded by {@link #fileReader}. */
+  private boolean finished = false;
+
   private boolean run = false;
 
   /**
@@ -83,11 +107,143 @@ public class Twitter7Parser<T> implements Runnable {
   public Twitter7Parser(final InputStream inputStream,
       final Function<Triple<String, String, String>, Callable<T>> resultParserSupplier)
       throws IOException, NullPointerException {
-    if ((resultParserSupplier == null) || (inputStream == null)) {
+    this(inputStream, batchParserSupplierOf(resultParserSupplier), 1);
+  }
+
+  /**
+   * Initializes a file reader to given file and sets class variables. Blocks will be handed to the
+   * {@code batchParserSupplier} in batches of {@code batchSize} blocks, i. e. every
+   * {@link Callable} parses a whole batch and registered {@link FutureCallback} objects will
+   * receive one result per batch. Only the last batch may be smaller.
+   *
+   * @param inputStream InputStream to read from.
+   * @param batchParserSupplier Function to apply a batch of triples - the twitter7 block reading
+   *        results - to a callable parser.
+   * @param batchSize Number of blocks per batch.
+   * @throws IOException Can be thrown by errors during reader creation.
+   * @throws NullPointerException Thrown if any argument is {@code null}.
+   * @throws IllegalArgumentException Thrown if {@code batchSize} is not positive.
+   */
+  public Twitter7Parser(final InputStream inputStream,
+      final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier,
+      final int batchSize) throws IOException, NullPointerException, IllegalArgumentException {
+    this(inputStream, batchParserSupplier, batchSize, null);
+  }
+
+  /**
+   * Same as {@link #Twitter7Parser(InputStream, Function, int)} but batches will be parsed by given
+   * service. The service can be shared by many parsers and will not be shut down by this parser.
+   * Every parser has at most {@link Const#N_THREADS_TWITTER7PARSER} batches in flight, so parsers
+   * that share a service will be scheduled fairly.
+   *
+   * @param inputStream See original documentation.
+   * @param batchParserSupplier See original documentation.
+   * @param batchSize See original documentation.
+   * @param sharedService Service to parse batches with or {@code null} to create an own one.
+   * @throws IOException See original documentation.
+   * @throws NullPointerException See original documentation.
+   * @throws IllegalArgumentException See original documentation.
+   */
+  public Twitter7Parser(final InputStream inputStream,
+      final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier,
+      final int batchSize, final ListeningExecutorService sharedService)
+      throws IOException, NullPointerException, IllegalArgumentException {
+    if ((batchParserSupplier == null) || (inputStream == null)) {
       throw new NullPointerException();
     }
-    this.resultParserSupplier = resultParserSupplier;
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    this.batchParserSupplier = batchParserSupplier;
+    this.batchSize = batchSize;
     this.fileReader = new BufferedReader(new InputStreamReader(inputStream));
+    this.blockReader = new Twitter7BlockReader(fileReader::readLine);
+    this.ownsService = sharedService == null;
+    this.service = ownsService
+        ? MoreExecutors
+            .listeningDecorator(Executors.newFixedThreadPool(Const.N_THREADS_TWITTER7PARSER))
+        : sharedService;
+  }
+
+  /**
+   * Wraps a parser supplier for single blocks into one for batches of size one.
+   *
+   * @param resultParserSupplier Parser supplier for single blocks.
+   * @return Parser supplier for batches.
+   * @throws NullPointerException Thrown if {@code resultParserSupplier} is {@code null}.
+   */
+  private static <T> Function<List<Triple<String, String, String>>, Callable<T>>
+      batchParserSupplierOf(
+          final Function<Triple<String, String, String>, Callable<T>> resultParserSupplier)
+          throws NullPointerException {
+    if (resultParserSupplier == null) {
+      throw new NullPointerException();
+    }
+    return batch -> resultParserSupplier.apply(batch.get(0));
+  }
+
+  /**
+   * Creates one parser per segment of a file containing twitter7 data. The file will be split into
+   * at most {@code ranges} segments by {@link FileHandler#getSegmentStreams(File, int, String)}
+   * which all start at a {@code T} line, i. e. at the beginning of a twitter7 block. Running all
+   * parsers will read the file in parallel. Uncompressed files can always be split, gzip files only
+   * if they consist of many indexed members.
+   *
+   * @param file File to read from.
+   * @param ranges Maximum number of ranges to split the file into.
+   * @param resultParserSupplier Function to apply a triple - the twitter7 block reading result - to
+   *        a callable parser.
+   * @param <T> Data type that will be returned by threaded parsers.
+   * @return Parsers for all ranges of the file.
+   * @throws IOException Can be thrown by errors during splitting or reader creation.
+   */
+  public static <T> List<Twitter7Parser<T>> splitFile(final File file, final int ranges,
+      final Function<Triple<String, String, String>, Callable<T>> resultParserSupplier)
+      throws IOException {
+    return splitFile(file, ranges, batchParserSupplierOf(resultParserSupplier), 1);
+  }
+
+  /**
+   * Same as {@link #splitFile(File, int, Function)} but parsers will parse blocks in batches as
+   * stated in {@link #Twitter7Parser(InputStream, Function, int)}.
+   *
+   * @param file See original documentation.
+   * @param ranges See original documentation.
+   * @param batchParserSupplier Function to apply a batch of triples to a callable parser.
+   * @param batchSize Number of blocks per batch.
+   * @param <T> Data type that will be returned by threaded parsers.
+   * @return See original documentation.
+   * @throws IOException See original documentation.
+   */
+  public static <T> List<Twitter7Parser<T>> splitFile(final File file, final int ranges,
+      final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier,
+      final int batchSize) throws IOException {
+    return splitFile(file, ranges, batchParserSupplier, batchSize, null);
+  }
+
+  /**
+   * Same as {@link #splitFile(File, int, Function, int)} but all parsers will parse batches by
+   * given service as stated in {@link #Twitter7Parser(InputStream, Function, int,
+   * ListeningExecutorService)}.
+   *
+   * @param file See original documentation.
+   * @param ranges See original documentation.
+   * @param batchParserSupplier See original documentation.
+   * @param batchSize See original documentation.
+   * @param sharedService Service to parse batches with or {@code null} to create one per parser.
+   * @param <T> Data type that will be returned by threaded parsers.
+   * @return See original documentation.
+   * @throws IOException See original documentation.
+   */
+  public static <T> List<Twitter7Parser<T>> splitFile(final File file, final int ranges,
+      final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier,
+      final int batchSize, final ListeningExecutorService sharedService) throws IOException {
+    final List<Twitter7Parser<T>> parsers = new ArrayList<>(ranges);
+    for (final InputStream inputStream : FileHandler.getSegmentStreams(file, ranges, BLOCK_START)) {
+      parsers.add(
+          new Twitter7Parser<>(inputStream, batchParserSupplier, batchSize, sharedService));
+    }
+    return parsers;
   }
 
   /**
@@ -133,161 +289,68 @@ public class Twitter7Parser<T> implements Runnable {
   }
 
   /**
-   * Reads the next block of twitter7 data and hands it to the executor service.
+   * Reads the next batch of twitter7 blocks and hands it to the executor service. The parsing
+   * will be finished once all blocks have been read and all batches have been parsed.
    */
   private void readTwitter7Block() {
     if (service.isShutdown()) {
       return;
     }
 
+    final boolean finishParsing;
     synchronized (fileReader) {
-
-      recursion: while (true) {
-        final MutableTriple<String, String, String> triple = new MutableTriple<>();
-        READ_STATE readState = START_STATE;
+      final List<Triple<String, String, String>> batch = new ArrayList<>(batchSize);
+      while (!endOfInput && (batch.size() < batchSize)) {
+        final Triple<String, String, String> triple;
         try {
-          while (!readingFinished(readState)) {
-
-            // Skip empty lines
-            String line;
-            while (((line = fileReader.readLine()) != null) && line.isEmpty()) {
-              ;
-            }
-            if (line == null) {
-              finish();
-              return;
-            }
-
-            final String linePrefix = lineIdentifier(readState);
-            if (line.startsWith(linePrefix)) {
-              triplePutLine(readState, triple).accept(line.substring(linePrefix.length()));
-              readState = nextState(readState);
-            } else {
-              LOGGER.error("Encountered malformed block in twitter7 data.");
-              // Skip non-empty lines
-              while (((line = fileReader.readLine()) != null) && !line.isEmpty()) {
-                ;
-              }
-              if (line == null) {
-                finish();
-                return;
-              }
-
-              continue recursion; // "recursive" call
-            }
-          }
+          triple = blockReader.readBlock();
         } catch (final IOException e) {
           LOGGER.error(e.getLocalizedMessage(), e);
-          continue; // "recursive" call
+          endOfInput = true;
+          break;
+        }
+
+        if (triple == null) {
+          endOfInput = true;
+          break;
         }
+        batch.add(triple);
+      }
 
-        final ListenableFuture<T> fut = service.submit(resultParserSupplier.apply(triple));
+      if (!batch.isEmpty()) {
+        batchesInFlight++;
+        final ListenableFuture<T> fut = service.submit(batchParserSupplier.apply(batch));
 
         futureCallbacks.forEach(callback -> Futures.addCallback(fut, callback));
         fut.addListener(threadTerminatedListener, listenerExecutor);
-        return;
       }
-    }
-  }
-
-  /**
-   * All states during one invoke of {@link #readingFinished(READ_STATE)}.
-   */
-  private enum READ_STATE {
-    READ_T, READ_U, READ_W, READ_FINISHED
-  }
-
-  /**
-   * Start state of {@link #readingFinished(READ_STATE)}.
-   */
-  private static final READ_STATE START_STATE = READ_STATE.READ_T;
 
-  /**
-   * Returns whether the given state is the finishing one.
-   *
-   * @param state State to check.
-   * @return True if parsing can be finished.
-   */
-  private boolean readingFinished(final READ_STATE state) {
-    switch (state) {
-      case READ_FINISHED:
-        return true;
-    }
-
-    return false;
-  }
-
-  /**
-   * Returns the next state.
-   *
-   * @param oldState Current state to get the next for.
-   * @return Next state.
-   * @throws IllegalStateException Thrown if {@code oldState} state has no next state.
-   */
-  private READ_STATE nextState(final READ_STATE oldState) throws IllegalStateException {
-    switch (oldState) {
-      case READ_T:
-        return READ_STATE.READ_U;
-      case READ_U:
-        return READ_STATE.READ_W;
-      case READ_W:
-        return READ_STATE.READ_FINISHED;
-      default:
-        throw new IllegalStateException();
+      finishParsing = endOfInput && (batchesInFlight == 0) && !finished;
+      if (finishParsing) {
+        finished = true;
+      }
     }
-  }
 
-  /**
-   * Twitter7 data has lines starting with different prefixes. This method returns the line start
-   * for given state.
-   *
-   * @param state State to get prefix for.
-   * @return Prefix.
-   * @throws IllegalStateException Thrown if {@code state} is finishing state.
-   */
-  private String lineIdentifier(final READ_STATE state) throws IllegalStateException {
-    switch (state) {
-      case READ_T:
-        return "T";
-      case READ_U:
-        return "U";
-      case READ_W:
-        return "W";
-      default:
-        throw new IllegalStateException();
+    if (finishParsing) {
+      finish();
     }
   }
 
   /**
-   * Returns consumer to a line. This consumer will set the line to the right triple element.
-   *
-   * @param state State to get the consumer for.
-   * @param triple Triple to store the consumed result in.
-   * @return Consumer that stores a line in the triple.
-   * @throws IllegalStateException Thrown if {@code state} is finishing state.
+   * Called after a batch has been parsed and all callbacks have been notified.
    */
-  private Consumer<String> triplePutLine(final READ_STATE state,
-      final MutableTriple<String, String, String> triple) throws IllegalStateException {
-    switch (state) {
-      case READ_T:
-        return triple::setLeft;
-      case READ_U:
-        return triple::setMiddle;
-      case READ_W:
-        return triple::setRight;
-      default:
-        throw new IllegalStateException();
+  private void batchParsed() {
+    synchronized (fileReader) {
+      batchesInFlight--;
     }
+    readTwitter7Block();
   }
 
   /**
-   * Finishes the reading by closing all streams and notifying listeners.
+   * Finishes the reading by closing all streams and notifying listeners. As every batch has been
+   * parsed there is no need to await termination of the service.
    */
   private void finish() {
-    if (service.isShutdown()) {
-      throw new IllegalStateException();
-    }
-
     // Close file reader
     synchronized (fileReader) {
       try {
@@ -297,21 +360,8 @@ public class Twitter7Parser<T> implements Runnable {
       }
     }
 
-    service.shutdown();
-
-    if (!service.isTerminated()) {
-      try {
-        LOGGER.info("Await termination...");
-        service.awaitTermination(15, TimeUnit.SECONDS);
-        service.shutdownNow();
-
-        if (!service.awaitTermination(1, TimeUnit.MINUTES)) {
-          LOGGER.warn("Service could not terminate.");
-        }
-      } catch (final InterruptedException e) {
-        service.shutdownNow();
-        Thread.currentThread().interrupt();
-      }
+    if (ownsService) {
+      service.shutdown();
     }
 
     LOGGER.info("parsingFinishedListeners ...");
@@ -341,27 +391,43 @@ public class Twitter7Parser<T> implements Runnable {
     final ExecutorService service = Executors.//
         newFixedThreadPool(Const.N_THREADS_TWITTER7PARSER_MAIN);
 
-    InputStream inputStream = null;
-    for (final File file : parsedArgs.getRight()) {
-      LOGGER.info("file: " + file.getName().toString());
+    // One parse pool for all files
+    final ListeningExecutorService parseService = Const.TWITTER7_SHARED_POOL
+        ? MoreExecutors
+            .listeningDecorator(Executors.newFixedThreadPool(Const.N_THREADS_TWITTER7PARSER_SHARED))
+        : null;
 
-      try {
-        LOGGER.info("Decompression ... ");
-        inputStream = FileHandler.getDecompressionStreams(file);
+    // One dataset for all files, as TDB must not be opened twice
+    final TWIGModelWrapper tdbModel = Const.TDB_DIRECTORY.isEmpty() ? null
+        : new TWIGModelWrapper(new File(Const.TDB_DIRECTORY));
 
-        LOGGER.info("Parsing ... ");
-        final Twitter7Parser<TWIGModelWrapper> parser;
-        parser = new Twitter7Parser<>(inputStream, Twitter7BlockParser::new);
-        final Twitter7ResultCollector resultCollector =
-            new Twitter7ResultCollector(removeFileExtention(file.getName()), parsedArgs.getLeft());
+    // Parsers return before their file has been parsed
+    final CountDownLatch unfinishedFiles = new CountDownLatch(parsedArgs.getRight().size());
 
-        parser.addFutureCallbacks(resultCollector);
-        parser.addParsingFinishedResultListeners(resultCollector::writeModel, () -> {
+    for (final File file : parsedArgs.getRight()) {
+      LOGGER.info("file: " + file.getName().toString());
 
-        });
-        service.execute(parser);
+      try {
+        final String fileName = removeFileExtention(file.getName());
+        if (Const.TWITTER7_STREAMING) {
+          final Twitter7StreamCollector streamCollector =
+              new Twitter7StreamCollector(fileName, parsedArgs.getLeft());
+          parseFile(file, service, parseService, Twitter7TweetParser::new, streamCollector, () -> {
+            streamCollector.close();
+            unfinishedFiles.countDown();
+          });
+        } else {
+          final Twitter7ResultCollector resultCollector = tdbModel == null
+              ? new Twitter7ResultCollector(fileName, parsedArgs.getLeft())
+              : new Twitter7ResultCollector(fileName, parsedArgs.getLeft(), tdbModel);
+          parseFile(file, service, parseService, Twitter7BatchParser::new, resultCollector, () -> {
+            resultCollector.writeModel();
+            unfinishedFiles.countDown();
+          });
+        }
       } catch (final IOException e) {
         LOGGER.error(e.getMessage(), e);
+        unfinishedFiles.countDown();
       }
     }
     service.shutdown();
@@ -373,6 +439,91 @@ public class Twitter7Parser<T> implements Runnable {
         LOGGER.error(e.getMessage(), e);
       }
     }
+
+    try {
+      unfinishedFiles.await();
+    } catch (final InterruptedException e) {
+      LOGGER.error(e.getMessage(), e);
+    }
+
+    if (parseService != null) {
+      parseService.shutdown();
+    }
+
+    if (tdbModel != null) {
+      tdbModel.close();
+    }
+
+    if (Const.TWITTER7_FAST_PARSER) {
+      for (final Twitter7BlockParseException.Error error : Twitter7BlockParseException.Error
+          .values()) {
+        LOGGER.info("Malformed blocks {}: {}", error, Twitter7FastBlockParser.getErrorCount(error));
+      }
+    }
+  }
+
+  /**
+   * Parses a file by parsers that will be executed by given service. Files will be split into
+   * {@link Const#N_RANGES_TWITTER7PARSER} segments as far as possible. If
+   * {@link Const#TWITTER7_PIPELINE} is set the file will be parsed by a {@link Twitter7Pipeline}
+   * instead. Batches of {@link Const#TWITTER7_BATCH_SIZE} blocks will be handed to the
+   * {@code batchParserSupplier}.
+   *
+   * @param file File to parse.
+   * @param service Service to execute the parsers with.
+   * @param parseService Service to parse batches with or {@code null} to create one per parser.
+   * @param batchParserSupplier Function to apply a batch of triples to a callable parser.
+   * @param collector Callback to add to every parsing result.
+   * @param finishedListener Listener to call once the whole file has been parsed.
+   * @param <T> Data type that will be returned by threaded parsers.
+   * @throws IOException Can be thrown by errors during splitting or reader creation.
+   */
+  private static <T> void parseFile(final File file, final ExecutorService service,
+      final ListeningExecutorService parseService,
+      final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier,
+      final FutureCallback<T> collector, final Runnable finishedListener) throws IOException {
+    if (Const.TWITTER7_PIPELINE) {
+      final List<InputStream> inputStreams =
+          FileHandler.getSegmentStreams(file, Math.max(1, Const.N_RANGES_TWITTER7PARSER),
+              BLOCK_START);
+
+      LOGGER.info("Parsing {} streams by pipeline ... ", inputStreams.size());
+      final Twitter7Pipeline<T> pipeline = new Twitter7Pipeline<>(inputStreams,
+          batchParserSupplier, Const.TWITTER7_BATCH_SIZE, parseService);
+      pipeline.addFutureCallbacks(collector);
+      pipeline.addParsingFinishedResultListeners(finishedListener);
+      service.execute(pipeline);
+      return;
+    }
+
+    if (Const.N_RANGES_TWITTER7PARSER > 1) {
+      final List<Twitter7Parser<T>> parsers = splitFile(file, Const.N_RANGES_TWITTER7PARSER,
+          batchParserSupplier, Const.TWITTER7_BATCH_SIZE, parseService);
+      LOGGER.info("Parsing {} ranges ... ", parsers.size());
+
+      // Notify the listener once every range has been parsed
+      final AtomicInteger unfinishedParsers = new AtomicInteger(parsers.size());
+      for (final Twitter7Parser<T> parser : parsers) {
+        parser.addFutureCallbacks(collector);
+        parser.addParsingFinishedResultListeners(() -> {
+          if (unfinishedParsers.decrementAndGet() == 0) {
+            finishedListener.run();
+          }
+        });
+        service.execute(parser);
+      }
+      return;
+    }
+
+    LOGGER.info("Decompression ... ");
+    final InputStream inputStream = FileHandler.getDecompressionStreams(file);
+
+    LOGGER.info("Parsing ... ");
+    final Twitter7Parser<T> parser = new Twitter7Parser<>(inputStream, batchParserSupplier,
+        Const.TWITTER7_BATCH_SIZE, parseService);
+    parser.addFutureCallbacks(collector);
+    parser.addParsingFinishedResultListeners(finishedListener);
+    service.execute(parser);
   }
 
   public static String removeFileExtention(String fileName) {
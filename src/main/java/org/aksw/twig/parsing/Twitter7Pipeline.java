@@ -0,0 +1,444 @@
+package org.aksw.twig.parsing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.aksw.twig.Const;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.util.concurrent.FutureCallback;
+
+/**
+ * Parses twitter7 data in explicit stages that are connected by bounded queues:
+ * <ol>
+ * <li>read: Decompresses and reads the input streams. Lines will be grouped into chunks that
+ * contain whole twitter7 blocks only.</li>
+ * <li>assembly: Assembles blocks of the chunks as by {@link Twitter7BlockReader} and groups them
+ * into batches.</li>
+ * <li>parse: Hands every batch to a {@link Callable} as supplied in the constructor and calls
+ * it.</li>
+ * <li>collect: Hands every parsing result to the {@link FutureCallback} objects that have been
+ * added by {@link #addFutureCallbacks(FutureCallback[])}.</li>
+ * </ol>
+ * Every stage runs on its own threads. A stage blocks if the queue to its successor is full, so the
+ * amount of data in flight is bounded by the queue depths. In contrast to {@link Twitter7Parser}
+ * reading never happens on threads that parse and both can overlap. If a shared parse service is
+ * given, the parse stage only hands batches to it on a single thread and the collect stage awaits
+ * their results, so pipelines of many files don't start a parse pool each.<br/>
+ * <br/>
+ * {@link #run()} returns after every result has been collected and every listener that has been
+ * added by {@link #addParsingFinishedResultListeners(Runnable...)} has been called. If a worker of
+ * any stage fails, all stages will be stopped and the failure will be handed to the callbacks'
+ * {@link FutureCallback#onFailure(Throwable)} before the listeners are called.
+ *
+ * @param <T> Data type that will be returned by the parsers.
+ */
+class Twitter7Pipeline<T> implements Runnable {
+
+  private static final Logger LOGGER = LogManager.getLogger(Twitter7Pipeline.class);
+
+  /** Marks the end of the line chunk queue. */
+  private final List<String> endOfChunks = new ArrayList<>(0);
+
+  /** Marks the end of the batch queue. */
+  private final List<Triple<String, String, String>> endOfBatches = new ArrayList<>(0);
+
+  private final Queue<InputStream> inputStreams;
+
+  private final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier;
+
+  private final int batchSize;
+
+  private final int chunkLines;
+
+  private final int readThreads;
+
+  private final int assemblyThreads;
+
+  private final int parseThreads;
+
+  private final int collectThreads;
+
+  private final BlockingQueue<List<String>> chunkQueue;
+
+  private final BlockingQueue<List<Triple<String, String, String>>> batchQueue;
+
+  private final BlockingQueue<Optional<Future<T>>> resultQueue;
+
+  /** Service to parse batches with or {@code null} to parse on the threads of the parse stage. */
+  private final ExecutorService parseService;
+
+  private final List<FutureCallback<T>> futureCallbacks = new LinkedList<>();
+
+  private final List<Runnable> parsingFinishedListeners = new LinkedList<>();
+
+  private final List<ExecutorService> stages = new CopyOnWriteArrayList<>();
+
+  /** First failure of any stage worker. */
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  private boolean run = false;
+
+  /**
+   * Creates a new pipeline with stage sizes as configured in {@link Const}.
+   *
+   * @param inputStreams Streams to read from. Every stream must start with a twitter7 block.
+   * @param batchParserSupplier Function to apply a batch of triples - the twitter7 block reading
+   *        results - to a callable parser.
+   * @param batchSize Number of blocks per batch.
+   * @param parseService Service to parse batches with or {@code null} to start a parse stage of
+   *        {@link Const#PIPELINE_PARSE_THREADS} threads. The service can be shared by many
+   *        pipelines and will not be shut down by this pipeline.
+   * @throws NullPointerException Thrown if {@code inputStreams} or {@code batchParserSupplier} is
+   *         {@code null}.
+   * @throws IllegalArgumentException Thrown if {@code batchSize} is not positive.
+   */
+  Twitter7Pipeline(final List<InputStream> inputStreams,
+      final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier,
+      final int batchSize, final ExecutorService parseService)
+      throws NullPointerException, IllegalArgumentException {
+    this(inputStreams, batchParserSupplier, batchSize, Const.PIPELINE_CHUNK_LINES,
+        Const.PIPELINE_QUEUE_DEPTH, Const.PIPELINE_READ_THREADS, Const.PIPELINE_ASSEMBLY_THREADS,
+        Const.PIPELINE_PARSE_THREADS, Const.PIPELINE_COLLECT_THREADS, parseService);
+  }
+
+  /**
+   * Creates a new pipeline.
+   *
+   * @param inputStreams Streams to read from. Every stream must start with a twitter7 block.
+   * @param batchParserSupplier Function to apply a batch of triples - the twitter7 block reading
+   *        results - to a callable parser.
+   * @param batchSize Number of blocks per batch.
+   * @param chunkLines Minimum number of lines per chunk handed from read to assembly stage.
+   * @param queueDepth Capacity of every queue between two stages.
+   * @param readThreads Number of threads of the read stage.
+   * @param assemblyThreads Number of threads of the assembly stage.
+   * @param parseThreads Number of threads of the parse stage.
+   * @param collectThreads Number of threads of the collect stage.
+   * @throws NullPointerException Thrown if any argument is {@code null}.
+   * @throws IllegalArgumentException Thrown if any number is not positive.
+   */
+  Twitter7Pipeline(final List<InputStream> inputStreams,
+      final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier,
+      final int batchSize, final int chunkLines, final int queueDepth, final int readThreads,
+      final int assemblyThreads, final int parseThreads, final int collectThreads)
+      throws NullPointerException, IllegalArgumentException {
+    this(inputStreams, batchParserSupplier, batchSize, chunkLines, queueDepth, readThreads,
+        assemblyThreads, parseThreads, collectThreads, null);
+  }
+
+  /**
+   * Same as
+   * {@link #Twitter7Pipeline(List, Function, int, int, int, int, int, int, int)} but batches will
+   * be parsed by given service if it is not {@code null}. The parse stage then runs on a single
+   * thread and {@code parseThreads} will be ignored. At most {@code queueDepth} batches are in
+   * flight on the service, so pipelines that share a service will be scheduled fairly.
+   *
+   * @param inputStreams See original documentation.
+   * @param batchParserSupplier See original documentation.
+   * @param batchSize See original documentation.
+   * @param chunkLines See original documentation.
+   * @param queueDepth See original documentation.
+   * @param readThreads See original documentation.
+   * @param assemblyThreads See original documentation.
+   * @param parseThreads See original documentation.
+   * @param collectThreads See original documentation.
+   * @param parseService Service to parse batches with or {@code null} to start an own parse stage.
+   * @throws NullPointerException Thrown if {@code inputStreams} or {@code batchParserSupplier} is
+   *         {@code null}.
+   * @throws IllegalArgumentException See original documentation.
+   */
+  Twitter7Pipeline(final List<InputStream> inputStreams,
+      final Function<List<Triple<String, String, String>>, Callable<T>> batchParserSupplier,
+      final int batchSize, final int chunkLines, final int queueDepth, final int readThreads,
+      final int assemblyThreads, final int parseThreads, final int collectThreads,
+      final ExecutorService parseService) throws NullPointerException, IllegalArgumentException {
+    if ((inputStreams == null) || (batchParserSupplier == null)) {
+      throw new NullPointerException();
+    }
+    if ((batchSize < 1) || (chunkLines < 1) || (queueDepth < 1) || (readThreads < 1)
+        || (assemblyThreads < 1) || (parseThreads < 1) || (collectThreads < 1)) {
+      throw new IllegalArgumentException("Pipeline sizes must be positive");
+    }
+
+    this.inputStreams = new ConcurrentLinkedQueue<>(inputStreams);
+    this.batchParserSupplier = batchParserSupplier;
+    this.batchSize = batchSize;
+    this.chunkLines = chunkLines;
+    this.readThreads = readThreads;
+    this.assemblyThreads = assemblyThreads;
+    this.parseThreads = parseService == null ? parseThreads : 1;
+    this.collectThreads = collectThreads;
+    chunkQueue = new ArrayBlockingQueue<>(queueDepth);
+    batchQueue = new ArrayBlockingQueue<>(queueDepth);
+    resultQueue = new ArrayBlockingQueue<>(queueDepth);
+    this.parseService = parseService;
+  }
+
+  /**
+   * Adds callbacks to the pipeline. Each {@link FutureCallback} will be called with every parsing
+   * result by the collect stage.
+   *
+   * @param callbacks Callbacks to add.
+   */
+  public void addFutureCallbacks(final FutureCallback<T>... callbacks) {
+    Collections.addAll(futureCallbacks, callbacks);
+  }
+
+  /**
+   * Each listener will be called after every result has been collected.
+   *
+   * @param listeners Listener to call.
+   */
+  public void addParsingFinishedResultListeners(final Runnable... listeners) {
+    Collections.addAll(parsingFinishedListeners, listeners);
+  }
+
+  /**
+   * Starts all stages and waits for them to finish.
+   *
+   * @throws IllegalStateException Thrown if the pipeline gets started twice.
+   */
+  @Override
+  public void run() {
+    if (run) {
+      throw new IllegalStateException();
+    }
+    run = true;
+
+    LOGGER.info("Started parsing {} streams", inputStreams.size());
+
+    stages.add(startStage(readThreads, this::read,
+        () -> putAll(chunkQueue, endOfChunks, assemblyThreads)));
+    stages.add(startStage(assemblyThreads, this::assemble,
+        () -> putAll(batchQueue, endOfBatches, parseThreads)));
+    stages.add(startStage(parseThreads, this::parse,
+        () -> putAll(resultQueue, Optional.empty(), collectThreads)));
+    stages.add(startStage(collectThreads, this::collect, () -> {
+    }));
+    if (failure.get() != null) {
+      // A worker failed before every stage had been started
+      abort();
+    }
+
+    try {
+      for (final ExecutorService stage : stages) {
+        stage.shutdown();
+        while (!stage.awaitTermination(5, TimeUnit.SECONDS)) {
+          ;
+        }
+      }
+    } catch (final InterruptedException e) {
+      abort();
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    final Throwable t = failure.get();
+    if (t != null) {
+      futureCallbacks.forEach(callback -> callback.onFailure(t));
+    }
+    parsingFinishedListeners.forEach(Runnable::run);
+
+    LOGGER.info("Ended parsing streams");
+  }
+
+  /**
+   * A worker of a stage. Workers return once their input queue has been drained.
+   */
+  private interface StageWorker {
+
+    void work() throws InterruptedException;
+  }
+
+  /**
+   * Starts a stage on a new thread pool. If a worker fails, the whole pipeline will be aborted,
+   * because its stage would stop draining its input queue and upstream stages would block forever.
+   *
+   * @param threads Number of workers of the stage.
+   * @param worker Worker to run on every thread.
+   * @param stageFinished Called by the last worker that finishes. Must tell the next stage that
+   *        there will be no more input.
+   * @return Thread pool of the stage.
+   */
+  private ExecutorService startStage(final int threads, final StageWorker worker,
+      final StageWorker stageFinished) {
+    final ExecutorService stage = Executors.newFixedThreadPool(threads);
+    final AtomicInteger runningWorkers = new AtomicInteger(threads);
+    for (int i = 0; i < threads; i++) {
+      stage.execute(() -> {
+        try {
+          worker.work();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (final Throwable t) {
+          LOGGER.error(t.getMessage(), t);
+          if (failure.compareAndSet(null, t)) {
+            abort();
+          }
+        } finally {
+          if ((runningWorkers.decrementAndGet() == 0) && (failure.get() == null)) {
+            try {
+              stageFinished.work();
+            } catch (final InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        }
+      });
+    }
+    return stage;
+  }
+
+  /**
+   * Stops every stage that has been started by interrupting its workers.
+   */
+  private void abort() {
+    stages.forEach(ExecutorService::shutdownNow);
+  }
+
+  private static <E> void putAll(final BlockingQueue<E> queue, final E element, final int count)
+      throws InterruptedException {
+    for (int i = 0; i < count; i++) {
+      queue.put(element);
+    }
+  }
+
+  /**
+   * Read stage: reads input streams and splits them into chunks of at least {@link #chunkLines}
+   * lines. A new chunk only starts at a T line, so blocks never span two chunks.
+   */
+  private void read() throws InterruptedException {
+    InputStream inputStream;
+    while ((inputStream = inputStreams.poll()) != null) {
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+        List<String> chunk = new ArrayList<>(chunkLines);
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if ((chunk.size() >= chunkLines) && line.startsWith(Twitter7Parser.BLOCK_START)) {
+            chunkQueue.put(chunk);
+            chunk = new ArrayList<>(chunkLines);
+          }
+          chunk.add(line);
+        }
+
+        if (!chunk.isEmpty()) {
+          chunkQueue.put(chunk);
+        }
+      } catch (final IOException e) {
+        LOGGER.error(e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Assembly stage: assembles blocks of line chunks and groups them into batches of
+   * {@link #batchSize} blocks.
+   */
+  private void assemble() throws InterruptedException {
+    List<Triple<String, String, String>> batch = new ArrayList<>(batchSize);
+    List<String> chunk;
+    while ((chunk = chunkQueue.take()) != endOfChunks) {
+      final Iterator<String> lines = chunk.iterator();
+      final Twitter7BlockReader blockReader =
+          new Twitter7BlockReader(() -> lines.hasNext() ? lines.next() : null);
+
+      try {
+        Triple<String, String, String> triple;
+        while ((triple = blockReader.readBlock()) != null) {
+          batch.add(triple);
+          if (batch.size() == batchSize) {
+            batchQueue.put(batch);
+            batch = new ArrayList<>(batchSize);
+          }
+        }
+      } catch (final IOException e) {
+        // Chunks are read from memory
+        throw new IllegalStateException(e);
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      batchQueue.put(batch);
+    }
+  }
+
+  /**
+   * Parse stage: calls the parser of every batch or hands it to {@link #parseService}. Failures of
+   * parsers called by this stage will be handed to the callbacks immediately.
+   */
+  private void parse() throws InterruptedException {
+    List<Triple<String, String, String>> batch;
+    while ((batch = batchQueue.take()) != endOfBatches) {
+      final Future<T> result;
+      try {
+        final Callable<T> parser = batchParserSupplier.apply(batch);
+        result = parseService == null ? CompletableFuture.completedFuture(parser.call())
+            : parseService.submit(parser);
+      } catch (final Exception e) {
+        futureCallbacks.forEach(callback -> callback.onFailure(e));
+        continue;
+      }
+
+      resultQueue.put(Optional.of(result));
+    }
+  }
+
+  /**
+   * Collect stage: awaits every result and hands it to the callbacks. Failures of parsers called
+   * by {@link #parseService} will be handed to the callbacks instead.
+   */
+  private void collect() throws InterruptedException {
+    Optional<Future<T>> result;
+    while ((result = resultQueue.take()).isPresent()) {
+      final T value;
+      try {
+        value = result.get().get();
+      } catch (final ExecutionException e) {
+        if (e.getCause() instanceof Error) {
+          // Fail the stage like a parse stage worker would
+          throw (Error) e.getCause();
+        }
+        futureCallbacks.forEach(callback -> callback.onFailure(e.getCause()));
+        continue;
+      }
+
+      if (value == null) {
+        LOGGER.warn("Parser returned no result.");
+        continue;
+      }
+      for (final FutureCallback<T> callback : futureCallbacks) {
+        try {
+          callback.onSuccess(value);
+        } catch (final RuntimeException e) {
+          LOGGER.error(e.getMessage(), e);
+        }
+      }
+    }
+  }
+}
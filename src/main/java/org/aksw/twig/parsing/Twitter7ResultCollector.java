@@ -3,9 +3,7 @@ package org.aksw.twig.parsing;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.util.zip.GZIPOutputStream;
+import java.io.OutputStream;
 
 import org.aksw.twig.Const;
 import org.aksw.twig.files.FileHandler;
@@ -16,8 +14,13 @@ import org.apache.logging.log4j.Logger;
 import com.google.common.util.concurrent.FutureCallback;
 
 /**
- * Collects {@link TWIGModelWrapper} and merges them into one. After the merged model has a size
- * over {@link #MODEL_MAX_SIZE} it will be printed into a gzip compressed file.
+ * Collects {@link TWIGModelWrapper} and merges them into one. Collected models may contain a single
+ * tweet or a whole batch of tweets as parsed by {@link Twitter7BatchParser}. After the merged model
+ * has a size over {@link Const#MODEL_MAX_SIZE} or {@link Const#OUTPUT_MAX_TRIPLES} it will be
+ * printed into a gzip compressed file in {@link Const#RDF_OUTPUT_FORMAT}. Use
+ * {@link Twitter7StreamCollector} to keep memory usage bounded by the output size limits instead.
+ * If the collector is given a model backed by a TDB dataset no files will be printed, so the result
+ * can be queried in the dataset.
  */
 class Twitter7ResultCollector implements FutureCallback<TWIGModelWrapper> {
 
@@ -25,7 +28,7 @@ class Twitter7ResultCollector implements FutureCallback<TWIGModelWrapper> {
 
   private final FileHandler fileHandler;
 
-  private final TWIGModelWrapper currentModel = new TWIGModelWrapper();
+  private final TWIGModelWrapper currentModel;
 
   /**
    * Constructor setting class variables.
@@ -34,16 +37,35 @@ class Twitter7ResultCollector implements FutureCallback<TWIGModelWrapper> {
    * @param outputDirectory Directory to print files into.
    */
   Twitter7ResultCollector(final String fileName, final File outputDirectory) {
-    final String FILE_TYPE = ".ttl.gz";
+    this(fileName, outputDirectory, new TWIGModelWrapper());
+  }
+
+  /**
+   * Constructor setting class variables. Collectors can share a model, e. g. a model backed by a
+   * TDB dataset. Shared models must be closed by the caller once all collectors are done.
+   *
+   * @param fileName Basic file name for model printing.
+   * @param outputDirectory Directory to print files into.
+   * @param model Model to collect into.
+   */
+  Twitter7ResultCollector(final String fileName, final File outputDirectory,
+      final TWIGModelWrapper model) {
+    final String FILE_TYPE = Const.RDF_OUTPUT_FORMAT.getFileEnding() + ".gz";
     fileHandler = new FileHandler(outputDirectory, fileName, FILE_TYPE);
+    currentModel = model;
   }
 
   @Override
   public void onSuccess(final TWIGModelWrapper result) {
     synchronized (currentModel) {
-      currentModel.getModel().add(result.getModel());
+      currentModel.add(result);
+      if (currentModel.isTDBBacked()) {
+        return;
+      }
 
-      if (currentModel.getModel().size() >= Const.MODEL_MAX_SIZE) {
+      final long size = currentModel.getModel().size();
+      if ((size >= Const.MODEL_MAX_SIZE)
+          || ((Const.OUTPUT_MAX_TRIPLES > 0) && (size >= Const.OUTPUT_MAX_TRIPLES))) {
         writeModel();
       }
     }
@@ -55,16 +77,22 @@ class Twitter7ResultCollector implements FutureCallback<TWIGModelWrapper> {
   }
 
   /**
-   * Writes the current collected model into a file.
+   * Writes the current collected model into a file. If the model is backed by a TDB dataset all
+   * collected statements will be committed into the dataset instead.
    */
   public void writeModel() {
     synchronized (currentModel) {
+      if (currentModel.isTDBBacked()) {
+        currentModel.commit();
+        return;
+      }
+
       LOGGER.info("Writing result model {}.", currentModel);
 
       try (FileOutputStream fileOutputStream = new FileOutputStream(fileHandler.nextFile())) {
-        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(fileOutputStream))) {
-          currentModel.write(writer);
-          writer.flush();
+        try (OutputStream outputStream = FileHandler.getCompressionStream(fileOutputStream)) {
+          currentModel.write(outputStream, Const.RDF_OUTPUT_FORMAT);
+          outputStream.flush();
         }
       } catch (final IOException e) {
         LOGGER.error(e.getMessage(), e);
@@ -0,0 +1,179 @@
+package org.aksw.twig.parsing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aksw.twig.Const;
+import org.aksw.twig.files.FileHandler;
+import org.aksw.twig.model.RDFOutputFormat;
+import org.aksw.twig.model.TWIGStreamWriter;
+import org.aksw.twig.model.Tweet;
+import org.aksw.twig.model.TweetBinaryWriter;
+import org.aksw.twig.model.TweetWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.FutureCallback;
+
+/**
+ * Collects parsed {@link Tweet} records and streams them into gzip compressed files. Tweets will be
+ * written as RDF in {@link Const#RDF_OUTPUT_FORMAT} by a {@link TWIGStreamWriter} if
+ * {@link Const#TWITTER7_TURTLE_OUTPUT} is set and in the compact binary format by a
+ * {@link TweetBinaryWriter} if {@link Const#TWITTER7_BINARY_OUTPUT} is set. Unlike
+ * {@link Twitter7ResultCollector} no model will be accumulated, so memory usage does not depend on
+ * the size of the input. Files will be created along with the first result and must be completed by
+ * {@link #close()}. Once an RDF file has reached {@link Const#OUTPUT_MAX_TRIPLES} triples or any
+ * file has reached {@link Const#OUTPUT_MAX_BYTES} compressed bytes all files will be completed and
+ * subsequent tweets will be written into new files.
+ */
+class Twitter7StreamCollector implements FutureCallback<List<Tweet>> {
+
+  private static final Logger LOGGER = LogManager.getLogger(Twitter7StreamCollector.class);
+
+  /**
+   * Creates a {@link TweetWriter} writing into a stream.
+   */
+  private interface TweetWriterFactory {
+
+    TweetWriter create(OutputStream outputStream) throws IOException;
+  }
+
+  /**
+   * One output format along with its current file.
+   */
+  private static class Output {
+
+    private final FileHandler fileHandler;
+
+    private final TweetWriterFactory writerFactory;
+
+    private CountingOutputStream countingStream;
+
+    private OutputStream outputStream;
+
+    private TweetWriter writer;
+
+    Output(final FileHandler fileHandler, final TweetWriterFactory writerFactory) {
+      this.fileHandler = fileHandler;
+      this.writerFactory = writerFactory;
+    }
+  }
+
+  private final List<Output> outputs = new ArrayList<>(2);
+
+  /** Writer of the current RDF file if there is any. */
+  private TWIGStreamWriter rdfWriter;
+
+  private boolean open = false;
+
+  /**
+   * Constructor setting class variables.
+   *
+   * @param fileName Basic file name for model printing.
+   * @param outputDirectory Directory to print files into.
+   */
+  Twitter7StreamCollector(final String fileName, final File outputDirectory) {
+    if (Const.TWITTER7_TURTLE_OUTPUT) {
+      final RDFOutputFormat format = Const.RDF_OUTPUT_FORMAT;
+      outputs.add(new Output(
+          new FileHandler(outputDirectory, fileName, format.getFileEnding() + ".gz"),
+          outputStream -> rdfWriter = new TWIGStreamWriter(outputStream, format)));
+    }
+    if (Const.TWITTER7_BINARY_OUTPUT) {
+      outputs.add(new Output(
+          new FileHandler(outputDirectory, fileName, TweetBinaryWriter.getFileEnding() + ".gz"),
+          TweetBinaryWriter::new));
+    }
+  }
+
+  @Override
+  public synchronized void onSuccess(final List<Tweet> result) {
+    for (final Tweet tweet : result) {
+      if (!open) {
+        try {
+          open();
+        } catch (final IOException e) {
+          LOGGER.error(e.getMessage(), e);
+          close();
+          return;
+        }
+      }
+
+      for (final Output output : outputs) {
+        output.writer.addTweet(tweet, Const.seed);
+      }
+
+      if (isFull()) {
+        close();
+      }
+    }
+  }
+
+  /**
+   * Opens the next file of every output to stream tweets into.
+   *
+   * @throws IOException Thrown if no new file could be created.
+   */
+  private void open() throws IOException {
+    open = true;
+    for (final Output output : outputs) {
+      final File file = output.fileHandler.nextFile();
+      LOGGER.info("Streaming tweets into {}.", file);
+      output.countingStream = new CountingOutputStream(new FileOutputStream(file));
+      output.outputStream = FileHandler.getCompressionStream(output.countingStream);
+      output.writer = output.writerFactory.create(output.outputStream);
+    }
+  }
+
+  /**
+   * Returns whether the current RDF file has reached {@link Const#OUTPUT_MAX_TRIPLES} triples or
+   * any current file has reached {@link Const#OUTPUT_MAX_BYTES} compressed bytes.
+   *
+   * @return {@code true} if the collector should roll over to new files.
+   */
+  private boolean isFull() {
+    if ((Const.OUTPUT_MAX_TRIPLES > 0) && (rdfWriter != null)
+        && (rdfWriter.getTripleCount() >= Const.OUTPUT_MAX_TRIPLES)) {
+      return true;
+    }
+
+    return (Const.OUTPUT_MAX_BYTES > 0) && outputs.stream()
+        .anyMatch(output -> output.countingStream.getCount() >= Const.OUTPUT_MAX_BYTES);
+  }
+
+  @Override
+  public void onFailure(final Throwable t) {
+    LOGGER.warn(t.getMessage());
+  }
+
+  /**
+   * Finishes the current files. Results collected afterwards will be written into new files.
+   */
+  public synchronized void close() {
+    for (final Output output : outputs) {
+      if (output.outputStream == null) {
+        continue;
+      }
+
+      try {
+        if (output.writer != null) {
+          output.writer.finish();
+        }
+        output.outputStream.close();
+      } catch (final IOException | UncheckedIOException e) {
+        LOGGER.error(e.getMessage(), e);
+      }
+      output.writer = null;
+      output.outputStream = null;
+      output.countingStream = null;
+    }
+    rdfWriter = null;
+    open = false;
+  }
+}
@@ -0,0 +1,57 @@
+package org.aksw.twig.parsing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.aksw.twig.Const;
+import org.aksw.twig.model.Tweet;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Parses a batch of twitter7 block triples into plain {@link Tweet} records. Every block is parsed
+ * as by {@link Twitter7BlockParser} or, if {@link Const#TWITTER7_FAST_PARSER} is set, by
+ * {@link Twitter7FastBlockParser}. Malformed blocks will be skipped.
+ */
+class Twitter7TweetParser implements Callable<List<Tweet>> {
+
+  private static final Logger LOGGER = LogManager.getLogger(Twitter7TweetParser.class);
+
+  private final List<Triple<String, String, String>> twitter7Triples;
+
+  /**
+   * Creates a new parser for given triples. Every triple must contain twitter7 data for one block.
+   *
+   * @param twitter7Triples Triples to parse.
+   */
+  Twitter7TweetParser(final List<Triple<String, String, String>> twitter7Triples) {
+    this.twitter7Triples = twitter7Triples;
+  }
+
+  @Override
+  public List<Tweet> call() {
+    final List<Tweet> tweets = new ArrayList<>(twitter7Triples.size());
+    if (Const.TWITTER7_FAST_PARSER) {
+      final Twitter7FastBlockParser parser = new Twitter7FastBlockParser();
+      for (final Triple<String, String, String> twitter7Triple : twitter7Triples) {
+        if (parser.parse(twitter7Triple)) {
+          tweets.add(parser.toTweet());
+        }
+      }
+      return tweets;
+    }
+
+    for (final Triple<String, String, String> twitter7Triple : twitter7Triples) {
+      final Twitter7BlockParser parser = new Twitter7BlockParser(twitter7Triple);
+      try {
+        parser.parse();
+        tweets.add(parser.toTweet());
+      } catch (final Twitter7BlockParseException e) {
+        LOGGER.warn(e.getMessage());
+      }
+    }
+    return tweets;
+  }
+}
@@ -0,0 +1,123 @@
+package org.aksw.twig.structs;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only array of primitive {@code int} values that is backed either by a heap array or by a
+ * read-only memory mapped region of a file. Mapped regions are split into chunks of
+ * {@link LongArray#CHUNK_ELEMENTS} elements, so arrays can be larger than a single mapped buffer
+ * which is limited to {@link Integer#MAX_VALUE} bytes. Mapped arrays will be copied to the heap if
+ * serialized.
+ */
+public final class IntArray implements Serializable {
+
+  private static final long serialVersionUID = 4710268836491528170L;
+
+  private final int length;
+
+  private final int[] array;
+
+  private final transient IntBuffer[] chunks;
+
+  private IntArray(final int[] array) {
+    this.length = array.length;
+    this.array = array;
+    chunks = null;
+  }
+
+  private IntArray(final int length, final IntBuffer[] chunks) {
+    this.length = length;
+    array = null;
+    this.chunks = chunks;
+  }
+
+  /**
+   * Wraps a heap array without copying it.
+   *
+   * @param array Array to wrap.
+   * @return Array.
+   */
+  public static IntArray of(final int[] array) {
+    return new IntArray(array);
+  }
+
+  /**
+   * Maps a region of a file that holds {@code length} big-endian {@code int} values.
+   *
+   * @param channel Channel of the file to map.
+   * @param position Position of the region in the file.
+   * @param length Number of values.
+   * @return Array.
+   * @throws IOException Thrown if the region could not be mapped.
+   */
+  public static IntArray map(final FileChannel channel, final long position, final int length)
+      throws IOException {
+    final IntBuffer[] chunks =
+        new IntBuffer[(int) ((length + LongArray.CHUNK_ELEMENTS - 1) / LongArray.CHUNK_ELEMENTS)];
+    for (int i = 0; i < chunks.length; i++) {
+      final long elements = Math.min(LongArray.CHUNK_ELEMENTS,
+          length - ((long) i * LongArray.CHUNK_ELEMENTS));
+      chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+          position + ((long) i * LongArray.CHUNK_ELEMENTS * Integer.BYTES),
+          elements * Integer.BYTES).asIntBuffer();
+    }
+    return new IntArray(length, chunks);
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public int get(final int index) {
+    if (array != null) {
+      return array[index];
+    }
+    return chunks[index >>> LongArray.CHUNK_SHIFT].get(index & LongArray.CHUNK_MASK);
+  }
+
+  /**
+   * Returns the index of a value within a range of ascending values like
+   * {@link java.util.Arrays#binarySearch(int[], int, int, int)}.
+   *
+   * @param from Index of the first value to search (inclusive).
+   * @param to Index of the last value to search (exclusive).
+   * @param key Value to search.
+   * @return Index of the value or {@code -(insertion point) - 1} if it is not contained.
+   */
+  public int binarySearch(final int from, final int to, final int key) {
+    int low = from;
+    int high = to - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int value = get(mid);
+      if (value < key) {
+        low = mid + 1;
+      } else if (value > key) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Copies the values into a new heap array.
+   *
+   * @return Values.
+   */
+  public int[] toArray() {
+    final int[] copy = new int[length];
+    for (int i = 0; i < length; i++) {
+      copy[i] = get(i);
+    }
+    return copy;
+  }
+
+  private Object writeReplace() {
+    return array != null ? this : new IntArray(toArray());
+  }
+}
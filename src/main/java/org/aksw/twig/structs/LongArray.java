@@ -0,0 +1,100 @@
+package org.aksw.twig.structs;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only array of primitive {@code long} values that is backed either by a heap array or by a
+ * read-only memory mapped region of a file, see {@link IntArray}.
+ */
+public final class LongArray implements Serializable {
+
+  private static final long serialVersionUID = -1538227036180445129L;
+
+  /** Number of elements of a mapped chunk, so a chunk of longs takes 1 GiB. */
+  static final long CHUNK_ELEMENTS = 1L << 27;
+
+  static final int CHUNK_SHIFT = 27;
+
+  static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+  private final int length;
+
+  private final long[] array;
+
+  private final transient LongBuffer[] chunks;
+
+  private LongArray(final long[] array) {
+    this.length = array.length;
+    this.array = array;
+    chunks = null;
+  }
+
+  private LongArray(final int length, final LongBuffer[] chunks) {
+    this.length = length;
+    array = null;
+    this.chunks = chunks;
+  }
+
+  /**
+   * Wraps a heap array without copying it.
+   *
+   * @param array Array to wrap.
+   * @return Array.
+   */
+  public static LongArray of(final long[] array) {
+    return new LongArray(array);
+  }
+
+  /**
+   * Maps a region of a file that holds {@code length} big-endian {@code long} values.
+   *
+   * @param channel Channel of the file to map.
+   * @param position Position of the region in the file.
+   * @param length Number of values.
+   * @return Array.
+   * @throws IOException Thrown if the region could not be mapped.
+   */
+  public static LongArray map(final FileChannel channel, final long position, final int length)
+      throws IOException {
+    final LongBuffer[] chunks =
+        new LongBuffer[(int) ((length + CHUNK_ELEMENTS - 1) / CHUNK_ELEMENTS)];
+    for (int i = 0; i < chunks.length; i++) {
+      final long elements = Math.min(CHUNK_ELEMENTS, length - ((long) i * CHUNK_ELEMENTS));
+      chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+          position + ((long) i * CHUNK_ELEMENTS * Long.BYTES), elements * Long.BYTES)
+          .asLongBuffer();
+    }
+    return new LongArray(length, chunks);
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public long get(final int index) {
+    if (array != null) {
+      return array[index];
+    }
+    return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+  }
+
+  /**
+   * Copies the values into a new heap array.
+   *
+   * @return Values.
+   */
+  public long[] toArray() {
+    final long[] copy = new long[length];
+    for (int i = 0; i < length; i++) {
+      copy[i] = get(i);
+    }
+    return copy;
+  }
+
+  private Object writeReplace() {
+    return array != null ? this : new LongArray(toArray());
+  }
+}
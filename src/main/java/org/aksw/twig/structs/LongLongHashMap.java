@@ -0,0 +1,190 @@
+package org.aksw.twig.structs;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Hash map of primitive {@code long} keys to primitive {@code long} values. Entries are stored in
+ * two parallel arrays by open addressing with linear probing, so an entry costs 16 bytes plus
+ * free slots instead of an entry object and two boxes as in a {@link java.util.HashMap}. Keys must
+ * not be negative, as negative keys mark free slots. Entries can't be removed. This class is not
+ * thread safe.
+ */
+public class LongLongHashMap implements Serializable {
+
+  private static final long serialVersionUID = -2947390823487245716L;
+
+  private static final long FREE = -1;
+
+  private static final float LOAD_FACTOR = 0.7f;
+
+  private long[] keys;
+
+  private long[] values;
+
+  private int size = 0;
+
+  private int threshold;
+
+  /**
+   * Creates an empty map.
+   */
+  public LongLongHashMap() {
+    this(16);
+  }
+
+  /**
+   * Creates an empty map that can take given number of entries without growing.
+   *
+   * @param expectedSize Expected number of entries.
+   */
+  public LongLongHashMap(final int expectedSize) {
+    allocate(Math.max(2, Integer.highestOneBit((int) (expectedSize / LOAD_FACTOR) + 1) << 1));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the value of given key.
+   *
+   * @param key Key to look up.
+   * @param defaultValue Value to return if there is no entry for the key.
+   * @return Value of the key or {@code defaultValue}.
+   */
+  public long get(final long key, final long defaultValue) {
+    final int slot = slot(key);
+    return keys[slot] == key ? values[slot] : defaultValue;
+  }
+
+  public boolean containsKey(final long key) {
+    return keys[slot(key)] == key;
+  }
+
+  /**
+   * Sets the value of given key.
+   *
+   * @param key Key to set. Must not be negative.
+   * @param value Value to set.
+   * @throws IllegalArgumentException Thrown if the key is negative.
+   */
+  public void put(final long key, final long value) throws IllegalArgumentException {
+    final int slot = insert(key);
+    values[slot] = value;
+  }
+
+  /**
+   * Adds to the value of given key. Keys without an entry have the value {@code 0}.
+   *
+   * @param key Key to alter. Must not be negative.
+   * @param delta Value to add.
+   * @return New value of the key.
+   * @throws IllegalArgumentException Thrown if the key is negative.
+   */
+  public long addTo(final long key, final long delta) throws IllegalArgumentException {
+    final int slot = insert(key);
+    values[slot] += delta;
+    return values[slot];
+  }
+
+  /**
+   * Hands every entry to given consumer in no particular order.
+   *
+   * @param consumer Consumer of entries.
+   */
+  public void forEach(final EntryConsumer consumer) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != FREE) {
+        consumer.accept(keys[i], values[i]);
+      }
+    }
+  }
+
+  /**
+   * Returns the slot of given key or the free slot the key would be inserted at.
+   *
+   * @param key Key to look up.
+   * @return Slot.
+   */
+  private int slot(final long key) {
+    final int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while ((keys[slot] != FREE) && (keys[slot] != key)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Returns the slot of given key and creates an entry of value {@code 0} if there is none.
+   *
+   * @param key Key to insert.
+   * @return Slot of the key.
+   * @throws IllegalArgumentException Thrown if the key is negative.
+   */
+  private int insert(final long key) throws IllegalArgumentException {
+    if (key < 0) {
+      throw new IllegalArgumentException("Negative key ".concat(Long.toString(key)));
+    }
+
+    int slot = slot(key);
+    if (keys[slot] == key) {
+      return slot;
+    }
+
+    if (size >= threshold) {
+      grow();
+      slot = slot(key);
+    }
+    keys[slot] = key;
+    values[slot] = 0;
+    size++;
+    return slot;
+  }
+
+  private void grow() {
+    final long[] oldKeys = keys;
+    final long[] oldValues = values;
+    allocate(oldKeys.length << 1);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != FREE) {
+        final int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(final int capacity) {
+    keys = new long[capacity];
+    Arrays.fill(keys, FREE);
+    values = new long[capacity];
+    threshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  /**
+   * Spreads all bits of a key over the lower bits of the hash, see the finalizer of MurmurHash3.
+   *
+   * @param key Key to hash.
+   * @return Hash.
+   */
+  private static int hash(final long key) {
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  /**
+   * Consumer of map entries.
+   */
+  @FunctionalInterface
+  public interface EntryConsumer {
+
+    void accept(long key, long value);
+  }
+}
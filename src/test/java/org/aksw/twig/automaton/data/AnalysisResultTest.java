@@ -0,0 +1,35 @@
+package org.aksw.twig.automaton.data;
+
+import org.aksw.twig.model.Tweet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+public class AnalysisResultTest {
+
+    @Test
+    public void addTweetsTest() {
+        LocalDateTime time = LocalDateTime.of(2009, 6, 11, 0, 3, 1);
+        AnalysisResult result = new AnalysisResult();
+        result.addTweets(Stream.of(
+                new Tweet("a", "hello world", time, Collections.emptyList()),
+                new Tweet("a", "hello you", time.plusDays(2), Collections.emptyList()),
+                new Tweet("b", "hello world", time, Collections.emptyList())));
+
+        Assert.assertEquals(3, result.getTimeCounter().getTimesCountAt(0, 3));
+        Assert.assertEquals(2, result.getMessageCounter().getUserMessages("a"));
+        Assert.assertEquals(1, result.getMessageCounter().getUserMessages("b"));
+        Assert.assertEquals(2d / 3d, result.getWordMatrix().getChance("hello", "world"), 0.0001);
+
+        AnalysisResult other = new AnalysisResult();
+        other.addTweets(Stream.of(new Tweet("c", "hello you", time, Collections.emptyList())));
+        result.merge(other);
+
+        Assert.assertEquals(4, result.getTimeCounter().getTimesCountAt(0, 3));
+        Assert.assertEquals(1, result.getMessageCounter().getUserMessages("c"));
+        Assert.assertEquals(0.5d, result.getWordMatrix().getChance("hello", "world"), 0.0001);
+    }
+}
@@ -0,0 +1,139 @@
+package org.aksw.twig.automaton.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentWordMatrixTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyTest() {
+    new ConcurrentWordMatrix(4).getChance("a", "a");
+  }
+
+  @Test
+  public void readWriteTest() {
+    final ConcurrentWordMatrix matrix = new ConcurrentWordMatrix(3);
+    matrix.alterFrequency("a", "a", 1);
+    matrix.alterFrequency("a", "b", 1);
+    matrix.alterFrequency("b", "a", 2);
+    Assert.assertEquals(0.5, matrix.getChance("a", "b"), 0.0);
+    Assert.assertEquals(1.0, matrix.getChance("b", "a"), 0.0);
+    Assert.assertEquals(0.0, matrix.getChance("b", "c"), 0.0);
+    Assert.assertEquals(2, matrix.getMappings("a").size());
+    Assert.assertEquals(2, matrix.getPredecessors().size());
+  }
+
+  @Test
+  public void mergeTest() {
+    final ConcurrentWordMatrix matrix = new ConcurrentWordMatrix(2);
+    matrix.alterFrequency("a", "b", 1);
+
+    final PrimitiveWordMatrix shared = new PrimitiveWordMatrix(matrix.getDictionary());
+    shared.alterFrequency("a", "c", 1);
+    final PrimitiveWordMatrix foreign = new PrimitiveWordMatrix(new WordDictionary());
+    foreign.alterFrequency("c", "a", 2);
+    matrix.merge(shared);
+    matrix.merge(foreign);
+
+    Assert.assertEquals(0.5, matrix.getChance("a", "b"), 0.0);
+    Assert.assertEquals(0.5, matrix.getChance("a", "c"), 0.0);
+    Assert.assertEquals(1.0, matrix.getChance("c", "a"), 0.0);
+  }
+
+  /**
+   * Tests that a matrix sharing its dictionary with another matrix is restored with ids of its own
+   * words.
+   */
+  @Test
+  public void serializeTest() throws IOException, ClassNotFoundException {
+    final WordDictionary dictionary = new WordDictionary();
+    new PrimitiveWordMatrix(dictionary).alterFrequency("x", "y", 1);
+    final ConcurrentWordMatrix written = new ConcurrentWordMatrix(dictionary, 4);
+    written.alterFrequency("a", "b", 1);
+    written.alterFrequency("b", "a", 3);
+    written.alterFrequency("b", "c", 1);
+
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (ObjectOutputStream outputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+      outputStream.writeObject(written);
+    }
+    final ObjectInputStream inputStream =
+        new ObjectInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+    final ConcurrentWordMatrix matrix = (ConcurrentWordMatrix) inputStream.readObject();
+
+    Assert.assertEquals(written.getPredecessors(), matrix.getPredecessors());
+    Assert.assertEquals(0.75, matrix.getChance("b", "a"), 0.0);
+    final Map<Integer, Double> mappings = matrix.getMappings("a");
+    Assert.assertEquals(1, mappings.size());
+    Assert.assertEquals("b", matrix.getWord(mappings.keySet().iterator().next()));
+
+    matrix.alterFrequency("a", "c", 1);
+    Assert.assertEquals(0.5, matrix.getChance("a", "b"), 0.0);
+    Assert.assertEquals(0.5, matrix.getChance("a", "c"), 0.0);
+    Assert.assertEquals(0.75, matrix.getChance("b", "a"), 0.0);
+  }
+
+  /**
+   * Tests that a matrix filled by multiple threads at once equals a {@link WordMatrix} filled
+   * sequentially.
+   */
+  @Test
+  public void concurrentTest() throws Exception {
+    final int threads = 8;
+    final long[][] transitions = new long[threads * 5000][];
+    final Random random = new Random(3);
+    for (int i = 0; i < transitions.length; i++) {
+      transitions[i] = new long[] {random.nextInt(200), random.nextInt(40), random.nextInt(5) + 1};
+    }
+
+    final WordMatrix expected = new WordMatrix();
+    for (final long[] transition : transitions) {
+      expected.alterFrequency(Long.toString(transition[0]), Long.toString(transition[1]),
+          transition[2]);
+    }
+
+    final ConcurrentWordMatrix matrix = new ConcurrentWordMatrix(16);
+    final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final int thread = t;
+      futures.add(executorService.submit(() -> {
+        for (int i = thread; i < transitions.length; i += threads) {
+          matrix.alterFrequency(Long.toString(transitions[i][0]),
+              Long.toString(transitions[i][1]), transitions[i][2]);
+        }
+      }));
+    }
+    for (final Future<?> future : futures) {
+      future.get();
+    }
+    executorService.shutdown();
+
+    Assert.assertEquals(expected.getPredecessors(), matrix.getPredecessors());
+    for (final String predecessor : expected.getPredecessors()) {
+      final Map<Integer, Double> mappings = matrix.getMappings(predecessor);
+      Assert.assertEquals(expected.getMappings(predecessor).size(), mappings.size());
+      mappings.forEach((successor, chance) -> Assert.assertEquals(
+          expected.getChance(predecessor, matrix.getWord(successor)), chance, 1e-12));
+    }
+    Assert.assertEquals(expected.getMeanChance(), matrix.getMeanChance(), 1e-12);
+    Assert.assertEquals(expected.getChanceStdDeviation(), matrix.getChanceStdDeviation(), 1e-9);
+
+    final FrozenWordMatrix frozen = matrix.freeze();
+    Assert.assertEquals(expected.getPredecessors(), frozen.getPredecessors());
+    Assert.assertEquals(expected.getMeanChance(), frozen.getMeanChance(), 1e-12);
+  }
+}
@@ -0,0 +1,159 @@
+package org.aksw.twig.automaton.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FrozenWordMatrixTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyTest() {
+    new PrimitiveWordMatrix().freeze().getChance("a", "a");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void immutableTest() {
+    new WordMatrix().freeze().alterFrequency("a", "b", 1);
+  }
+
+  @Test
+  public void readTest() {
+    final FrozenWordMatrix matrix = prepareMatrix().freeze();
+    Assert.assertEquals(0.75, matrix.getChance("b", "a"), 0.0);
+    Assert.assertEquals(0.25, matrix.getChance("b", "c"), 0.0);
+    Assert.assertEquals(0.0, matrix.getChance("b", "b"), 0.0);
+    Assert.assertEquals(0.0, matrix.getChance("b", "d"), 0.0);
+    Assert.assertEquals(1.0, matrix.getChance("c", "a"), 0.0);
+
+    // Successors are sorted within rows
+    final int b = matrix.getId("b");
+    Assert.assertEquals(2, matrix.getRowEnd(b) - matrix.getRowStart(b));
+    Assert.assertEquals("a", matrix.getWord(matrix.getSuccessorId(matrix.getRowStart(b))));
+    Assert.assertEquals("c", matrix.getWord(matrix.getSuccessorId(matrix.getRowStart(b) + 1)));
+    Assert.assertEquals(4, matrix.getRowTotal(b));
+
+    final Map<Integer, Double> mappings = matrix.getMappings("b");
+    Assert.assertEquals(2, mappings.size());
+    Assert.assertEquals(0.75, mappings.get(matrix.getId("a")), 0.0);
+    Assert.assertNull(mappings.get(matrix.getId("b")));
+    Assert.assertEquals(1.0, mappings.values().stream().mapToDouble(Double::doubleValue).sum(),
+        1e-12);
+  }
+
+  @Test
+  public void serializeTest() throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (ObjectOutputStream outputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+      outputStream.writeObject(prepareMatrix().freeze());
+    }
+
+    final ObjectInputStream inputStream =
+        new ObjectInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+    final FrozenWordMatrix matrix = (FrozenWordMatrix) inputStream.readObject();
+    Assert.assertEquals(0.75, matrix.getChance("b", "a"), 0.0);
+  }
+
+  @Test
+  public void writeMapTest() throws IOException, ClassNotFoundException {
+    final File file = File.createTempFile("twig", FrozenWordMatrixFormat.FILE_ENDING);
+    final FrozenWordMatrix written = prepareMatrix().freeze();
+    written.write(file);
+
+    final FrozenWordMatrix matrix = FrozenWordMatrix.load(file);
+    Assert.assertEquals(written.getVocabularySize(), matrix.getVocabularySize());
+    Assert.assertEquals(0.75, matrix.getChance("b", "a"), 0.0);
+    Assert.assertEquals(0.25, matrix.getChance("b", "c"), 0.0);
+    Assert.assertEquals(1.0, matrix.getChance("c", "a"), 0.0);
+    Assert.assertEquals(written.getPredecessors(), matrix.getPredecessors());
+
+    // Mapped matrices can be truncated and serialized
+    matrix.truncateTo(0.5);
+    Assert.assertEquals(1.0, matrix.getChance("b", "a"), 0.0);
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (ObjectOutputStream outputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+      outputStream.writeObject(FrozenWordMatrix.map(file));
+    }
+    final ObjectInputStream inputStream =
+        new ObjectInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+    Assert.assertEquals(0.25,
+        ((FrozenWordMatrix) inputStream.readObject()).getChance("b", "c"), 0.0);
+    file.delete();
+  }
+
+  @Test(expected = IOException.class)
+  public void invalidFileTest() throws IOException {
+    final File file = File.createTempFile("twig", FrozenWordMatrixFormat.FILE_ENDING);
+    try (FileOutputStream outputStream = new FileOutputStream(file)) {
+      outputStream.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    }
+
+    try {
+      FrozenWordMatrix.map(file);
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Tests that frozen copies of both mutable matrices behave like a {@link WordMatrix} before and
+   * after truncation.
+   */
+  @Test
+  public void wordMatrixEquivalenceTest() {
+    final Random random = new Random(2);
+    final WordMatrix expected = new WordMatrix();
+    final PrimitiveWordMatrix primitive = new PrimitiveWordMatrix();
+    for (int i = 0; i < 5000; i++) {
+      final String predecessor = Integer.toString(random.nextInt(60));
+      final String successor = Integer.toString(random.nextInt(15));
+      final long count = random.nextInt(5) + 1;
+      expected.alterFrequency(predecessor, successor, count);
+      primitive.alterFrequency(predecessor, successor, count);
+    }
+
+    final FrozenWordMatrix fromWordMatrix = expected.freeze();
+    final FrozenWordMatrix fromPrimitive = primitive.freeze();
+    assertEquivalent(expected, fromWordMatrix);
+    assertEquivalent(expected, fromPrimitive);
+
+    expected.truncateTo(0.08);
+    fromWordMatrix.truncateTo(0.08);
+    fromPrimitive.truncateTo(0.08);
+    assertEquivalent(expected, fromWordMatrix);
+    assertEquivalent(expected, fromPrimitive);
+  }
+
+  private void assertEquivalent(final WordMatrix expected, final FrozenWordMatrix matrix) {
+    Assert.assertEquals(expected.getPredecessors(), matrix.getPredecessors());
+    for (final String predecessor : expected.getPredecessors()) {
+      final Map<Integer, Double> expectedMappings = expected.getMappings(predecessor);
+      final Map<Integer, Double> mappings = matrix.getMappings(predecessor);
+      Assert.assertEquals(expectedMappings.size(), mappings.size());
+      mappings.forEach((successor, chance) -> {
+        Assert.assertEquals(expected.getChance(predecessor, matrix.getWord(successor)), chance,
+            1e-12);
+        Assert.assertEquals(chance, matrix.getChance(predecessor, matrix.getWord(successor)),
+            0.0);
+      });
+    }
+    Assert.assertEquals(expected.getMeanChance(), matrix.getMeanChance(), 1e-12);
+    Assert.assertEquals(expected.getChanceStdDeviation(), matrix.getChanceStdDeviation(), 1e-9);
+  }
+
+  private PrimitiveWordMatrix prepareMatrix() {
+    final PrimitiveWordMatrix matrix = new PrimitiveWordMatrix();
+    matrix.alterFrequency("c", "a", 2);
+    matrix.alterFrequency("b", "c", 1);
+    matrix.alterFrequency("b", "a", 3);
+    return matrix;
+  }
+}
@@ -1,5 +1,11 @@
 package org.aksw.twig.automaton.data;
 
+import org.aksw.twig.model.TWIGModelWrapper;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -7,6 +13,8 @@ import java.time.Duration;
 
 public class MessageCounterTest {
 
+    private static final String TWIG = "http://aksw.org/twig#";
+
     @Test
     public void test() {
         MessageCounter counter = new MessageCounter();
@@ -33,4 +41,64 @@ public class MessageCounterTest {
         Assert.assertEquals(counter.getUserMessages("user1"), 4);
         Assert.assertEquals(counter.getUserMessages("user2"), 4);
     }
+
+    @Test
+    public void streamTest() {
+        MessageCounter counter = new MessageCounter();
+        StreamRDF stream = counter.asStreamRDF();
+        stream.start();
+        addTweet(stream, "user1", "tweet1", "2009-09-30T23:55:53");
+        addTweet(stream, "user1", "tweet2", "2009-10-02T10:00:00");
+        addTweet(stream, "user2", "tweet3", "2009-09-30T23:55:53");
+        // Repeated tweets are counted once
+        addTweet(stream, "user1", "tweet1", "2009-09-30T23:55:53");
+        stream.finish();
+
+        Assert.assertEquals(2, counter.getUserMessages("user1"));
+        Assert.assertEquals(1, counter.getUserMessages("user2"));
+
+        counter.normalize(Duration.ofDays(1));
+        Assert.assertEquals(1, counter.getUserMessages("user1"));
+    }
+
+    /**
+     * Tests that messages are counted per file even if the segments of the file cut the triples of
+     * a tweet apart.
+     */
+    @Test
+    public void segmentStreamTest() {
+        MessageCounter counter = new MessageCounter();
+        // Segments parsed concurrently share the stream
+        StreamRDF segment1 = counter.asSegmentStreamRDF(2);
+        StreamRDF segment2 = segment1;
+        segment1.start();
+        segment2.start();
+        addTweet(segment1, "user1", "tweet1", "2009-09-30T23:55:53");
+        // The split falls between sends and tweetTime triple of tweet2
+        Node tweet2 = NodeFactory.createURI(TWIG + "tweet2");
+        segment1.triple(new Triple(NodeFactory.createURI(TWIG + "user1"),
+                NodeFactory.createURI(TWIG + TWIGModelWrapper.SENDS_PROPERTY_NAME), tweet2));
+        segment2.triple(new Triple(tweet2,
+                NodeFactory.createURI(TWIG + TWIGModelWrapper.TWEET_TIME_PROPERTY_NAME),
+                NodeFactory.createLiteral("2009-10-02T10:00:00", XSDDatatype.XSDdateTime)));
+        addTweet(segment2, "user1", "tweet3", "2009-10-02T11:00:00");
+        segment1.finish();
+        Assert.assertEquals(-1, counter.getUserMessages("user1"));
+        segment2.finish();
+
+        Assert.assertEquals(3, counter.getUserMessages("user1"));
+
+        // 3 messages within 3 days
+        counter.normalize(Duration.ofDays(1));
+        Assert.assertEquals(1, counter.getUserMessages("user1"));
+    }
+
+    private static void addTweet(StreamRDF stream, String user, String tweet, String time) {
+        Node tweetNode = NodeFactory.createURI(TWIG + tweet);
+        stream.triple(new Triple(NodeFactory.createURI(TWIG + user),
+                NodeFactory.createURI(TWIG + TWIGModelWrapper.SENDS_PROPERTY_NAME), tweetNode));
+        stream.triple(new Triple(tweetNode,
+                NodeFactory.createURI(TWIG + TWIGModelWrapper.TWEET_TIME_PROPERTY_NAME),
+                NodeFactory.createLiteral(time, XSDDatatype.XSDdateTime)));
+    }
 }
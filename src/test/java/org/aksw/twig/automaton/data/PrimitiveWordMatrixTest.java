@@ -0,0 +1,126 @@
+package org.aksw.twig.automaton.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveWordMatrixTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyTest() {
+    new PrimitiveWordMatrix().getChance("a", "a");
+  }
+
+  @Test
+  public void readWriteTest() {
+    final PrimitiveWordMatrix matrix = new PrimitiveWordMatrix();
+    prepareMatrix(matrix);
+    assertMatrix(matrix);
+  }
+
+  @Test
+  public void serializeTest() throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (ObjectOutputStream outputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+      final PrimitiveWordMatrix matrix = new PrimitiveWordMatrix();
+      prepareMatrix(matrix);
+      outputStream.writeObject(matrix);
+    }
+
+    final ObjectInputStream inputStream =
+        new ObjectInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+    assertMatrix((PrimitiveWordMatrix) inputStream.readObject());
+  }
+
+  @Test
+  public void truncateTest() {
+    final PrimitiveWordMatrix matrix = new PrimitiveWordMatrix();
+    prepareMatrix(matrix);
+    matrix.truncateTo(1.0);
+    Assert.assertTrue(matrix.getPredecessors().isEmpty());
+  }
+
+  /**
+   * Tests that the matrix behaves like a {@link WordMatrix} when filled, merged and truncated.
+   */
+  @Test
+  public void wordMatrixEquivalenceTest() {
+    final Random random = new Random(1);
+    final WordMatrix expected = new WordMatrix();
+    final PrimitiveWordMatrix matrix = new PrimitiveWordMatrix();
+    for (int part = 0; part < 4; part++) {
+      final PrimitiveWordMatrix partial = new PrimitiveWordMatrix();
+      for (int i = 0; i < 2000; i++) {
+        final String predecessor = Integer.toString(random.nextInt(50));
+        final String successor = Integer.toString(random.nextInt(part + 10));
+        final long count = random.nextInt(5) + 1;
+        expected.alterFrequency(predecessor, successor, count);
+        partial.alterFrequency(predecessor, successor, count);
+      }
+      matrix.merge(partial);
+    }
+
+    assertEquivalent(expected, matrix);
+    expected.truncateTo(0.08);
+    matrix.truncateTo(0.08);
+    assertEquivalent(expected, matrix);
+  }
+
+  @Test
+  public void sharedDictionaryTest() {
+    final WordDictionary dictionary = new WordDictionary();
+    final PrimitiveWordMatrix matrix = new PrimitiveWordMatrix(dictionary);
+    final PrimitiveWordMatrix other = new PrimitiveWordMatrix(dictionary);
+    matrix.alterFrequency("a", "a", 1);
+    other.alterFrequency("b", "a", 1);
+    other.alterFrequency("a", "b", 1);
+    matrix.merge(other);
+
+    Assert.assertEquals(2, dictionary.size());
+    Assert.assertEquals(0.5, matrix.getChance("a", "b"), 0.0);
+    Assert.assertEquals(1.0, matrix.getChance("b", "a"), 0.0);
+    Assert.assertTrue(other.getMappings("a").containsKey(dictionary.getId("b")));
+  }
+
+  private void assertEquivalent(final WordMatrix expected, final WordTransitionMatrix matrix) {
+    Assert.assertEquals(expected.getPredecessors(), matrix.getPredecessors());
+    for (final String predecessor : expected.getPredecessors()) {
+      final Map<Integer, Double> expectedMappings = expected.getMappings(predecessor);
+      final Map<Integer, Double> mappings = matrix.getMappings(predecessor);
+      Assert.assertEquals(expectedMappings.size(), mappings.size());
+      mappings.forEach((successor, chance) -> Assert.assertEquals(
+          expected.getChance(predecessor, matrix.getWord(successor)), chance, 1e-12));
+    }
+    Assert.assertEquals(expected.getMeanChance(), matrix.getMeanChance(), 1e-12);
+    Assert.assertEquals(expected.getChanceStdDeviation(), matrix.getChanceStdDeviation(), 1e-9);
+  }
+
+  private void prepareMatrix(final PrimitiveWordMatrix matrix) {
+    matrix.alterFrequency("a", "a", 1);
+    matrix.alterFrequency("a", "b", 1);
+  }
+
+  private void assertMatrix(final PrimitiveWordMatrix matrix) {
+    Assert.assertEquals(0.5, matrix.getChance("a", "a"), 0.0);
+    Assert.assertEquals(0.5, matrix.getChance("a", "b"), 0.0);
+    Assert.assertEquals(0.0, matrix.getChance("a", "c"), 0.0);
+
+    final Map<Integer, Double> mappings = matrix.getMappings("a");
+    Assert.assertEquals(2, mappings.size());
+    mappings.forEach((successor, chance) -> {
+      Assert.assertTrue("a".equals(matrix.getWord(successor))
+          || "b".equals(matrix.getWord(successor)));
+      Assert.assertEquals(0.5, chance, 0.0);
+    });
+
+    Assert.assertEquals(0.5, matrix.getMeanChance(), 0.0);
+    Assert.assertEquals(0.0, matrix.getChanceStdDeviation(), 0.0);
+  }
+}
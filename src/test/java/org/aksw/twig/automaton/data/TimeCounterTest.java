@@ -1,5 +1,10 @@
 package org.aksw.twig.automaton.data;
 
+import org.aksw.twig.model.TWIGModelWrapper;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -20,4 +25,19 @@ public class TimeCounterTest {
         Assert.assertEquals(3, counter.getTimesCountAt(testTime.getHour(), testTime.getMinute()));
         Assert.assertEquals(3, counter.getTimesCountAt(testTimePlusOneMinute.getHour(), testTimePlusOneMinute.getMinute()));
     }
+
+    @Test
+    public void streamTest() {
+        TimeCounter counter = new TimeCounter();
+        StreamRDF stream = counter.asStreamRDF();
+        String twig = "http://aksw.org/twig#";
+        Triple time = new Triple(NodeFactory.createURI(twig + "tweet"),
+                NodeFactory.createURI(twig + TWIGModelWrapper.TWEET_TIME_PROPERTY_NAME),
+                NodeFactory.createLiteral("2009-09-30T23:55:53", XSDDatatype.XSDdateTime));
+        stream.start();
+        stream.triple(time);
+        stream.finish();
+
+        Assert.assertEquals(1, counter.getTimesCountAt(23, 55));
+    }
 }
@@ -41,13 +41,33 @@ public class WordMatrixTest {
           new ObjectInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
       matrix = (WordMatrix) inputStream.readObject();
 
-      //
+      // only words of the matrix are serialized
+      Assert.assertEquals(2, matrix.dictionary.size());
       assertMatrix(matrix);
     } catch (IOException | ClassNotFoundException e) {
       Assert.fail(e.getMessage());
     }
   }
 
+  @Test
+  public void mergeTest() {
+    final WordMatrix matrix = new WordMatrix();
+    final WordMatrix shared = new WordMatrix();
+    final WordMatrix foreign = new WordMatrix(new WordDictionary());
+    Assert.assertSame(matrix.dictionary, shared.dictionary);
+
+    matrix.alterFrequency("a", "a", 1);
+    shared.alterFrequency("a", "b", 1);
+    foreign.alterFrequency("b", "a", 2);
+    matrix.merge(shared);
+    matrix.merge(foreign);
+
+    Assert.assertEquals(0.5, matrix.getChance("a", "a"), 0.0);
+    Assert.assertEquals(0.5, matrix.getChance("a", "b"), 0.0);
+    Assert.assertEquals(1.0, matrix.getChance("b", "a"), 0.0);
+    Assert.assertEquals(1, shared.getMappings("a").size());
+  }
+
   @Test
   public void truncateTest() {
     final WordMatrix matrix = new WordMatrix();
@@ -66,10 +86,10 @@ public class WordMatrixTest {
     Assert.assertEquals(0.5, matrix.getChance("a", "b"), 0.0);
 
     final Map<Integer, Double> mappings = matrix.getMappings("a");
-    Assert.assertTrue(mappings.containsKey(matrix.indexReverse.get("a")));
-    Assert.assertEquals(0.5, mappings.get(matrix.indexReverse.get("a")), 0.0);
-    Assert.assertTrue(mappings.containsKey(matrix.indexReverse.get("b")));
-    Assert.assertEquals(0.5, mappings.get(matrix.indexReverse.get("b")), 0.0);
+    Assert.assertTrue(mappings.containsKey(matrix.dictionary.getId("a")));
+    Assert.assertEquals(0.5, mappings.get(matrix.dictionary.getId("a")), 0.0);
+    Assert.assertTrue(mappings.containsKey(matrix.dictionary.getId("b")));
+    Assert.assertEquals(0.5, mappings.get(matrix.dictionary.getId("b")), 0.0);
 
     matrix.matrix.entrySet().forEach(entry -> {
       final Pair<Long, Map<Integer, Long>> value = entry.getValue();
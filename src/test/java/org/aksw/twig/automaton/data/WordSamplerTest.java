@@ -21,6 +21,14 @@ public class WordSamplerTest {
     Assert.assertEquals("a", sampler.getSuccessorDistribution("a").sample());
   }
 
+  @Test
+  public void primitiveTest() {
+    final PrimitiveWordMatrix matrix = new PrimitiveWordMatrix();
+    matrix.alterFrequency("a", "b", 1);
+    final WordSampler sampler = new WordSampler(matrix);
+    Assert.assertEquals("b", sampler.getSuccessorDistribution("a").sample());
+  }
+
   @Test
   public void complexTest() {
     final WordMatrix matrix = new WordMatrix();
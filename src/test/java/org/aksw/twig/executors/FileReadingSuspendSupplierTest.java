@@ -1,14 +1,21 @@
 package org.aksw.twig.executors;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,7 +41,7 @@ public class FileReadingSuspendSupplierTest {
     SimpleFileReadingSuspendSupplier suspendSupplier = new SimpleFileReadingSuspendSupplier(files);
     SelfSuspendingExecutor<Integer> executor = new SelfSuspendingExecutor<>(suspendSupplier);
     executor.addFinishedEventListeners(() -> {
-      Assert.assertEquals(new Integer(2), suspendSupplier.getMergedResult());
+      Assert.assertEquals(Integer.valueOf(2), suspendSupplier.getMergedResult());
       synchronized (assertedHolder) {
         assertedHolder.asserted = true;
       }
@@ -56,6 +63,189 @@ public class FileReadingSuspendSupplierTest {
     }
   }
 
+  /**
+   * Tests that the merged result can be awaited.
+   */
+  @Test
+  public void awaitResultTest() throws Exception {
+    ClassLoader classLoader = FileReadingSuspendSupplierTest.class.getClassLoader();
+    File file0, file1;
+    try {
+      file0 = new File(classLoader.getResource("testing/file_0").getPath());
+      file1 = new File(classLoader.getResource("testing/file_1").getPath());
+    } catch (NullPointerException e) {
+      LOGGER.error(e.getMessage(), e);
+      return;
+    }
+    List<File> files = Stream.of(file0, file1).collect(Collectors.toList());
+
+    SimpleFileReadingSuspendSupplier suspendSupplier = new SimpleFileReadingSuspendSupplier(files);
+    Assert.assertEquals(Integer.valueOf(2), suspendSupplier.awaitResult());
+  }
+
+  /**
+   * Tests that a second run loads cached results instead of processing files again.
+   */
+  @Test
+  public void cacheTest() throws IOException, InterruptedException {
+    ClassLoader classLoader = FileReadingSuspendSupplierTest.class.getClassLoader();
+    File file0, file1;
+    try {
+      file0 = new File(classLoader.getResource("testing/file_0").getPath());
+      file1 = new File(classLoader.getResource("testing/file_1").getPath());
+    } catch (NullPointerException e) {
+      LOGGER.error(e.getMessage(), e);
+      return;
+    }
+    List<File> files = Stream.of(file0, file1).collect(Collectors.toList());
+    File cacheDirectory = Files.createTempDirectory("twig-cache").toFile();
+
+    try {
+      for (int run = 0; run < 2; run++) {
+        CountingFileReadingSuspendSupplier suspendSupplier =
+            new CountingFileReadingSuspendSupplier(files);
+        suspendSupplier.setCacheDirectory(cacheDirectory);
+        CountDownLatch finished = new CountDownLatch(1);
+        SelfSuspendingExecutor<Integer> executor = new SelfSuspendingExecutor<>(suspendSupplier);
+        executor.addFinishedEventListeners(finished::countDown);
+        executor.start();
+        finished.await();
+
+        Assert.assertEquals(Integer.valueOf(2), suspendSupplier.getMergedResult());
+        Assert.assertEquals(run == 0 ? 2 : 0, suspendSupplier.processedFiles.get());
+      }
+    } finally {
+      FileUtils.deleteQuietly(cacheDirectory);
+    }
+  }
+
+  /**
+   * Tests that files are supplied largest first and that oversized files are split.
+   */
+  @Test
+  public void schedulingTest() throws Exception {
+    File directory = Files.createTempDirectory("twig-scheduling").toFile();
+
+    try {
+      List<File> files = new ArrayList<>();
+      for (int size : new int[] {10, 300, 50, 200}) {
+        File file = new File(directory, "file_".concat(Integer.toString(size)));
+        Files.write(file.toPath(), new byte[size]);
+        files.add(file);
+      }
+
+      SizeFileReadingSuspendSupplier suspendSupplier = new SizeFileReadingSuspendSupplier(files);
+      Assert.assertEquals(300, suspendSupplier.getExpectedMakespan(2));
+      for (int size : new int[] {300, 200, 50, 10}) {
+        Assert.assertEquals(Long.valueOf(size), suspendSupplier.next().call());
+      }
+      Assert.assertNull(suspendSupplier.next());
+
+      suspendSupplier = new SizeFileReadingSuspendSupplier(files);
+      suspendSupplier.setSplitSize(100);
+      Assert.assertEquals(300, suspendSupplier.getExpectedMakespan(2));
+      for (int size : new int[] {100, 100, 100, 100, 100, 50, 10}) {
+        Assert.assertEquals(Long.valueOf(size), suspendSupplier.next().call());
+      }
+      Assert.assertNull(suspendSupplier.next());
+    } finally {
+      FileUtils.deleteQuietly(directory);
+    }
+  }
+
+  /**
+   * Tests that an interrupt while waiting for admission doesn't end the supply of tasks.
+   */
+  @Test(timeout = 10000)
+  public void interruptTest() throws Exception {
+    File directory = Files.createTempDirectory("twig-interrupt").toFile();
+
+    try {
+      List<File> files = new ArrayList<>();
+      for (int size : new int[] {300, 200}) {
+        File file = new File(directory, "file_".concat(Integer.toString(size)));
+        Files.write(file.toPath(), new byte[size]);
+        files.add(file);
+      }
+
+      SizeFileReadingSuspendSupplier suspendSupplier = new SizeFileReadingSuspendSupplier(files);
+      suspendSupplier.setAdmissionControl(new HeapAdmissionControl(1000, 2, () -> 0));
+      Callable<Long> first = suspendSupplier.next();
+      new Thread(() -> {
+        try {
+          Thread.sleep(100);
+          first.call();
+        } catch (Exception e) {
+          LOGGER.error(e.getMessage(), e);
+        }
+      }).start();
+
+      Thread.currentThread().interrupt();
+      Callable<Long> second = suspendSupplier.next();
+      Assert.assertTrue(Thread.interrupted());
+      Assert.assertNotNull(second);
+      Assert.assertEquals(Long.valueOf(200), second.call());
+    } finally {
+      FileUtils.deleteQuietly(directory);
+    }
+  }
+
+  private class SizeFileReadingSuspendSupplier extends FileReadingSuspendSupplier<Long> {
+
+    SizeFileReadingSuspendSupplier(Collection<File> filesToParse) {
+      super(filesToParse);
+      setCacheDirectory(null);
+    }
+
+    @Override
+    public void addResult(Long result) {}
+
+    @Override
+    protected Callable<Long> getFileProcessor(File file) {
+      return file::length;
+    }
+
+    @Override
+    protected List<Callable<Long>> getSegmentProcessors(File file, int segments) {
+      long segmentSize = file.length() / segments;
+      return Collections.nCopies(segments, () -> segmentSize);
+    }
+
+    @Override
+    protected Long getMergedResult() {
+      return null;
+    }
+  }
+
+  private class CountingFileReadingSuspendSupplier extends FileReadingSuspendSupplier<Integer> {
+
+    final AtomicInteger processedFiles = new AtomicInteger();
+
+    int mergedResult;
+
+    CountingFileReadingSuspendSupplier(Collection<File> filesToParse) {
+      super(filesToParse);
+    }
+
+    @Override
+    public synchronized void addResult(Integer result) {
+      mergedResult += result;
+    }
+
+    @Override
+    protected Callable<Integer> getFileProcessor(File file) {
+      return () -> {
+        processedFiles.incrementAndGet();
+        return 1;
+      };
+    }
+
+    @Override
+    protected synchronized Integer getMergedResult() {
+      return mergedResult;
+    }
+  }
+
   private class SimpleFileReadingSuspendSupplier extends FileReadingSuspendSupplier<Integer> {
 
     int mergedResult;
@@ -0,0 +1,74 @@
+package org.aksw.twig.executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HeapAdmissionControlTest {
+
+  @Test
+  public void admissionTest() throws InterruptedException {
+    AtomicLong usedHeap = new AtomicLong();
+    HeapAdmissionControl admissionControl = new HeapAdmissionControl(1000, 2, usedHeap::get);
+
+    HeapAdmissionControl.Admission admission = admissionControl.acquire(300);
+    Assert.assertEquals(600, admission.getEstimate());
+
+    CountDownLatch admitted = new CountDownLatch(1);
+    Thread thread = new Thread(() -> {
+      try {
+        admissionControl.release(admissionControl.acquire(300));
+        admitted.countDown();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+
+    Assert.assertFalse(admitted.await(100, TimeUnit.MILLISECONDS));
+    admissionControl.release(admission);
+    Assert.assertTrue(admitted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void oversizedTest() throws InterruptedException {
+    HeapAdmissionControl admissionControl = new HeapAdmissionControl(1000, 2, () -> 0);
+    Assert.assertEquals(20000, admissionControl.acquire(10000).getEstimate());
+  }
+
+  @Test
+  public void learningTest() throws InterruptedException {
+    AtomicLong usedHeap = new AtomicLong();
+    HeapAdmissionControl admissionControl = new HeapAdmissionControl(1000000, 2, usedHeap::get);
+
+    for (int i = 0; i < 50; i++) {
+      HeapAdmissionControl.Admission admission = admissionControl.acquire(100);
+      usedHeap.set(500);
+      admissionControl.release(admission);
+      usedHeap.set(0);
+    }
+
+    Assert.assertEquals(5, admissionControl.getExpansionRatio(), 0.01);
+  }
+
+  /**
+   * Tests that heap retained after tasks completed, e. g. by merged results, doesn't raise the
+   * expansion ratio of later tasks.
+   */
+  @Test
+  public void retainedHeapTest() throws InterruptedException {
+    AtomicLong usedHeap = new AtomicLong();
+    HeapAdmissionControl admissionControl = new HeapAdmissionControl(1000000, 2, usedHeap::get);
+
+    for (int i = 0; i < 50; i++) {
+      HeapAdmissionControl.Admission admission = admissionControl.acquire(100);
+      usedHeap.addAndGet(500);
+      admissionControl.release(admission);
+    }
+
+    Assert.assertEquals(5, admissionControl.getExpansionRatio(), 0.01);
+  }
+}
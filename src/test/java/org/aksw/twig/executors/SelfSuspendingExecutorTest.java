@@ -64,6 +64,17 @@ public class SelfSuspendingExecutorTest {
     Assert.assertEquals(1, supplier.getResult());
   }
 
+  @Test
+  public void completionFutureTest() throws Exception {
+    SimpleSuspendSupplier supplier = new SimpleSuspendSupplier();
+    SelfSuspendingExecutor<Integer> executor = new SelfSuspendingExecutor<>(supplier, 8);
+    executor.start();
+    executor.getCompletionFuture().get();
+
+    Assert.assertTrue(executor.isFinished());
+    Assert.assertEquals(SimpleSuspendSupplier.EXPECTED_RESULT, supplier.getResult());
+  }
+
   private static void blockUntilFinished(SelfSuspendingExecutor executor) {
     while (!executor.isFinished()) {
       try {
@@ -0,0 +1,42 @@
+package org.aksw.twig.executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class TreeReducerTest {
+
+  @Test
+  public void test() throws InterruptedException {
+    AtomicInteger merges = new AtomicInteger();
+    TreeReducer<int[]> reducer = new TreeReducer<>(() -> new int[1], (sum, other) -> {
+      merges.incrementAndGet();
+      sum[0] += other[0];
+      return sum;
+    });
+
+    ExecutorService service = Executors.newFixedThreadPool(4);
+    IntStream.rangeClosed(1, 100).forEach(i -> service.execute(() -> reducer.add(new int[] {i})));
+    service.shutdown();
+    Assert.assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+
+    int[] result = reducer.reduce();
+    Assert.assertEquals(5050, result[0]);
+    Assert.assertEquals(99, merges.get());
+    Assert.assertSame(result, reducer.reduce());
+
+    reducer.add(new int[] {1});
+    Assert.assertEquals(5051, reducer.reduce()[0]);
+  }
+
+  @Test
+  public void emptyTest() {
+    TreeReducer<int[]> reducer = new TreeReducer<>(() -> new int[] {42}, (sum, other) -> sum);
+    Assert.assertEquals(42, reducer.reduce()[0]);
+  }
+}
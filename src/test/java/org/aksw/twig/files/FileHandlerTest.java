@@ -0,0 +1,87 @@
+package org.aksw.twig.files;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileHandlerTest {
+
+  private static final String BLOCK = "T\t2009-09-30 23:55:53\n" + "U\thttp://twitter.com/user\n"
+      + "W\tTweeting about Tuesday\n" + "\n";
+
+  @Test
+  public void splitAtLinesTest() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      builder.append(BLOCK);
+    }
+    final String content = builder.toString();
+    final File file = writeTempFile(content);
+
+    final List<Pair<Long, Long>> ranges = FileHandler.splitAtLines(file, 7, "T\t");
+    Assert.assertEquals(7, ranges.size());
+
+    final StringBuilder reassembled = new StringBuilder();
+    long lastEnd = 0;
+    for (final Pair<Long, Long> range : ranges) {
+      Assert.assertEquals(lastEnd, (long) range.getLeft());
+      lastEnd = range.getRight();
+
+      try (InputStream inputStream =
+          FileHandler.getRangeStream(file, range.getLeft(), range.getRight())) {
+        final String rangeContent = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        Assert.assertTrue(rangeContent.startsWith(BLOCK));
+        reassembled.append(rangeContent);
+      }
+    }
+
+    Assert.assertEquals(content, reassembled.toString());
+    file.delete();
+  }
+
+  @Test
+  public void getFilesTest() throws IOException {
+    final File directory = Files.createTempDirectory("twig").toFile();
+    final File input = new File(directory, "tweets.gz");
+    final File index = GZIPMemberIndex.getIndexFile(input);
+    Assert.assertTrue(input.createNewFile());
+    Assert.assertTrue(index.createNewFile());
+
+    Assert.assertEquals(Collections.singletonList(input),
+        FileHandler.getFiles(directory, false).collect(Collectors.toList()));
+    index.delete();
+    input.delete();
+    directory.delete();
+  }
+
+  @Test
+  public void splitSmallFileTest() throws IOException {
+    final File file = writeTempFile(BLOCK);
+
+    final List<Pair<Long, Long>> ranges = FileHandler.splitAtLines(file, 4, "T\t");
+    Assert.assertEquals(1, ranges.size());
+    Assert.assertEquals(0L, (long) ranges.get(0).getLeft());
+    Assert.assertEquals(file.length(), (long) ranges.get(0).getRight());
+    file.delete();
+  }
+
+  private static File writeTempFile(final String content) throws IOException {
+    final File file = File.createTempFile("twitter7", ".txt");
+    try (OutputStream outputStream = new FileOutputStream(file)) {
+      outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+    return file;
+  }
+}
@@ -0,0 +1,140 @@
+package org.aksw.twig.files;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.aksw.twig.Const;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GZIPMemberIndexTest {
+
+  private boolean gzipIndex;
+
+  @Before
+  public void enableIndex() {
+    gzipIndex = Const.GZIP_INDEX;
+    Const.GZIP_INDEX = true;
+  }
+
+  @After
+  public void restoreIndex() {
+    Const.GZIP_INDEX = gzipIndex;
+  }
+
+  /**
+   * Tests that a multi-member gzip file gets indexed on the first read and split into line-aligned
+   * segments afterwards.
+   */
+  @Test
+  public void segmentTest() throws IOException {
+    final Random random = new Random(0);
+    final StringBuilder builder = new StringBuilder("total number:1000\n");
+    for (int i = 0; i < 1000; i++) {
+      builder.append("T\t2009-09-30 23:55:").append(i % 60).append('\n')
+          .append("U\thttp://twitter.com/user").append(i).append('\n').append("W\t");
+      for (int j = random.nextInt(30); j >= 0; j--) {
+        builder.append("Tweet ");
+      }
+      builder.append("\n\n");
+    }
+    final String content = builder.toString();
+
+    final File file = File.createTempFile("twitter7", ".txt.gz");
+    final File indexFile = GZIPMemberIndex.getIndexFile(file);
+    final ExecutorService service = Executors.newFixedThreadPool(2);
+    try {
+      try (OutputStream outputStream =
+          new ParallelGZIPOutputStream(new FileOutputStream(file), service, 997, 4)) {
+        outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+      }
+
+      List<InputStream> streams = FileHandler.getSegmentStreams(file, 5, "T\t");
+      Assert.assertEquals(1, streams.size());
+      try (InputStream inputStream = streams.get(0)) {
+        Assert.assertEquals(content, IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+      }
+      Assert.assertTrue(indexFile.isFile());
+
+      final GZIPMemberIndex index = GZIPMemberIndex.load(file);
+      Assert.assertNotNull(index);
+      Assert.assertEquals(content.length(), index.getUncompressedLength());
+      Assert.assertTrue(index.getMemberCount() > 5);
+
+      streams = FileHandler.getSegmentStreams(file, 5, "T\t");
+      Assert.assertEquals(5, streams.size());
+      final StringBuilder reassembled = new StringBuilder();
+      for (int i = 0; i < streams.size(); i++) {
+        try (InputStream inputStream = streams.get(i)) {
+          final String segment = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+          Assert.assertTrue(i == 0 || segment.isEmpty() || segment.startsWith("T\t"));
+          reassembled.append(segment);
+        }
+      }
+      Assert.assertEquals(content, reassembled.toString());
+    } finally {
+      service.shutdown();
+      file.delete();
+      indexFile.delete();
+    }
+  }
+
+  /**
+   * Tests that segments of a multi-member gzip file split at any line consist of whole lines and
+   * are only opened once requested.
+   */
+  @Test
+  public void lineSegmentTest() throws Exception {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      builder.append("<http://aksw.org/twig#s").append(i).append("> <http://aksw.org/twig#p> \"")
+          .append(i).append("\" .\n");
+    }
+    final String content = builder.toString();
+
+    final File file = File.createTempFile("twig", ".nt.gz");
+    final File indexFile = GZIPMemberIndex.getIndexFile(file);
+    final ExecutorService service = Executors.newFixedThreadPool(2);
+    try {
+      try (OutputStream outputStream =
+          new ParallelGZIPOutputStream(new FileOutputStream(file), service, 1009, 4)) {
+        outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+      }
+
+      List<FileHandler.StreamOpener> openers = FileHandler.getSegmentStreamOpeners(file, 4, "");
+      Assert.assertEquals(1, openers.size());
+      Assert.assertFalse(indexFile.exists());
+      try (InputStream inputStream = openers.get(0).open()) {
+        Assert.assertEquals(content, IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+      }
+
+      openers = FileHandler.getSegmentStreamOpeners(file, 4, "");
+      Assert.assertEquals(4, openers.size());
+      final StringBuilder reassembled = new StringBuilder();
+      for (final FileHandler.StreamOpener opener : openers) {
+        try (InputStream inputStream = opener.open()) {
+          final String segment = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+          Assert.assertTrue(segment.isEmpty() || segment.startsWith("<"));
+          Assert.assertTrue(segment.isEmpty() || segment.endsWith("\n"));
+          reassembled.append(segment);
+        }
+      }
+      Assert.assertEquals(content, reassembled.toString());
+    } finally {
+      service.shutdown();
+      file.delete();
+      indexFile.delete();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package org.aksw.twig.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelGZIPOutputStreamTest {
+
+  /**
+   * Tests that data compressed into many members can be decompressed by a {@link GZIPInputStream}.
+   */
+  @Test
+  public void multiMemberTest() throws IOException {
+    final byte[] data = new byte[100000];
+    final Random random = new Random(0);
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) ('a' + random.nextInt(4));
+    }
+
+    final ExecutorService service = Executors.newFixedThreadPool(3);
+    try {
+      final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      try (OutputStream outputStream =
+          new ParallelGZIPOutputStream(compressed, service, 1000, 2)) {
+        outputStream.write(data, 0, 12345);
+        outputStream.write(data[12345]);
+        outputStream.flush();
+        outputStream.write(data, 12346, data.length - 12346);
+      }
+
+      try (GZIPInputStream inputStream =
+          new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+        Assert.assertArrayEquals(data, IOUtils.toByteArray(inputStream));
+      }
+    } finally {
+      service.shutdown();
+    }
+  }
+
+  /**
+   * Tests that an empty stream results in a valid gzip file.
+   */
+  @Test
+  public void emptyTest() throws IOException {
+    final ExecutorService service = Executors.newSingleThreadExecutor();
+    try {
+      final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      new ParallelGZIPOutputStream(compressed, service, 1000, 2).close();
+
+      try (GZIPInputStream inputStream =
+          new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+        Assert.assertEquals(0, IOUtils.toByteArray(inputStream).length);
+      }
+    } finally {
+      service.shutdown();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.aksw.twig.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RDFOutputFormatTest {
+
+  @Test
+  public void fromFileTest() {
+    Assert.assertEquals(RDFOutputFormat.N_TRIPLES, RDFOutputFormat.fromFile(new File("a_0.nt")));
+    Assert.assertEquals(RDFOutputFormat.RDF_THRIFT,
+        RDFOutputFormat.fromFile(new File("a_0.rt.gz")));
+    Assert.assertEquals(RDFOutputFormat.TURTLE, RDFOutputFormat.fromFile(new File("a_0.ttl.gz")));
+    Assert.assertEquals(RDFOutputFormat.TURTLE, RDFOutputFormat.fromFile(new File("a_0")));
+    Assert.assertEquals(RDFOutputFormat.N_TRIPLES, RDFOutputFormat.fromName("nt"));
+  }
+
+  /**
+   * Tests that only uncompressed N-Triples files are split at lines.
+   */
+  @Test
+  public void splitTest() throws IOException {
+    File nTriples = File.createTempFile("twig", ".nt");
+    File turtle = File.createTempFile("twig", ".ttl");
+    nTriples.deleteOnExit();
+    turtle.deleteOnExit();
+
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      builder.append("<http://a/").append(i).append("> <http://b> <http://c> .\n");
+    }
+    byte[] content = builder.toString().getBytes(StandardCharsets.UTF_8);
+    for (File file : new File[] {nTriples, turtle}) {
+      try (OutputStream outputStream = new FileOutputStream(file)) {
+        outputStream.write(content);
+      }
+    }
+
+    List<Pair<Long, Long>> ranges = TWIGModelWrapper.split(nTriples, 4);
+    Assert.assertEquals(4, ranges.size());
+    Assert.assertEquals(0L, (long) ranges.get(0).getLeft());
+    Assert.assertEquals(content.length, (long) ranges.get(3).getRight());
+    for (int i = 1; i < ranges.size(); i++) {
+      Assert.assertEquals(ranges.get(i - 1).getRight(), ranges.get(i).getLeft());
+      Assert.assertEquals('<', content[ranges.get(i).getLeft().intValue()]);
+      Assert.assertEquals('\n', content[ranges.get(i).getLeft().intValue() - 1]);
+    }
+
+    Assert.assertEquals(1, TWIGModelWrapper.split(turtle, 4).size());
+  }
+}
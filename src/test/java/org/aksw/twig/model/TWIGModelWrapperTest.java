@@ -0,0 +1,41 @@
+package org.aksw.twig.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TWIGModelWrapperTest {
+
+  /**
+   * Tests that statements of a TDB-backed wrapper are committed into its dataset and persist.
+   */
+  @Test
+  public void tdbTest() throws IOException {
+    File directory = Files.createTempDirectory("twig-tdb").toFile();
+    try {
+      TWIGModelWrapper wrapper = new TWIGModelWrapper(directory);
+      Assert.assertTrue(wrapper.isTDBBacked());
+      wrapper.addTweet(new Tweet("user", "hi @bob", LocalDateTime.of(2009, 9, 30, 23, 55, 53),
+          Collections.singletonList("bob")), 0);
+      long size = wrapper.size();
+      Assert.assertTrue(size > 0);
+
+      wrapper.commit();
+      Assert.assertTrue(wrapper.getModel().isEmpty());
+      Assert.assertEquals(size, wrapper.size());
+      wrapper.close();
+
+      TWIGModelWrapper reopened = new TWIGModelWrapper(directory);
+      Assert.assertEquals(size, reopened.size());
+      reopened.close();
+    } finally {
+      FileUtils.deleteQuietly(directory);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.aksw.twig.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TweetBinaryTest {
+
+  /**
+   * Tests that written tweets can be read again with anonymized names.
+   */
+  @Test
+  public void writeReadTest() throws IOException {
+    LocalDateTime time = LocalDateTime.of(2009, 9, 30, 23, 55, 53);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    TweetBinaryWriter writer = new TweetBinaryWriter(outputStream);
+    writer.addTweet(new Tweet("user", "hi @bob", time, Collections.singletonList("bob")), 0);
+    writer.addTweet(new Tweet("bob", "sh\u00f6n", time.plusDays(1), Collections.emptyList()), 0);
+    writer.finish();
+
+    String user = TwitterAccountAnonymizer.anonymize("user");
+    String bob = TwitterAccountAnonymizer.anonymize("bob");
+
+    try (TweetBinaryReader reader =
+        new TweetBinaryReader(new ByteArrayInputStream(outputStream.toByteArray()))) {
+      Tweet tweet = reader.read();
+      Assert.assertEquals(user, tweet.getAccountName());
+      Assert.assertEquals("hi @" + bob, tweet.getContent());
+      Assert.assertEquals(time, tweet.getTime());
+      Assert.assertEquals(Arrays.asList(bob), tweet.getMentions());
+
+      tweet = reader.read();
+      Assert.assertEquals(bob, tweet.getAccountName());
+      Assert.assertEquals("sh\u00f6n", tweet.getContent());
+      Assert.assertEquals(time.plusDays(1), tweet.getTime());
+      Assert.assertTrue(tweet.getMentions().isEmpty());
+
+      Assert.assertNull(reader.read());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void malformedHeaderTest() throws IOException {
+    new TweetBinaryReader(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+  }
+
+  @Test
+  public void isBinaryFileTest() {
+    Assert.assertTrue(TweetBinaryReader.isBinaryFile(new File("tweets_1.twb")));
+    Assert.assertTrue(TweetBinaryReader.isBinaryFile(new File("tweets_1.twb.gz")));
+    Assert.assertFalse(TweetBinaryReader.isBinaryFile(new File("tweets_1.ttl.gz")));
+  }
+}
@@ -0,0 +1,36 @@
+package org.aksw.twig.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TwitterAccountAnonymizerTest {
+
+  @Test
+  public void anonymizeTest() {
+    String user = TwitterAccountAnonymizer.anonymize("user");
+    Assert.assertEquals(32, user.length());
+    Assert.assertEquals(user, TwitterAccountAnonymizer.anonymize(new String("user")));
+    Assert.assertNotEquals(user, TwitterAccountAnonymizer.anonymize("user2"));
+  }
+
+  /**
+   * Tests that only mentions get replaced, with and without offsets.
+   */
+  @Test
+  public void anonymizeContentTest() {
+    String content = "@bob: bobby and @al.ice met @bob";
+    String expected = "@" + TwitterAccountAnonymizer.anonymize("bob") + ": bobby and @"
+        + TwitterAccountAnonymizer.anonymize("al") + ".ice met @"
+        + TwitterAccountAnonymizer.anonymize("bob");
+
+    Assert.assertEquals(expected, TwitterAccountAnonymizer.anonymizeContent(content,
+        Arrays.asList("bob", "al", "bob"), new int[] {1, 17, 29}));
+    Assert.assertEquals(expected, TwitterAccountAnonymizer.anonymizeContent(content,
+        Arrays.asList("bob", "al", "bob"), null));
+    Assert.assertEquals(content,
+        TwitterAccountAnonymizer.anonymizeContent(content, Collections.emptyList(), null));
+  }
+}
@@ -0,0 +1,100 @@
+package org.aksw.twig.parsing;
+
+import java.util.Arrays;
+
+import org.aksw.twig.model.Tweet;
+import org.apache.commons.lang3.tuple.ImmutableTriple;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Twitter7FastBlockParserTest {
+
+  /**
+   * Tests parsing of twitter7 data information of one block.
+   */
+  @Test
+  public void parseTest() {
+    Twitter7FastBlockParser parser = new Twitter7FastBlockParser();
+
+    Assert.assertTrue(parser.parse("       2009-09-30 23:55:53", "       http://twitter.com/user",
+        "       @user1 and @user_2: I'm starting to feel really sick @ home"));
+
+    Assert.assertEquals("2009-09-30T23:55:53", parser.getMessageDateTime().toString());
+    Assert.assertEquals("user", parser.getTwitterUserName());
+    Assert.assertEquals("@user1 and @user_2: I'm starting to feel really sick @ home",
+        parser.getMessageContent());
+    Assert.assertEquals(Arrays.asList("user1", "user_2"), parser.getMentions());
+  }
+
+  /**
+   * Tests that results equal those of {@link Twitter7BlockParser}.
+   */
+  @Test
+  public void equalsBlockParserTest() throws Twitter7BlockParseException {
+    String lineT = "\t2010-02-28 00:00:01";
+    String lineU = "\tHTTP://Twitter.com//some_user/statuses/1?x=y";
+    String lineW = "\t@abcdefghijklmnopq @@x x@y";
+
+    Twitter7BlockParser blockParser =
+        new Twitter7BlockParser(new ImmutableTriple<>(lineT, lineU, lineW));
+    blockParser.parse();
+
+    Twitter7FastBlockParser parser = new Twitter7FastBlockParser();
+    Assert.assertTrue(parser.parse(lineT, lineU, lineW));
+    Assert.assertEquals(blockParser.getMessageDateTime(), parser.getMessageDateTime());
+    Assert.assertEquals(blockParser.getTwitterUserName(), parser.getTwitterUserName());
+    Assert.assertEquals(blockParser.getMessageContent(), parser.getMessageContent());
+    Assert.assertEquals(Arrays.asList("abcdefghijklmno", "x", "y"), parser.getMentions());
+  }
+
+  /**
+   * Tests that created tweets do not change on subsequent parsing.
+   */
+  @Test
+  public void toTweetTest() {
+    Twitter7FastBlockParser parser = new Twitter7FastBlockParser();
+
+    Assert.assertTrue(parser.parse(" 2009-09-30 23:55:53", " http://twitter.com/user", " @a @b"));
+    Tweet tweet = parser.toTweet();
+    Assert.assertTrue(parser.parse(" 2009-09-30 23:55:54", " http://twitter.com/other", " @c"));
+
+    Assert.assertEquals("user", tweet.getAccountName());
+    Assert.assertEquals("@a @b", tweet.getContent());
+    Assert.assertEquals("2009-09-30T23:55:53", tweet.getTime().toString());
+    Assert.assertEquals(Arrays.asList("a", "b"), tweet.getMentions());
+    Assert.assertArrayEquals(new int[] {1, 4}, tweet.getMentionOffsets());
+  }
+
+  /**
+   * Tests that malformed blocks get counted.
+   */
+  @Test
+  public void malformedTest() {
+    Twitter7FastBlockParser parser = new Twitter7FastBlockParser();
+
+    long dateTimeErrors =
+        Twitter7FastBlockParser.getErrorCount(Twitter7BlockParseException.Error.DATETIME_MALFORMED);
+    Assert.assertFalse(parser.parse(" 2009-02-29 23:55:53", " http://twitter.com/user", " a"));
+    Assert.assertFalse(parser.parse(" 2009-09-30T23:55:53", " http://twitter.com/user", " a"));
+    Assert.assertEquals(dateTimeErrors + 2, Twitter7FastBlockParser
+        .getErrorCount(Twitter7BlockParseException.Error.DATETIME_MALFORMED));
+
+    long linkErrors =
+        Twitter7FastBlockParser.getErrorCount(Twitter7BlockParseException.Error.NO_TWITTER_LINK);
+    Assert.assertFalse(parser.parse(" 2009-09-30 23:55:53", " http://twitter.org/user", " a"));
+    Assert.assertEquals(linkErrors + 1,
+        Twitter7FastBlockParser.getErrorCount(Twitter7BlockParseException.Error.NO_TWITTER_LINK));
+
+    long accountErrors = Twitter7FastBlockParser
+        .getErrorCount(Twitter7BlockParseException.Error.NO_TWITTER_ACCOUNT);
+    Assert.assertFalse(parser.parse(" 2009-09-30 23:55:53", " http://twitter.com//", " a"));
+    Assert.assertEquals(accountErrors + 1, Twitter7FastBlockParser
+        .getErrorCount(Twitter7BlockParseException.Error.NO_TWITTER_ACCOUNT));
+
+    long urlErrors =
+        Twitter7FastBlockParser.getErrorCount(Twitter7BlockParseException.Error.URL_MALFORMED);
+    Assert.assertFalse(parser.parse(" 2009-09-30 23:55:53", " twitter.com/user", " a"));
+    Assert.assertEquals(urlErrors + 1,
+        Twitter7FastBlockParser.getErrorCount(Twitter7BlockParseException.Error.URL_MALFORMED));
+  }
+}
@@ -1,6 +1,8 @@
 package org.aksw.twig.parsing;
 
 import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Triple;
 import org.junit.Assert;
@@ -10,8 +12,14 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Twitter7ParserTest {
 
@@ -106,6 +114,78 @@ public class Twitter7ParserTest {
     }
   }
 
+  @Test
+  public void readBatchTest() throws IOException, InterruptedException {
+    final List<List<Triple<String, String, String>>> batches = new LinkedList<>();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    InputStream inputStream = new ByteArrayInputStream(SAMPLE.getBytes());
+    Twitter7Parser<List<Triple<String, String, String>>> parser =
+        new Twitter7Parser<>(inputStream, batch -> () -> batch, 2);
+    parser.addFutureCallbacks(new FutureCallback<List<Triple<String, String, String>>>() {
+      @Override
+      public void onSuccess(List<Triple<String, String, String>> result) {
+        synchronized (batches) {
+          batches.add(result);
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        // Callbacks run on worker threads, so the failure is asserted on the test thread
+        failure.compareAndSet(null, t);
+      }
+    });
+    final CountDownLatch finished = new CountDownLatch(1);
+    parser.addParsingFinishedResultListeners(finished::countDown);
+    parser.run();
+    Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+
+    Assert.assertNull(failure.get());
+    synchronized (batches) {
+      Assert.assertEquals(1, batches.size());
+      Assert.assertEquals(2, batches.get(0).size());
+      Assert.assertEquals("       http://twitter.com/user1", batches.get(0).get(0).getMiddle());
+      Assert.assertEquals("       http://twitter.com/user2", batches.get(0).get(1).getMiddle());
+    }
+  }
+
+  @Test
+  public void sharedServiceTest() throws IOException, InterruptedException {
+    final ListeningExecutorService service =
+        MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(2));
+    final List<Triple<String, String, String>> results = new LinkedList<>();
+    final CountDownLatch finished = new CountDownLatch(2);
+
+    for (String sample : new String[] {SAMPLE, SAMPLE_BROKEN}) {
+      Twitter7Parser<List<Triple<String, String, String>>> parser = new Twitter7Parser<>(
+          new ByteArrayInputStream(sample.getBytes()), batch -> () -> batch, 1, service);
+      parser.addFutureCallbacks(new FutureCallback<List<Triple<String, String, String>>>() {
+        @Override
+        public void onSuccess(List<Triple<String, String, String>> result) {
+          synchronized (results) {
+            results.addAll(result);
+          }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          Assert.fail();
+        }
+      });
+      parser.addParsingFinishedResultListeners(finished::countDown);
+      parser.run();
+    }
+
+    Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+    Assert.assertFalse(service.isShutdown());
+    service.shutdown();
+
+    synchronized (results) {
+      Assert.assertEquals(3, results.size());
+    }
+  }
+
   private class ParserCallable implements Callable<Triple<String, String, String>> {
 
     private Triple<String, String, String> arg;
@@ -0,0 +1,167 @@
+package org.aksw.twig.parsing;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.tuple.Triple;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.FutureCallback;
+
+public class Twitter7PipelineTest {
+
+  private static final String SAMPLE = "T\t2009-09-30 23:55:53\n" + "U\thttp://twitter.com/user1\n"
+      + "W\tfirst\n" + "\n" + "T\t2009-09-30 23:55:54\n" + "U\thttp://twitter.com/user2\n"
+      + "W\tsecond\n" + "\n" + "T\t2009-09-30 23:55:55\n" + "X\thttp://twitter.com/user3\n"
+      + "W\tbroken\n" + "\n" + "T\t2009-09-30 23:55:56\n" + "U\thttp://twitter.com/user4\n"
+      + "W\tfourth\n";
+
+  private static final String SAMPLE_2 = "T\t2009-09-30 23:55:57\n"
+      + "U\thttp://twitter.com/user5\n" + "W\tfifth\n";
+
+  /**
+   * Tests that every block of every stream gets collected exactly once with small chunks, queues
+   * and batches.
+   */
+  @Test
+  public void pipelineTest() {
+    final Set<String> collected = new HashSet<>();
+    final AtomicBoolean finished = new AtomicBoolean(false);
+
+    final List<InputStream> inputStreams =
+        Arrays.asList(new ByteArrayInputStream(SAMPLE.getBytes()),
+            new ByteArrayInputStream(SAMPLE_2.getBytes()));
+    final Twitter7Pipeline<List<Triple<String, String, String>>> pipeline =
+        new Twitter7Pipeline<>(inputStreams, batch -> () -> batch, 2, 2, 1, 2, 2, 3, 2);
+    pipeline.addFutureCallbacks(new FutureCallback<List<Triple<String, String, String>>>() {
+      @Override
+      public void onSuccess(final List<Triple<String, String, String>> result) {
+        Assert.assertTrue(result.size() <= 2);
+        synchronized (collected) {
+          result.forEach(triple -> Assert.assertTrue(collected.add(triple.getRight())));
+        }
+      }
+
+      @Override
+      public void onFailure(final Throwable t) {
+        Assert.fail();
+      }
+    });
+    pipeline.addParsingFinishedResultListeners(() -> finished.set(true));
+    pipeline.run();
+
+    Assert.assertTrue(finished.get());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("\tfirst", "\tsecond", "\tfourth", "\tfifth")),
+        collected);
+  }
+
+  /**
+   * Tests that every block gets collected if batches are parsed by a shared service and that the
+   * service is not shut down by the pipeline.
+   */
+  @Test
+  public void sharedServiceTest() throws InterruptedException {
+    final Set<String> collected = new HashSet<>();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final ExecutorService parseService = Executors.newFixedThreadPool(2);
+
+    final List<InputStream> inputStreams =
+        Arrays.asList(new ByteArrayInputStream(SAMPLE.getBytes()),
+            new ByteArrayInputStream(SAMPLE_2.getBytes()));
+    final Twitter7Pipeline<List<Triple<String, String, String>>> pipeline =
+        new Twitter7Pipeline<>(inputStreams, batch -> () -> batch, 2, 2, 1, 2, 2, 3, 2,
+            parseService);
+    pipeline.addFutureCallbacks(new FutureCallback<List<Triple<String, String, String>>>() {
+      @Override
+      public void onSuccess(final List<Triple<String, String, String>> result) {
+        synchronized (collected) {
+          result.forEach(triple -> collected.add(triple.getRight()));
+        }
+      }
+
+      @Override
+      public void onFailure(final Throwable t) {
+        failure.compareAndSet(null, t);
+      }
+    });
+    pipeline.run();
+
+    Assert.assertNull(failure.get());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("\tfirst", "\tsecond", "\tfourth", "\tfifth")),
+        collected);
+    Assert.assertFalse(parseService.isShutdown());
+    parseService.shutdown();
+    Assert.assertTrue(parseService.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Tests that an empty stream finishes without results.
+   */
+  @Test
+  public void emptyTest() {
+    final AtomicBoolean finished = new AtomicBoolean(false);
+    final Twitter7Pipeline<List<Triple<String, String, String>>> pipeline = new Twitter7Pipeline<>(
+        Arrays.asList(new ByteArrayInputStream(new byte[0])), batch -> () -> batch, 1, 1, 1, 1, 1,
+        1, 1);
+    pipeline.addFutureCallbacks(new FutureCallback<List<Triple<String, String, String>>>() {
+      @Override
+      public void onSuccess(final List<Triple<String, String, String>> result) {
+        Assert.fail("Callback got invoked.");
+      }
+
+      @Override
+      public void onFailure(final Throwable t) {
+        Assert.fail("Callback got invoked.");
+      }
+    });
+    pipeline.addParsingFinishedResultListeners(() -> finished.set(true));
+    pipeline.run();
+
+    Assert.assertTrue(finished.get());
+  }
+
+  /**
+   * Tests that a failing stage stops the pipeline instead of blocking the upstream stages on full
+   * queues and that the failure is handed to the callbacks.
+   */
+  @Test(timeout = 10000)
+  public void failureTest() {
+    final StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      input.append(SAMPLE_2);
+    }
+    final AtomicBoolean finished = new AtomicBoolean(false);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    final Twitter7Pipeline<List<Triple<String, String, String>>> pipeline = new Twitter7Pipeline<>(
+        Arrays.asList(new ByteArrayInputStream(input.toString().getBytes())), batch -> () -> {
+          throw new OutOfMemoryError();
+        }, 1, 1, 1, 1, 1, 1, 1);
+    pipeline.addFutureCallbacks(new FutureCallback<List<Triple<String, String, String>>>() {
+      @Override
+      public void onSuccess(final List<Triple<String, String, String>> result) {
+        Assert.fail("Callback got invoked.");
+      }
+
+      @Override
+      public void onFailure(final Throwable t) {
+        Assert.assertTrue(failure.compareAndSet(null, t));
+      }
+    });
+    pipeline.addParsingFinishedResultListeners(() -> finished.set(true));
+    pipeline.run();
+
+    Assert.assertTrue(finished.get());
+    Assert.assertTrue(failure.get() instanceof OutOfMemoryError);
+  }
+}
@@ -0,0 +1,38 @@
+package org.aksw.twig.structs;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongLongHashMapTest {
+
+  @Test
+  public void randomTest() {
+    final Random random = new Random(1);
+    final LongLongHashMap map = new LongLongHashMap();
+    final Map<Long, Long> expected = new HashMap<>();
+    for (int i = 0; i < 100000; i++) {
+      final long key = ((long) random.nextInt(1000) << 32) | random.nextInt(100);
+      final long delta = random.nextInt(10);
+      map.addTo(key, delta);
+      expected.merge(key, delta, Long::sum);
+    }
+
+    Assert.assertEquals(expected.size(), map.size());
+    expected.forEach((key, value) -> Assert.assertEquals(value.longValue(), map.get(key, -1)));
+    Assert.assertEquals(-1, map.get(Long.MAX_VALUE, -1));
+    Assert.assertFalse(map.containsKey(Long.MAX_VALUE));
+
+    final Map<Long, Long> iterated = new HashMap<>();
+    map.forEach(iterated::put);
+    Assert.assertEquals(expected, iterated);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeKeyTest() {
+    new LongLongHashMap().put(-1, 0);
+  }
+}